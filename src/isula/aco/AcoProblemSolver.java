@@ -2,6 +2,11 @@ package isula.aco;
 
 import javax.naming.ConfigurationException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,6 +17,11 @@ import java.util.logging.Logger;
  * <p>The solveProblem() method is the one that starts the optimization process.
  * Previously, you have to properly configure your solver by assigning it a
  * Colony, an Environment and Daemon Actions (if required).
+ * <p>
+ * <p>The search ends after the configured number of iterations, or earlier if
+ * the time limit is over, the target cost is reached or a stop is requested.
+ * The best solution so far can be read from any thread at any time: it is
+ * published as a whole, once its solution is complete.
  *
  * @param <C> Class for components of a solution.
  * @param <E> Class representing the Environment.
@@ -22,10 +32,12 @@ public class AcoProblemSolver<C, E extends Environment> {
     private static Logger logger = Logger.getLogger(AcoProblemSolver.class
             .getName());
 
-    private C[] bestSolution;
-    private double bestSolutionCost = 0.0;
-    private String bestSolutionAsString = "";
-    private Map<Integer, Integer> bestLayerThicknessMap = new HashMap<>();
+    private volatile SolverResult<C> bestSolution = new SolverResult<>(null, 0.0, "", new HashMap<>(), 0);
+    private final List<Consumer<SolverResult<C>>> improvementListeners = new CopyOnWriteArrayList<>();
+
+    private int currentIteration = 0;
+    private int lastImprovementIteration = 0;
+    private volatile boolean stopRequested = false;
 
     private E environment;
     private AntColony<C, E> antColony;
@@ -43,7 +55,23 @@ public class AcoProblemSolver<C, E extends Environment> {
      * @param config      Algorithm configuration.
      */
     public void initialize(E environment, AntColony<C, E> colony, ConfigurationProvider config) {
+        if (config.isOffHeapStorage()) {
+            environment.useOffHeapStorage();
+        }
+        if (config.isSinglePrecisionStorage()) {
+            environment.useSinglePrecisionStorage();
+        }
+        if (config.isLazyEvaporation()) {
+            environment.useLazyEvaporation();
+        }
+        if (config.isConcurrentPheromoneUpdate() && colony.getExecutorService() != null) {
+            environment.useConcurrentPheromoneStore();
+        }
+
         colony.buildColony(environment);
+        if (config.getRandomSeed() != null) {
+            colony.seedAnts(config.getRandomSeed());
+        }
         this.setConfigurationProvider(config);
         this.setEnvironment(environment);
         this.setAntColony(colony);
@@ -76,11 +104,27 @@ public class AcoProblemSolver<C, E extends Environment> {
     }
 
     /**
-     * Solves an optimization problem using a Colony of Ants.
+     * Solves an optimization problem using a Colony of Ants. Stop requests and
+     * construction cancellations made before this call, like those of a previous
+     * run, are discarded.
      *
      * @throws ConfigurationException If algorithm parameters aren't properly configured.
      */
     public void solveProblem() throws ConfigurationException {
+        clearStopRequests();
+        solve();
+    }
+
+    /**
+     * Discards stop requests and construction cancellations from previous runs.
+     * It is called before a run starts, so requests made while it runs are kept.
+     */
+    private void clearStopRequests() {
+        stopRequested = false;
+        antColony.resumeConstruction();
+    }
+
+    private void solve() throws ConfigurationException {
         logger.info("Starting computation at: " + new Date());
         final long startTime = System.nanoTime();
 
@@ -88,6 +132,7 @@ public class AcoProblemSolver<C, E extends Environment> {
         // also execute three DaemonActions -> StartPheromoneMatrix (PerformEvaporation and getPheromoneUpdatePolicy)
         // only StartPheromoneMatrix due to DaemonActionType.INITIAL_CONFIGURATION
         applyDaemonActions(DaemonActionType.INITIAL_CONFIGURATION);
+        environment.updateChoiceInfo(configurationProvider);
 
         logger.info("STARTING ITERATIONS");
         int numberOfIterations = configurationProvider.getNumberOfIterations();
@@ -99,47 +144,151 @@ public class AcoProblemSolver<C, E extends Environment> {
 
         logger.info("Number of iterations: " + numberOfIterations);
 
-        int iteration = 0;
-        while (iteration < numberOfIterations) {
+        long timeLimitMillis = configurationProvider.getTimeLimitMillis();
+        if (timeLimitMillis > 0) {
+            antColony.setConstructionDeadline(startTime + TimeUnit.MILLISECONDS.toNanos(timeLimitMillis));
+            logger.info("Time limit (in milliseconds): " + timeLimitMillis);
+        }
+
+        currentIteration = 0;
+        lastImprovementIteration = 0;
+        try {
+            solveIterations(numberOfIterations);
+        } finally {
+            antColony.clearConstructionDeadline();
+        }
+
+        logger.info("Finishing computation at: " + new Date());
+        long endTime = System.nanoTime();
+        double executionTime = (endTime - startTime) / 1000000000.0;
+        logger.info("Duration (in seconds): " + executionTime);
+
+        logger.info("EXECUTION FINISHED");
+        logger.info("Best solution cost: " + getBestSolutionCost());
+        logger.info("Best solution:" + getBestSolutionAsString());
+
+    }
+
+    private void solveIterations(int numberOfIterations) {
+        double targetSolutionCost = configurationProvider.getTargetSolutionCost();
+
+        while (currentIteration < numberOfIterations) {
+            if (stopRequested) {
+                logger.info("Stopping at iteration " + currentIteration + ", as requested");
+                break;
+            }
+            if (antColony.isDeadlineReached()) {
+                logger.info("Time limit reached at iteration " + currentIteration);
+                break;
+            }
+            if (bestSolution.hasSolution() && bestSolution.getCost() <= targetSolutionCost) {
+                logger.info("Target cost reached at iteration " + currentIteration);
+                break;
+            }
 
             antColony.clearAntSolutions();
             antColony.buildSolutions(environment, configurationProvider);
 
+            // Only the ants that finished before cancellation have valid solutions. buildSolutions() waits for
+            // every ant, so none of them is still running. Pheromone is left as it is, since the search ends here.
+            if (antColony.isConstructionCancelled()) {
+                logger.info("Solution construction was cancelled at iteration " + currentIteration);
+                updateBestSolution(environment, antColony.getFinishedAnts(environment));
+                break;
+            }
+
             // TODO(cgavidia): This should reference the Update Pheromone routine.
             // Maybe with the Policy hierarchy.
             // AS has two actions PerformEvaporation -> getPheromoneUpdatePolicy (OfflinePheromoneUpdate)
             applyDaemonActions(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+            environment.updateChoiceInfo(configurationProvider);
 
             updateBestSolution(environment);
+            applyDaemonActions(DaemonActionType.END_OF_ITERATION);
 
-            logger.info("Current iteration: " + iteration + " Best solution cost: " + bestSolutionCost);
+            logger.info("Current iteration: " + currentIteration + " Best solution cost: " + getBestSolutionCost());
 
-            iteration++;
+            currentIteration++;
         }
+    }
 
-        logger.info("Finishing computation at: " + new Date());
-        long endTime = System.nanoTime();
-        double executionTime = (endTime - startTime) / 1000000000.0;
-        logger.info("Duration (in seconds): " + executionTime);
-
-        logger.info("EXECUTION FINISHED");
-        logger.info("Best solution cost: " + bestSolutionCost);
-        logger.info("Best solution:" + bestSolutionAsString);
+    /**
+     * Solves the problem on an executor, without blocking the calling thread.
+     * The future completes with the best solution found. Cancelling it stops
+     * every ant on its next construction step, and the solver before its next
+     * iteration.
+     *
+     * @param executor Executor that runs the solver.
+     * @return Future of the best solution.
+     */
+    public CompletableFuture<SolverResult<C>> solveAsync(Executor executor) {
+        final CompletableFuture<SolverResult<C>> result = new CompletableFuture<SolverResult<C>>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    requestStop();
+                    antColony.cancelConstruction();
+                }
+                return cancelled;
+            }
+        };
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Cleared before checking the future, so a cancellation from now on is not lost.
+                clearStopRequests();
+                if (result.isDone()) {
+                    return;
+                }
+
+                try {
+                    solve();
+                    result.complete(getResult());
+                } catch (Exception | Error e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
 
+        return result;
     }
 
     /**
-     * Distinguish whether the system exits stagnation behavior
+     * Distinguish whether the system exits stagnation behavior: returns the number of iterations since the best
+     * solution was last improved. The StagnationControl daemon action compares it, and other pheromone based
+     * measures, with configured limits.
      *
-     * @throws ConfigurationException If algorithm parameters aren't properly configured.
+     * @return Iterations without improvement.
      */
     public Integer distinguishASPStagnation() {
-        logger.info("Starting distinguish whether stagnation exists at");
+        return getIterationsWithoutImprovement();
+    }
 
+    /**
+     * Number of iterations since the best solution was last improved.
+     *
+     * @return Iterations without improvement.
+     */
+    public int getIterationsWithoutImprovement() {
+        return currentIteration - lastImprovementIteration;
+    }
 
+    public int getCurrentIteration() {
+        return currentIteration;
+    }
 
-        return null;
+    /**
+     * Asks the solver to stop before starting its next iteration. It can be called from any thread, like from a
+     * daemon action that detects stagnation.
+     */
+    public void requestStop() {
+        this.stopRequested = true;
+    }
 
+    public boolean isStopRequested() {
+        return stopRequested;
     }
 
     /**
@@ -153,23 +302,69 @@ public class AcoProblemSolver<C, E extends Environment> {
 
         Ant<C, E> bestAnt = antColony.getBestPerformingAnt(environment);
         Double bestIterationCost = bestAnt.getSolutionCost(environment);
-        logger.fine("Iteration best cost: " + bestIterationCost);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Iteration best cost: " + bestIterationCost + ", Solution: " + bestAnt.getSolutionAsString());
+        }
 
-        System.out.println("bestAnt of each iteration: " + bestAnt.getSolutionAsString());
-        System.out.println("number of layers: " + bestAnt.getSolutionCost(environment));
-//        System.out.println("layerThicknessMapping: " + bestAnt.getLayerThicknessMap().toString());
-        if (bestSolution == null
-                || bestSolutionCost > bestIterationCost) {
-            bestSolution = bestAnt.getSolution().clone();
-            bestSolutionCost = bestIterationCost;
-            bestSolutionAsString = bestAnt.getSolutionAsString();
-            bestLayerThicknessMap = bestAnt.getLayerThicknessMap();
+        updateBestSolution(bestAnt, bestIterationCost);
+    }
 
-            logger.fine("Best solution so far -> Cost: " + bestSolutionCost
-                    + ", Solution: " + bestSolutionAsString);
+    /**
+     * Updates the information of the best solution with some of the ants of
+     * the Colony, like the ones that finished before a cancellation.
+     *
+     * @param environment Environment where the solutions where produced.
+     * @param ants        Ants with finished solutions.
+     */
+    public void updateBestSolution(E environment, List<Ant<C, E>> ants) {
+        Ant<C, E> bestAnt = null;
+        double bestIterationCost = 0.0;
+        for (Ant<C, E> ant : ants) {
+            double solutionCost = ant.getSolutionCost(environment);
+            if (bestAnt == null || solutionCost < bestIterationCost) {
+                bestAnt = ant;
+                bestIterationCost = solutionCost;
+            }
+        }
 
+        if (bestAnt != null) {
+            updateBestSolution(bestAnt, bestIterationCost);
+        }
+    }
+
+    private void updateBestSolution(Ant<C, E> bestAnt, double bestIterationCost) {
+        SolverResult<C> currentBest = this.bestSolution;
+        if (!currentBest.hasSolution()
+                || currentBest.getCost() > bestIterationCost) {
+            SolverResult<C> newBest = new SolverResult<>(bestAnt.getSolution(), bestIterationCost,
+                    bestAnt.getSolutionAsString(), bestAnt.getLayerThicknessMap(), currentIteration);
+            this.bestSolution = newBest;
+            lastImprovementIteration = currentIteration;
+
+            logger.fine("Best solution so far -> " + newBest);
+            notifyImprovement(newBest);
+        }
+    }
+
+    /**
+     * Adopts a solution found somewhere else -like on another island- as the
+     * best solution, if it is better than the current one. It counts as an
+     * improvement, and improvement listeners are notified.
+     *
+     * @param solverResult Solution to offer.
+     * @return True if the solution was adopted.
+     */
+    public boolean offerSolution(SolverResult<C> solverResult) {
+        SolverResult<C> currentBest = this.bestSolution;
+        if (!solverResult.hasSolution()
+                || (currentBest.hasSolution() && currentBest.getCost() <= solverResult.getCost())) {
+            return false;
         }
 
+        this.bestSolution = solverResult;
+        lastImprovementIteration = currentIteration;
+        notifyImprovement(solverResult);
+        return true;
     }
 
     /**
@@ -215,23 +410,65 @@ public class AcoProblemSolver<C, E extends Environment> {
         this.configurationProvider = configurationProvider;
     }
 
+    /**
+     * Returns a copy of the best solution found so far.
+     *
+     * @return Best solution, or null if no solution was found yet.
+     */
     public C[] getBestSolution() {
-        return bestSolution;
+        return bestSolution.getSolution();
     }
 
     public double getBestSolutionCost() {
-        return bestSolutionCost;
+        return bestSolution.getCost();
     }
 
     public String getBestSolutionAsString() {
-        return bestSolutionAsString;
+        return bestSolution.getSolutionAsString();
     }
 
     public void setBestSolutionCost(double bestSolutionCost) {
-        this.bestSolutionCost = bestSolutionCost;
+        SolverResult<C> currentBest = this.bestSolution;
+        this.bestSolution = new SolverResult<>(currentBest.getSolution(), bestSolutionCost,
+                currentBest.getSolutionAsString(), currentBest.getLayerThicknessMap(), currentBest.getIteration());
     }
 
     public Map<Integer, Integer> getBestLayerThicknessMap() {
-        return bestLayerThicknessMap;
+        return bestSolution.getLayerThicknessMap();
+    }
+
+    /**
+     * Returns the best solution found so far as an immutable result. It can be
+     * called from any thread, also while the solver is running.
+     *
+     * @return Best solution so far.
+     */
+    public SolverResult<C> getResult() {
+        return bestSolution;
+    }
+
+    /**
+     * Registers a callback for every improvement of the best solution. Callbacks
+     * run on the solving thread, right after the improvement: they should return
+     * quickly.
+     *
+     * @param improvementListener Callback that receives the new best solution.
+     */
+    public void addImprovementListener(Consumer<SolverResult<C>> improvementListener) {
+        improvementListeners.add(improvementListener);
+    }
+
+    public void removeImprovementListener(Consumer<SolverResult<C>> improvementListener) {
+        improvementListeners.remove(improvementListener);
+    }
+
+    private void notifyImprovement(SolverResult<C> newBest) {
+        for (Consumer<SolverResult<C>> improvementListener : improvementListeners) {
+            try {
+                improvementListener.accept(newBest);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "An improvement listener failed", e);
+            }
+        }
     }
 }
@@ -2,8 +2,10 @@ package isula.aco;
 
 import isula.aco.exception.ConfigurationException;
 import isula.aco.exception.SolutionConstructionException;
+import isula.aco.pheromone.DepositBuffer;
 
 import java.util.*;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * The little workers that build solutions: They belong to a colony. This is an
@@ -48,6 +50,9 @@ public abstract class Ant<C, E extends Environment> {
     // data structure.
     private Map<C, Boolean> visitedComponents = new HashMap<>();
 
+    // Random number stream of this Ant. AntColony.seedAnts() replaces it with a stream split from a master seed.
+    private SplittableRandom random = new SplittableRandom();
+
 
     /**
      * Mark a node as visited.
@@ -84,6 +89,21 @@ public abstract class Ant<C, E extends Environment> {
         visitedComponents.clear();
     }
 
+    /**
+     * Returns the random number stream of this Ant. Policies use it instead of
+     * their own generators, so a seeded colony produces the same solutions
+     * whatever the number of threads.
+     *
+     * @return Random number stream.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
     /**
      * Gets th solution built as a String.
      *
@@ -99,8 +119,20 @@ public abstract class Ant<C, E extends Environment> {
         return solutionString;
     }
 
+    /**
+     * Adds a policy to this Ant. If the policy is already bound to another Ant,
+     * a copy is added instead, so policies are never shared between ants.
+     *
+     * @param antPolicy Policy to add.
+     */
     public void addPolicy(AntPolicy<C, E> antPolicy) {
-        this.policies.add(antPolicy);
+        AntPolicy<C, E> policyToAdd = antPolicy;
+        if (policyToAdd.getAnt() != null && policyToAdd.getAnt() != this) {
+            policyToAdd = antPolicy.copy();
+        }
+
+        policyToAdd.setAnt(this);
+        this.policies.add(policyToAdd);
     }
 
     protected AntPolicy<C, E> getAntPolicy(AntPolicyType policyType, int expectedNumber) {
@@ -136,9 +168,6 @@ public abstract class Ant<C, E extends Environment> {
         AntPolicy<C, E> selectNodePolicy = getAntPolicy(
                 AntPolicyType.NODE_SELECTION, ONE_POLICY);
 
-        // TODO(cgavidia): With this approach, the policy is a shared resource
-        // between ants. This doesn't allow parallelism.
-        selectNodePolicy.setAnt(this);
         boolean policyResult = selectNodePolicy.applyPolicy(environment, configurationProvider);
         if (!policyResult) {
             throw new ConfigurationException("The node selection policy " + selectNodePolicy.getClass().getName() +
@@ -218,9 +247,6 @@ public abstract class Ant<C, E extends Environment> {
         // optional movement for AS (AcoTspWithIsula), because AS didn't add policy with AntPolicyType.AFTER_SOLUTION_IS_READY
         // for ACO (AcoAcsTspWithIsula)
         if (selectNodePolicy != null) {
-            // TODO(cgavidia): With this approach, the policy is a shared resource
-            // between ants. This doesn't allow parallelism.
-            selectNodePolicy.setAnt(this);
             selectNodePolicy.applyPolicy(environment, configurationProvider);
         }
     }
@@ -329,6 +355,44 @@ public abstract class Ant<C, E extends Environment> {
     public abstract void setPheromoneTrailValue(C solutionComponent,
                                                 Integer positionInSolution, E environment, Double value);
 
+    /**
+     * Updates the value of a cell on the pheromone matrix, as a function of its current value. By default, this is
+     * a read followed by a write. Override it to perform the update atomically, when the pheromone store supports
+     * it: otherwise, concurrent updates from ants running in parallel can be lost.
+     * <p>
+     * <p>
+     * If getPheromoneTrailValue() returns null, the update receives NaN as the current value.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param update             Function from the current pheromone value to the new one.
+     */
+    public void updatePheromoneTrailValue(C solutionComponent, Integer positionInSolution, E environment,
+                                          DoubleUnaryOperator update) {
+        Double currentValue = getPheromoneTrailValue(solutionComponent, positionInSolution, environment);
+        setPheromoneTrailValue(solutionComponent, positionInSolution, environment,
+                update.applyAsDouble(currentValue != null ? currentValue : Double.NaN));
+    }
+
+    /**
+     * Records a pheromone deposit for a solution component on a deposit buffer,
+     * instead of updating the pheromone store right away. The buffer uses the
+     * rows and columns of the pheromone store. By default this method returns
+     * false: override it to support buffered deposits.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param depositBuffer      Buffer for the deposit.
+     * @param amount             Pheromone to deposit.
+     * @return True if the deposit was recorded, false if the Ant doesn't support buffered deposits.
+     */
+    public boolean depositPheromone(C solutionComponent, Integer positionInSolution, E environment,
+                                    DepositBuffer depositBuffer, double amount) {
+        return false;
+    }
+
 
     // TODO(cgavidia): For convenience, we're accesing this data structures
     // directly.
@@ -2,14 +2,27 @@ package isula.aco;
 
 import isula.aco.exception.ConfigurationException;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * A group of ants. As an abstract type, you need to define how to build
  * individual ants through the createAnt() method.
+ * <p>
+ * <p>
+ * By default, ants build their solutions one after the other. If an executor
+ * service is assigned to the colony, every ant builds its solution as a separate
+ * task inside a ConstructionScope, and the iteration waits for all of them to
+ * finish. For very large colonies, newThreadPerAntExecutor() gives each ant its
+ * own (virtual, when available) thread.
  *
  * @param <C> Class for components of a solution.
  * @param <E> Class representing the Environment.
@@ -21,6 +34,12 @@ public abstract class AntColony<C, E extends Environment> {
 
     private int numberOfAnts;
     private List<Ant<C, E>> hive = new ArrayList<Ant<C, E>>();
+    private ExecutorService executorService;
+    private volatile ConstructionScope constructionScope;
+    private volatile boolean constructionCancelled = false;
+    private volatile boolean scopeCancelled = false;
+    private volatile boolean hasConstructionDeadline = false;
+    private volatile long constructionDeadline;
 
     /**
      * Creates a colony of ants
@@ -45,6 +64,20 @@ public abstract class AntColony<C, E extends Environment> {
         }
     }
 
+    /**
+     * Gives every Ant its own random number stream, split from a master seed in
+     * hive order. Each Ant only uses its own stream, so the solutions built
+     * don't depend on how ants are scheduled over threads.
+     *
+     * @param seed Master seed.
+     */
+    public void seedAnts(long seed) {
+        SplittableRandom masterRandom = new SplittableRandom(seed);
+        for (Ant<C, E> ant : hive) {
+            ant.setRandom(masterRandom.split());
+        }
+    }
+
     /**
      * Produces a new Ant to integrate the colony.
      *
@@ -54,23 +87,39 @@ public abstract class AntColony<C, E extends Environment> {
     protected abstract Ant<C, E> createAnt(E environment);
 
     /**
-     * Returns the ant with the best performance so far, that is the one with the lowest cost.
+     * Returns the ant with the best performance so far, that is the one with the lowest cost. The cost of every
+     * ant is calculated once -in parallel, if the colony has an executor service- and ties go to the first ant in
+     * the hive.
      *
      * @param environment Environment where the Ants are building solutions.
      * @return Best performing Ant.
      */
     public Ant<C, E> getBestPerformingAnt(E environment) {
-        Ant<C, E> bestAnt = hive.get(0);
-
-        for (Ant<C, E> ant : hive) {
+        double[] solutionCosts = getSolutionCosts(environment);
 
-            if (ant.getSolutionCost(environment) < bestAnt
-                    .getSolutionCost(environment)) {
-                bestAnt = ant;
+        int bestAntIndex = 0;
+        for (int antIndex = 1; antIndex < solutionCosts.length; antIndex++) {
+            if (solutionCosts[antIndex] < solutionCosts[bestAntIndex]) {
+                bestAntIndex = antIndex;
             }
         }
 
-        return bestAnt;
+        return hive.get(bestAntIndex);
+    }
+
+    /**
+     * Calculates the solution cost of every ant in the colony.
+     *
+     * @param environment Environment where the Ants are building solutions.
+     * @return Solution costs, in hive order.
+     */
+    public double[] getSolutionCosts(E environment) {
+        IntStream antIndexes = IntStream.range(0, hive.size());
+        if (executorService != null) {
+            antIndexes = antIndexes.parallel();
+        }
+
+        return antIndexes.mapToDouble(antIndex -> hive.get(antIndex).getSolutionCost(environment)).toArray();
     }
 
     /**
@@ -95,7 +144,9 @@ public abstract class AntColony<C, E extends Environment> {
     }
 
     /**
-     * Puts every ant in the colony to build a solution.
+     * Puts every ant in the colony to build a solution. With an executor
+     * service, it returns once every construction task has ended, also when
+     * construction is cancelled: no ant is still writing its solution.
      *
      * @param environment           Environment that represents the problem.
      * @param configurationProvider Configuration provider.
@@ -103,7 +154,6 @@ public abstract class AntColony<C, E extends Environment> {
     public void buildSolutions(E environment,
                                ConfigurationProvider configurationProvider) {
         logger.log(Level.FINE, "BUILDING ANT SOLUTIONS");
-        int antCounter = 0;
 
         if (hive.size() == 0) {
             throw new ConfigurationException(
@@ -111,25 +161,84 @@ public abstract class AntColony<C, E extends Environment> {
                             + "Have you called the buildColony() method?");
         }
 
-        for (Ant<C, E> ant : hive) {
-            logger.fine("Current ant: " + antCounter);
+        if (executorService == null) {
+            int antCounter = 0;
+            for (Ant<C, E> ant : hive) {
+                logger.fine("Current ant: " + antCounter);
+                buildSolution(ant, environment, configurationProvider);
+                antCounter++;
+            }
+        } else {
+            buildSolutionsInParallel(environment, configurationProvider);
+        }
+    }
 
-            while (!ant.isSolutionReady(environment)) {
-                ant.selectNextNode(environment, configurationProvider);
+    /**
+     * Forks a construction task per ant in a new scope, and waits for all of them to finish.
+     *
+     * @param environment           Environment that represents the problem.
+     * @param configurationProvider Configuration provider.
+     */
+    private void buildSolutionsInParallel(final E environment,
+                                          final ConfigurationProvider configurationProvider) {
+        // A failed task only stops the ants of this scope: the next call builds solutions as usual.
+        ConstructionScope scope = new ConstructionScope(executorService, new Runnable() {
+            @Override
+            public void run() {
+                scopeCancelled = true;
+            }
+        });
+        try {
+            this.constructionScope = scope;
+            if (constructionCancelled) {
+                scope.cancel();
+            }
+
+            for (final Ant<C, E> ant : hive) {
+                scope.fork(new Runnable() {
+                    @Override
+                    public void run() {
+                        buildSolution(ant, environment, configurationProvider);
+                    }
+                });
             }
-            ant.doAfterSolutionIsReady(environment, configurationProvider);
 
-            logger.log(Level.FINE,
-                    "Solution is ready > Cost: " + ant.getSolutionCost(environment)
-                            + ", Solution: " + ant.getSolutionAsString());
+            scope.join();
+        } finally {
+            scope.close();
+            this.constructionScope = null;
+            this.scopeCancelled = false;
+        }
+    }
+
+    /**
+     * Makes a single ant build a complete solution. Override this method if your
+     * algorithm requires a different construction procedure: it might be called
+     * concurrently for different ants, and it should stop when isConstructionCancelled() is true.
+     *
+     * @param ant                   Ant that builds the solution.
+     * @param environment           Environment that represents the problem.
+     * @param configurationProvider Configuration provider.
+     */
+    protected void buildSolution(Ant<C, E> ant, E environment,
+                                 ConfigurationProvider configurationProvider) {
+        while (!ant.isSolutionReady(environment)) {
+            if (isConstructionCancelled()) {
+                return;
+            }
+            ant.selectNextNode(environment, configurationProvider);
+        }
+        ant.doAfterSolutionIsReady(environment, configurationProvider);
 
-            antCounter++;
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Solution is ready > Cost: " + ant.getSolutionCost(environment)
+                    + ", Solution: " + ant.getSolutionAsString());
         }
     }
 
     /**
      * Adds a list of policies to every Ant in the Colony. This are ant-specific behaviours, like component selection
-     * while building solutions.
+     * while building solutions. Each ant gets its own policy instance.
      *
      * @param antPolicies List of policies.
      */
@@ -151,4 +260,114 @@ public abstract class AntColony<C, E extends Environment> {
         this.numberOfAnts = numberOfAnts;
     }
 
+    /**
+     * Stops solution construction: every ant stops on its next construction step,
+     * leaving its solution incomplete. Construction stays cancelled until
+     * resumeConstruction() is called. A failure of a construction task only stops
+     * the other ants of the same buildSolutions() call.
+     */
+    public void cancelConstruction() {
+        this.constructionCancelled = true;
+
+        ConstructionScope scope = this.constructionScope;
+        if (scope != null) {
+            scope.cancel();
+        }
+    }
+
+    /**
+     * Allows solution construction again, after a call to cancelConstruction().
+     */
+    public void resumeConstruction() {
+        this.constructionCancelled = false;
+    }
+
+    /**
+     * Indicates if ants have to stop building solutions, because construction was cancelled or its deadline is
+     * over.
+     *
+     * @return True if construction has to stop.
+     */
+    public boolean isConstructionCancelled() {
+        return constructionCancelled || scopeCancelled || isDeadlineReached();
+    }
+
+    /**
+     * Sets a deadline for solution construction. Once it is over, ants stop on their next construction step, like
+     * after cancelConstruction().
+     *
+     * @param deadline Deadline, as a System.nanoTime() value.
+     */
+    public void setConstructionDeadline(long deadline) {
+        this.constructionDeadline = deadline;
+        this.hasConstructionDeadline = true;
+    }
+
+    /**
+     * Removes the construction deadline.
+     */
+    public void clearConstructionDeadline() {
+        this.hasConstructionDeadline = false;
+    }
+
+    public boolean isDeadlineReached() {
+        return hasConstructionDeadline && System.nanoTime() - constructionDeadline >= 0;
+    }
+
+    /**
+     * Returns the ants that finished their solutions. After a cancelled construction, these are the only ants with
+     * valid solutions. Call it once buildSolutions() has returned, so no ant is still running.
+     *
+     * @param environment Environment where the Ants are building solutions.
+     * @return Ants with finished solutions, in hive order.
+     */
+    public List<Ant<C, E>> getFinishedAnts(E environment) {
+        List<Ant<C, E>> finishedAnts = new ArrayList<>();
+        for (Ant<C, E> ant : hive) {
+            if (ant.isSolutionReady(environment)) {
+                finishedAnts.add(ant);
+            }
+        }
+        return finishedAnts;
+    }
+
+    /**
+     * Produces an executor service that runs each task on its own thread. On JDK
+     * 21 or later these are virtual threads, so slow ants don't hold up a fixed
+     * pool of workers. On older runtimes, daemon platform threads are used.
+     *
+     * @return Executor service with a thread per task.
+     */
+    public static ExecutorService newThreadPerAntExecutor() {
+        try {
+            Method virtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutor.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            logger.fine("Virtual threads are not available. Using platform threads instead.");
+        }
+
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "isula-ant");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Assigns the executor service used for parallel solution construction, like
+     * a ForkJoinPool. Use null for sequential construction.
+     *
+     * @param executorService Executor service for ant construction tasks.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
 }
@@ -1,5 +1,7 @@
 package isula.aco;
 
+import isula.aco.exception.ConfigurationException;
+
 /**
  * A behavior to be performed by an Ant. This class is used to implement
  * specific behaviours required by a particular ACO algorithm.
@@ -12,7 +14,7 @@ package isula.aco;
  * @param <E> Class representing the Environment.
  * @author Carlos G. Gavidia
  */
-public abstract class AntPolicy<C, E extends Environment> {
+public abstract class AntPolicy<C, E extends Environment> implements Cloneable {
 
     // TODO(cgavidia): This should be used to program the execution of activities.
     private AntPolicyType policyType;
@@ -34,6 +36,37 @@ public abstract class AntPolicy<C, E extends Environment> {
         return ant;
     }
 
+    /**
+     * Returns the Ant as an IntAnt, so policies can use its primitive API.
+     *
+     * @return The Ant bound to this policy, or null if it is not an IntAnt.
+     */
+    @SuppressWarnings("unchecked")
+    protected IntAnt<E> getIntAnt() {
+        if (ant instanceof IntAnt) {
+            return (IntAnt<E>) ant;
+        }
+        return null;
+    }
+
+    /**
+     * Produces a new instance of this policy, not bound to any Ant. By default
+     * this is a shallow copy: override if your policy holds state that can't be
+     * shared between ants.
+     *
+     * @return A copy of this policy.
+     */
+    @SuppressWarnings("unchecked")
+    public AntPolicy<C, E> copy() {
+        try {
+            AntPolicy<C, E> policyCopy = (AntPolicy<C, E>) super.clone();
+            policyCopy.setAnt(null);
+            return policyCopy;
+        } catch (CloneNotSupportedException e) {
+            throw new ConfigurationException("The policy " + this.getClass().getName() + " couldn't be copied.");
+        }
+    }
+
     public abstract boolean applyPolicy(E environment,
                                         ConfigurationProvider configurationProvider);
 }
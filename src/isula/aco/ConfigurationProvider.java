@@ -52,4 +52,77 @@ public interface ConfigurationProvider {
      */
     double getPheromoneImportance();
 
+    /**
+     * If true, pheromone and choice-info values are stored with single precision. That halves their memory, at
+     * the cost of precision. By default, values are stored with double precision.
+     *
+     * @return True to store values as floats.
+     */
+    default boolean isSinglePrecisionStorage() {
+        return false;
+    }
+
+    /**
+     * If true, Environments that support it keep pheromone and choice-info values outside the Java heap. By
+     * default, they only do it when the values wouldn't fit comfortably on the heap.
+     *
+     * @return True to store values off-heap.
+     */
+    default boolean isOffHeapStorage() {
+        return false;
+    }
+
+    /**
+     * If true, evaporation only updates a global decay factor instead of every pheromone matrix cell. Pheromone
+     * values are the same, but evaporation takes constant time. By default, evaporation is applied on every cell.
+     *
+     * @return True to evaporate lazily.
+     */
+    default boolean isLazyEvaporation() {
+        return false;
+    }
+
+    /**
+     * If true and ants build their solutions in parallel, pheromone updates performed while building solutions are
+     * atomic. Otherwise, concurrent updates on the same cell can be lost: that is cheaper, and usually harmless
+     * for the local update of Ant Colony System. By default, updates are not atomic.
+     *
+     * @return True for atomic pheromone updates.
+     */
+    default boolean isConcurrentPheromoneUpdate() {
+        return false;
+    }
+
+    /**
+     * Master seed for random number generation. Each ant gets its own stream, split from this seed, so runs with
+     * the same seed build the same solutions whatever the number of threads. Updates made while ants are building
+     * solutions -like the local update of Ant Colony System- are the exception, since ants read each other's
+     * deposits. By default there is no seed, and every run is different.
+     *
+     * @return Master seed, or null for unseeded runs.
+     */
+    default Long getRandomSeed() {
+        return null;
+    }
+
+    /**
+     * Wall-clock time budget for solving, in milliseconds. Once it is over, ants stop building solutions on their
+     * next construction step, and the solver returns the best solution found so far -including the ones of ants that
+     * finished before the deadline. By default there is no time limit.
+     *
+     * @return Time limit in milliseconds, or zero for no limit.
+     */
+    default long getTimeLimitMillis() {
+        return 0;
+    }
+
+    /**
+     * The solver stops as soon as it finds a solution with this cost or lower. By default there is no target.
+     *
+     * @return Target solution cost.
+     */
+    default double getTargetSolutionCost() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
 }
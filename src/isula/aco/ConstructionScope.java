@@ -0,0 +1,180 @@
+package isula.aco;
+
+import isula.aco.exception.SolutionConstructionException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The scope of the construction tasks of a single iteration. Tasks are forked
+ * inside the scope and join() waits for all of them: no task outlives the
+ * iteration that created it.
+ * <p>
+ * <p>
+ * If a task fails or the scope is cancelled, the cancellation handler is
+ * called, so running ants stop on their next construction step. Tasks that
+ * haven't started yet return right away. join() still waits for every task to
+ * end, as ants are never interrupted.
+ */
+public class ConstructionScope implements AutoCloseable {
+
+    private final ExecutorService executorService;
+    private final Runnable cancellationHandler;
+
+    private int runningTasks = 0;
+    private Throwable failure;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Opens a new scope.
+     *
+     * @param executorService Executor service that runs the forked tasks.
+     */
+    public ConstructionScope(ExecutorService executorService) {
+        this(executorService, null);
+    }
+
+    /**
+     * Opens a new scope.
+     *
+     * @param executorService     Executor service that runs the forked tasks.
+     * @param cancellationHandler Called once, when the scope is cancelled or a task fails. It can be null.
+     */
+    public ConstructionScope(ExecutorService executorService, Runnable cancellationHandler) {
+        this.executorService = executorService;
+        this.cancellationHandler = cancellationHandler;
+    }
+
+    /**
+     * Starts a task inside this scope.
+     *
+     * @param task Construction task.
+     */
+    public void fork(final Runnable task) {
+        if (cancelled) {
+            return;
+        }
+
+        synchronized (this) {
+            runningTasks++;
+        }
+
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Throwable taskFailure = null;
+                    try {
+                        if (!cancelled) {
+                            task.run();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        taskFailure = e;
+                    } finally {
+                        taskEnded(taskFailure);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taskEnded(e);
+        }
+    }
+
+    private void taskEnded(Throwable taskFailure) {
+        synchronized (this) {
+            if (taskFailure != null && failure == null) {
+                failure = taskFailure;
+            }
+            runningTasks--;
+            notifyAll();
+        }
+
+        if (taskFailure != null) {
+            cancel();
+        }
+    }
+
+    /**
+     * Waits for all the forked tasks to end, also after a cancellation. If one of
+     * them fails, the others are cancelled and the first failure is propagated
+     * once all of them have ended.
+     */
+    public void join() {
+        boolean interrupted = awaitTasks();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new SolutionConstructionException("Interrupted while waiting for the ants to build their solutions.");
+        }
+
+        Throwable taskFailure;
+        synchronized (this) {
+            taskFailure = failure;
+        }
+        if (taskFailure instanceof RuntimeException) {
+            throw (RuntimeException) taskFailure;
+        }
+        if (taskFailure instanceof Error) {
+            throw (Error) taskFailure;
+        }
+    }
+
+    /**
+     * Waits until no task is running. An interruption cancels the scope, and the
+     * wait goes on until the ants stop.
+     *
+     * @return True if the thread was interrupted while waiting.
+     */
+    private boolean awaitTasks() {
+        boolean interrupted = false;
+        synchronized (this) {
+            while (runningTasks > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                }
+            }
+        }
+        return interrupted;
+    }
+
+    /**
+     * Cancels every task in this scope. Tasks not started yet are skipped, and
+     * the cancellation handler is called to stop the running ones.
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+
+        if (cancellationHandler != null) {
+            cancellationHandler.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Closes the scope. If tasks are still running -because join() wasn't
+     * reached- they are cancelled, and this method waits for them to end.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (runningTasks == 0) {
+                return;
+            }
+        }
+
+        cancel();
+        if (awaitTasks()) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
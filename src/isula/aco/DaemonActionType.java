@@ -1,15 +1,16 @@
 package isula.aco;
 
 /**
- * Types of Daemon Actions. Currently, only two are supported:
+ * Types of Daemon Actions. Currently, three are supported:
  * 
  * <ul>
  * <li>Before starting constructing solutions.
- * <li>After the end of a construction iteration. </ul>
+ * <li>After the end of a construction iteration.
+ * <li>At the end of an iteration, once the best solution has been updated. </ul>
  * 
  * @author Carlos G. Gavidia
  *
  */
 public enum DaemonActionType {
-  INITIAL_CONFIGURATION, AFTER_ITERATION_CONSTRUCTION
+  INITIAL_CONFIGURATION, AFTER_ITERATION_CONSTRUCTION, END_OF_ITERATION
 }
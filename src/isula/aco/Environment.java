@@ -2,6 +2,10 @@ package isula.aco;
 
 import isula.aco.exception.ConfigurationException;
 import isula.aco.exception.InvalidInputException;
+import isula.aco.exception.MethodNotImplementedException;
+import isula.aco.pheromone.DensePheromoneStore;
+import isula.aco.pheromone.LazyEvaporationPheromoneStore;
+import isula.aco.pheromone.PheromoneStore;
 
 import java.util.logging.Logger;
 
@@ -13,6 +17,19 @@ import java.util.logging.Logger;
  * This class manages the access to the problem graph -represented as an array
  * of doubles- and to the phermone matrix. Each concrete class needs to define a
  * way to build a pheromone matrix to the problem to be solved.
+ * <p>
+ * <p>
+ * Pheromone values are kept on a PheromoneStore. By default, that is a
+ * DensePheromoneStore with the dimensions of the matrix returned by
+ * createPheromoneMatrix(). Override createPheromoneStore() to use another one.
+ * The store is created on first use, so subclasses can prepare the information
+ * it needs -like candidate lists- on their constructors.
+ * <p>
+ * <p>
+ * When heuristic information depends only on the matrix cell, the Environment
+ * can also keep a choice-info matrix, with the product of pheromone and heuristic
+ * values raised to their importance. The solver rebuilds it after every
+ * iteration, so node selection only reads a cell per candidate.
  *
  * @author Carlos G. Gavidia
  */
@@ -24,7 +41,20 @@ public abstract class Environment {
 
     // TODO(cgavidia): We're supporting pheromone deposition on vertex. On other
     // problems, the pheromone is deposited on edges.
-    private double[][] pheromoneMatrix;
+    private PheromoneStore pheromoneStore;
+    private boolean singlePrecisionStorage = false;
+    private boolean offHeapStorage = false;
+    private boolean lazyEvaporation = false;
+
+    // Same dimensions and layout as the pheromone store.
+    private PheromoneStore choiceInfo;
+    private double heuristicImportance;
+    private double pheromoneImportance;
+
+    // With lazy evaporation, choice-info is kept for the decay factor of the last rebuild, and reads are scaled by
+    // the decay since then.
+    private double choiceInfoDecayFactor = 1.0;
+    private double choiceInfoScale = 1.0;
 
     /**
      * Creates an Environment for the Ants to traverse.
@@ -34,7 +64,6 @@ public abstract class Environment {
      */
     public Environment(double[][] problemGraph) throws InvalidInputException {
         this.problemGraph = problemGraph;
-        this.pheromoneMatrix = createPheromoneMatrix();
 
         if (!this.isProblemGraphValid()) {
             throw new InvalidInputException();
@@ -43,10 +72,28 @@ public abstract class Environment {
 
     /**
      * Creates a pheromone matrix depending of the nature of the problem to solve.
+     * It is only called by the default implementation of createPheromoneStore().
      *
      * @return Pheromone matrix instance.
      */
-    protected abstract double[][] createPheromoneMatrix();
+    protected double[][] createPheromoneMatrix() {
+        throw new MethodNotImplementedException();
+    }
+
+    /**
+     * Creates the storage for pheromone values. By default, it copies the matrix
+     * returned by createPheromoneMatrix() on a DensePheromoneStore.
+     *
+     * @return Pheromone store instance.
+     */
+    protected PheromoneStore createPheromoneStore() {
+        double[][] pheromoneMatrix = createPheromoneMatrix();
+        if (pheromoneMatrix == null) {
+            return null;
+        }
+
+        return new DensePheromoneStore(pheromoneMatrix);
+    }
 
 
     /**
@@ -63,14 +110,112 @@ public abstract class Environment {
         return problemGraph;
     }
 
+    /**
+     * Replaces the pheromone values with a copy of the matrix provided, on a
+     * DensePheromoneStore.
+     *
+     * @param pheromoneMatrix Pheromone matrix.
+     */
     public void setPheromoneMatrix(double[][] pheromoneMatrix) {
-        this.pheromoneMatrix = pheromoneMatrix;
+        setPheromoneStore(new DensePheromoneStore(pheromoneMatrix));
     }
 
+    /**
+     * Returns a copy of the pheromone values as a matrix. Changes on the copy
+     * don't affect the Environment: use getPheromoneStore() for that.
+     *
+     * @return Pheromone matrix.
+     */
     public double[][] getPheromoneMatrix() {
-        return pheromoneMatrix;
+        return getPheromoneStore().toArray();
+    }
+
+    /**
+     * Returns the pheromone store, creating it on the first call.
+     *
+     * @return Pheromone store.
+     */
+    public PheromoneStore getPheromoneStore() {
+        if (pheromoneStore == null) {
+            PheromoneStore newPheromoneStore = createPheromoneStore();
+            if (newPheromoneStore != null && singlePrecisionStorage) {
+                newPheromoneStore = newPheromoneStore.toSinglePrecision();
+            }
+            if (newPheromoneStore != null && lazyEvaporation) {
+                newPheromoneStore = new LazyEvaporationPheromoneStore(newPheromoneStore);
+            }
+
+            pheromoneStore = newPheromoneStore;
+        }
+
+        return pheromoneStore;
+    }
+
+    public void setPheromoneStore(PheromoneStore pheromoneStore) {
+        this.pheromoneStore = pheromoneStore;
+        this.choiceInfo = null;
+    }
+
+
+    /**
+     * Keeps pheromone values with single precision. If the pheromone store
+     * already exists, it is replaced with a single precision copy. The
+     * choice-info matrix, when rebuilt, follows the new store.
+     */
+    public void useSinglePrecisionStorage() {
+        this.singlePrecisionStorage = true;
+        if (pheromoneStore == null) {
+            return;
+        }
+
+        PheromoneStore singlePrecisionStore = pheromoneStore.toSinglePrecision();
+        if (singlePrecisionStore != pheromoneStore) {
+            setPheromoneStore(singlePrecisionStore);
+        }
+    }
+
+    /**
+     * Asks createPheromoneStore() for a store outside the Java heap. It only
+     * affects stores created afterwards, on Environments that support it, like
+     * TspEnvironment.
+     */
+    public void useOffHeapStorage() {
+        this.offHeapStorage = true;
+    }
+
+    protected boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    protected boolean isSinglePrecisionStorage() {
+        return singlePrecisionStorage;
+    }
+
+    /**
+     * Evaporates pheromone lazily: applyFactorToPheromoneMatrix() only updates a
+     * decay factor, applied on reads and writes. If the pheromone store already
+     * exists, it is wrapped on a LazyEvaporationPheromoneStore.
+     */
+    public void useLazyEvaporation() {
+        this.lazyEvaporation = true;
+        if (pheromoneStore == null || pheromoneStore instanceof LazyEvaporationPheromoneStore) {
+            return;
+        }
+
+        setPheromoneStore(new LazyEvaporationPheromoneStore(pheromoneStore));
     }
 
+    /**
+     * Replaces the pheromone store with a copy that supports atomic updates, for
+     * ants depositing pheromone in parallel. The store is created first if it
+     * doesn't exist yet.
+     */
+    public void useConcurrentPheromoneStore() {
+        PheromoneStore concurrentStore = getPheromoneStore().toConcurrent();
+        if (concurrentStore != pheromoneStore) {
+            setPheromoneStore(concurrentStore);
+        }
+    }
 
     /**
      * Assigns the same value to all cells on the Pheromone Matrix.
@@ -78,26 +223,145 @@ public abstract class Environment {
      * @param pheromoneValue Value to assign.
      */
     public void populatePheromoneMatrix(double pheromoneValue) {
-        if (pheromoneMatrix == null || pheromoneMatrix.length == 0) {
+        PheromoneStore pheromoneStore = getPheromoneStore();
+        if (pheromoneStore == null || pheromoneStore.getRows() == 0) {
             throw new ConfigurationException("The pheromone matrix is not properly configured. Verify the implementation of " +
                     "the createPheromoneMatrix() method.");
         }
 
-        int matrixRows = pheromoneMatrix.length;
-        int matrixColumns = pheromoneMatrix[0].length;
+        pheromoneStore.fill(pheromoneValue);
+    }
+
+    /**
+     * Indicates if this Environment can keep a choice-info matrix. That requires
+     * heuristic information for every pheromone matrix cell, via
+     * getHeuristicInformation(). By default this method returns false: override if
+     * necessary.
+     *
+     * @return True if choice-info is supported, false otherwise.
+     */
+    protected boolean isChoiceInfoSupported() {
+        return false;
+    }
 
-        for (int i = 0; i < matrixRows; i++) {
-            for (int j = 0; j < matrixColumns; j++) {
-                pheromoneMatrix[i][j] = pheromoneValue;
+    /**
+     * Heuristic information associated to a pheromone matrix cell. Override this
+     * method if isChoiceInfoSupported() returns true.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Heuristic information.
+     */
+    public double getHeuristicInformation(int row, int column) {
+        throw new MethodNotImplementedException();
+    }
+
+    /**
+     * Rebuilds the choice-info matrix from the current pheromone values. It does
+     * nothing if the Environment doesn't support choice-info.
+     * <p>
+     * <p>
+     * With lazy evaporation, if only the decay factor changed since the last
+     * rebuild, cells are not recalculated: a uniform factor scales every cell
+     * the same way, so it is applied when choice-info is read.
+     *
+     * @param configurationProvider Algorithm configuration, with the heuristic and pheromone importance.
+     */
+    public void updateChoiceInfo(ConfigurationProvider configurationProvider) {
+        if (!isChoiceInfoSupported()) {
+            return;
+        }
+
+        boolean importanceChanged = heuristicImportance != configurationProvider.getHeuristicImportance()
+                || pheromoneImportance != configurationProvider.getPheromoneImportance();
+        this.heuristicImportance = configurationProvider.getHeuristicImportance();
+        this.pheromoneImportance = configurationProvider.getPheromoneImportance();
+
+        final PheromoneStore pheromoneStore = getPheromoneStore();
+        double decayFactor = 1.0;
+        if (pheromoneStore instanceof LazyEvaporationPheromoneStore) {
+            LazyEvaporationPheromoneStore lazyStore = (LazyEvaporationPheromoneStore) pheromoneStore;
+            if (choiceInfo != null && !importanceChanged && !lazyStore.isModified()) {
+                choiceInfoScale = Math.pow(lazyStore.getDecayFactor() / choiceInfoDecayFactor, pheromoneImportance);
+                return;
             }
+
+            lazyStore.clearModified();
+            decayFactor = lazyStore.getDecayFactor();
+        }
+        choiceInfoDecayFactor = decayFactor;
+        choiceInfoScale = 1.0;
+
+        if (choiceInfo == null) {
+            choiceInfo = pheromoneStore.createEmptyStore();
         }
+
+        // Both stores share the same layout, so cell indexes are valid on both.
+        final PheromoneStore choiceInfoStore = choiceInfo;
+        choiceInfoStore.forEachCell((cellIndex, row, column) -> choiceInfoStore.setCell(cellIndex,
+                calculateChoiceInfo(row, column, pheromoneStore.getCell(cellIndex))));
+    }
+
+    /**
+     * Updates a single cell of the choice-info matrix, after its pheromone value
+     * has changed.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     */
+    public void updateChoiceInfo(int row, int column) {
+        if (choiceInfo != null) {
+            choiceInfo.set(row, column,
+                    calculateChoiceInfo(row, column, pheromoneStore.get(row, column)) / choiceInfoScale);
+        }
+    }
+
+    private double calculateChoiceInfo(int row, int column, double pheromoneValue) {
+        return Math.pow(getHeuristicInformation(row, column), heuristicImportance)
+                * Math.pow(pheromoneValue, pheromoneImportance);
+    }
+
+    /**
+     * Indicates if the choice-info matrix is available.
+     *
+     * @return True if choice-info values can be read.
+     */
+    public boolean hasChoiceInfo() {
+        return choiceInfo != null;
+    }
+
+    /**
+     * Returns the product of heuristic and pheromone values of a cell, raised to their importance. Cells not kept
+     * by the pheromone store are calculated on every call.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Choice-info value.
+     */
+    public double getChoiceInfo(int row, int column) {
+        long cellIndex = choiceInfo.getCellIndex(row, column);
+        if (cellIndex < 0) {
+            return calculateChoiceInfo(row, column, pheromoneStore.get(row, column));
+        }
+        return choiceInfo.getCell(cellIndex) * choiceInfoScale;
+    }
+
+    /**
+     * Returns a choice-info value by its position on the linear sequence of
+     * cells, for callers that already know the layout of the pheromone store.
+     *
+     * @param cellIndex Cell index on the pheromone store.
+     * @return Choice-info value.
+     */
+    public double getChoiceInfoCell(long cellIndex) {
+        return choiceInfo.getCell(cellIndex) * choiceInfoScale;
     }
 
     @Override
     public String toString() {
         return "Problem Graph: Rows " + problemGraph.length + " Columns "
                 + problemGraph[0].length + "\n" + "Pheromone Matrix: Rows "
-                + pheromoneMatrix.length + " Columns " + pheromoneMatrix[0].length;
+                + getPheromoneStore().getRows() + " Columns " + getPheromoneStore().getColumns();
     }
 
     /**
@@ -106,15 +370,7 @@ public abstract class Environment {
      * @param factor Factor for multiplication.
      */
     public void applyFactorToPheromoneMatrix(double factor) {
-        int matrixRows = pheromoneMatrix.length;
-        int matrixColumns = pheromoneMatrix[0].length;
-
-        for (int i = 0; i < matrixRows; i++) {
-            for (int j = 0; j < matrixColumns; j++) {
-                double newValue = pheromoneMatrix[i][j] * factor;
-                pheromoneMatrix[i][j] = newValue;
-            }
-        }
+        getPheromoneStore().multiply(factor);
     }
 
 }
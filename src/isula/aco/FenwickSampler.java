@@ -0,0 +1,222 @@
+package isula.aco;
+
+import java.util.Arrays;
+
+/**
+ * A weighted sampler over a fixed set of nodes, backed by a Fenwick -binary
+ * indexed- tree. Building it takes O(n), while sampling, removing a node or
+ * changing its weight take O(log n). With it, a full solution is built in
+ * O(n log n) instead of the O(n^2) of scanning every candidate on every step.
+ * <p>
+ * <p>
+ * This only pays off when the weight of a node doesn't depend on the position
+ * of the Ant -like on ASP, where the weight of a layer is the same from every
+ * other layer. On TSP the weights depend on the current city, so the whole tree
+ * would have to be rebuilt on every step.
+ */
+public class FenwickSampler {
+
+    private final double[] weights;
+    private final double[] tree;
+    private final int highestStep;
+
+    private final boolean[] stale;
+    private final int[] staleNodes;
+    private int staleCount = 0;
+
+    private int weightedNodes = 0;
+    private boolean built = false;
+
+    /**
+     * Creates an empty sampler.
+     *
+     * @param numberOfNodes Number of nodes. Nodes are indexes from 0 to numberOfNodes - 1.
+     */
+    public FenwickSampler(int numberOfNodes) {
+        this.weights = new double[numberOfNodes];
+        this.tree = new double[numberOfNodes + 1];
+        this.highestStep = numberOfNodes == 0 ? 0 : Integer.highestOneBit(numberOfNodes);
+        this.stale = new boolean[numberOfNodes];
+        this.staleNodes = new int[numberOfNodes];
+    }
+
+    /**
+     * Discards all weights. The sampler needs to be built again before sampling.
+     */
+    public void reset() {
+        Arrays.fill(weights, 0.0);
+        while (staleCount > 0) {
+            stale[staleNodes[--staleCount]] = false;
+        }
+
+        weightedNodes = 0;
+        built = false;
+    }
+
+    /**
+     * Sets the weight of a node before building the sampler.
+     *
+     * @param node   Node.
+     * @param weight Its weight, that must be zero or positive.
+     */
+    public void setInitialWeight(int node, double weight) {
+        weights[node] = weight;
+    }
+
+    /**
+     * Builds the tree over the initial weights, in linear time.
+     */
+    public void build() {
+        weightedNodes = 0;
+        for (int i = 0; i < weights.length; i++) {
+            tree[i + 1] = weights[i];
+            if (weights[i] > 0) {
+                weightedNodes++;
+            }
+        }
+
+        for (int i = 1; i <= weights.length; i++) {
+            int parent = i + (i & -i);
+            if (parent <= weights.length) {
+                tree[parent] += tree[i];
+            }
+        }
+
+        built = true;
+    }
+
+    /**
+     * Changes the weight of a node.
+     *
+     * @param node   Node.
+     * @param weight New weight, that must be zero or positive.
+     */
+    public void update(int node, double weight) {
+        double delta = weight - weights[node];
+        if (delta == 0) {
+            return;
+        }
+
+        if (weights[node] > 0) {
+            weightedNodes--;
+        }
+        if (weight > 0) {
+            weightedNodes++;
+        }
+        weights[node] = weight;
+
+        for (int i = node + 1; i <= weights.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Removes a node from sampling, like after visiting it.
+     *
+     * @param node Node to remove.
+     */
+    public void remove(int node) {
+        update(node, 0.0);
+    }
+
+    /**
+     * Returns a node selected with probability proportional to its weight.
+     * Zero-weighted nodes are never selected.
+     *
+     * @param randomValue Random value between 0 (inclusive) and 1 (exclusive).
+     * @return Selected node, or -1 if there are no weighted nodes.
+     */
+    public int sample(double randomValue) {
+        if (weightedNodes == 0) {
+            return -1;
+        }
+
+        double threshold = randomValue * getTotal();
+        int position = 0;
+        for (int step = highestStep; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= weights.length && tree[next] <= threshold) {
+                position = next;
+                threshold -= tree[next];
+            }
+        }
+
+        if (position < weights.length && weights[position] > 0) {
+            return position;
+        }
+
+        // Only reachable because of rounding errors on the partial sums.
+        for (int node = weights.length - 1; node >= 0; node--) {
+            if (weights[node] > 0) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The sum of all weights, in O(log n).
+     * <p>
+     * Removing large weights leaves rounding errors on the partial sums, that
+     * can exceed the weights still left and make the total zero or negative.
+     * In that case the tree is built again from the exact weights.
+     *
+     * @return Total weight.
+     */
+    public double getTotal() {
+        double total = getPartialSumsTotal();
+        if (!(total > 0) && weightedNodes > 0) {
+            build();
+            total = getPartialSumsTotal();
+        }
+        return total;
+    }
+
+    private double getPartialSumsTotal() {
+        double total = 0.0;
+        for (int i = weights.length; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    /**
+     * Marks the weight of a node as outdated, so it is calculated again before
+     * the next sample.
+     *
+     * @param node Node whose weight has changed.
+     */
+    public void invalidate(int node) {
+        if (!stale[node]) {
+            stale[node] = true;
+            staleNodes[staleCount++] = node;
+        }
+    }
+
+    /**
+     * Returns and forgets one of the nodes marked as outdated.
+     *
+     * @return An outdated node, or -1 if there are none.
+     */
+    public int pollStaleNode() {
+        if (staleCount == 0) {
+            return -1;
+        }
+
+        int node = staleNodes[--staleCount];
+        stale[node] = false;
+        return node;
+    }
+
+    public double getWeight(int node) {
+        return weights[node];
+    }
+
+    public int getWeightedNodes() {
+        return weightedNodes;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+}
@@ -0,0 +1,408 @@
+package isula.aco;
+
+import isula.aco.exception.ConfigurationException;
+import isula.aco.exception.SolutionConstructionException;
+import isula.aco.pheromone.DepositBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * An Ant whose solution components are integer node indexes, like cities on
+ * TSP. The solution is stored as an int array and visited nodes as a bitset, so
+ * the construction hot path doesn't box any component.
+ * <p>
+ * <p>
+ * Instead of getNeighbourhood(environment), concrete classes implement
+ * getNeighbourhood(environment, neighbourhood), that writes the available nodes
+ * in an int array. Heuristic and pheromone information is also accessed through
+ * primitive methods, and node selection policies use them whenever the Ant is
+ * an IntAnt. The Integer-based methods inherited from Ant are still supported,
+ * but they box: use them only outside solution construction.
+ *
+ * @param <E> Class representing the Environment.
+ */
+public abstract class IntAnt<E extends Environment> extends Ant<Integer, E> {
+
+    private static final int BITS_PER_WORD = 64;
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final int numberOfNodes;
+    private final int[] solution;
+    private final long[] visitedNodes;
+
+    // Scratch buffers for node selection, reused on every construction step.
+    private final int[] neighbourhoodBuffer;
+    private final SelectionWeights selectionWeights;
+    private FenwickSampler selectionSampler;
+
+    // Incremented on every clear(), so cached views of the previous solution are discarded.
+    private int epoch = 0;
+    private Integer[] solutionView;
+    private int solutionViewEpoch = -1;
+    private int solutionViewIndex = -1;
+
+    /**
+     * Creates an Ant for a problem with a fixed number of nodes.
+     *
+     * @param numberOfNodes Number of nodes. It is also the maximum solution length.
+     */
+    public IntAnt(int numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+        this.solution = new int[numberOfNodes];
+        this.visitedNodes = new long[(numberOfNodes + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        this.neighbourhoodBuffer = new int[numberOfNodes];
+        this.selectionWeights = new SelectionWeights(numberOfNodes);
+    }
+
+    /**
+     * Mark a node as visited.
+     *
+     * @param visitedNode Visited node.
+     */
+    public void visitNode(int visitedNode) {
+        int currentIndex = getCurrentIndex();
+        if (currentIndex < numberOfNodes) {
+            solution[currentIndex] = visitedNode;
+            visitedNodes[visitedNode >>> ADDRESS_BITS_PER_WORD] |= 1L << visitedNode;
+            setCurrentIndex(currentIndex + 1);
+        } else {
+            throw new SolutionConstructionException("Couldn't add component "
+                    + visitedNode + " at index " + currentIndex
+                    + ": Solution length is: " + numberOfNodes
+                    + ". \nPartial solution is " + this.getSolutionAsString());
+        }
+    }
+
+    @Override
+    public void visitNode(Integer visitedNode) {
+        visitNode(visitedNode.intValue());
+    }
+
+    /**
+     * Verifies if a node is already included in the solution.
+     *
+     * @param node Node to verify.
+     * @return True if the node is already visited. False otherwise.
+     */
+    public boolean isNodeVisited(int node) {
+        return (visitedNodes[node >>> ADDRESS_BITS_PER_WORD] & (1L << node)) != 0;
+    }
+
+    @Override
+    public boolean isNodeVisited(Integer component) {
+        return isNodeVisited(component.intValue());
+    }
+
+    /**
+     * Verifies if a node can be added to the solution. By default this method
+     * returns true: override if necessary.
+     *
+     * @param node Node to verify.
+     * @return True if the node is valid, false otherwise.
+     */
+    public boolean isNodeValid(int node) {
+        return true;
+    }
+
+    @Override
+    public boolean isNodeValid(Integer node) {
+        return isNodeValid(node.intValue());
+    }
+
+    /**
+     * Resets the visited bitset and sets the index to 0. Solution components
+     * are not erased: positions beyond the current index are just ignored.
+     */
+    @Override
+    public void clear() {
+        setCurrentIndex(0);
+        Arrays.fill(visitedNodes, 0L);
+        epoch++;
+
+        if (selectionSampler != null) {
+            selectionSampler.reset();
+        }
+    }
+
+    /**
+     * Writes the components available for selection in an array.
+     *
+     * @param environment   Environment instance with problem information.
+     * @param neighbourhood Array to fill, with at least getNumberOfNodes() cells.
+     * @return Number of components written.
+     */
+    public abstract int getNeighbourhood(E environment, int[] neighbourhood);
+
+    /**
+     * Calculates the heuristic contribution for the cost of the solution by adding a component at an specific position.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @return Heuristic contribution.
+     */
+    public abstract double getHeuristicValue(int solutionComponent, int positionInSolution, E environment);
+
+    /**
+     * Returns the pheromone value associated to a solution component at an specific position.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @return Pheromone value.
+     */
+    public abstract double getPheromoneTrailValue(int solutionComponent, int positionInSolution, E environment);
+
+    /**
+     * Updates the value of a cell on the pheromone matrix.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param value              New pheromone value.
+     */
+    public abstract void setPheromoneTrailValue(int solutionComponent, int positionInSolution, E environment,
+                                                double value);
+
+    /**
+     * Updates the value of a cell on the pheromone matrix, as a function of its current value. By default, this is
+     * a read followed by a write: override it to update the pheromone store atomically.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param update             Function from the current pheromone value to the new one.
+     */
+    public void updatePheromoneTrailValue(int solutionComponent, int positionInSolution, E environment,
+                                          DoubleUnaryOperator update) {
+        double currentValue = getPheromoneTrailValue(solutionComponent, positionInSolution, environment);
+        setPheromoneTrailValue(solutionComponent, positionInSolution, environment, update.applyAsDouble(currentValue));
+    }
+
+    /**
+     * Records a pheromone deposit for a solution component on a deposit buffer.
+     * By default this method returns false: override it to support buffered
+     * deposits.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param depositBuffer      Buffer for the deposit.
+     * @param amount             Pheromone to deposit.
+     * @return True if the deposit was recorded.
+     */
+    public boolean depositPheromone(int solutionComponent, int positionInSolution, E environment,
+                                    DepositBuffer depositBuffer, double amount) {
+        return false;
+    }
+
+    /**
+     * The weight of a component in the random proportional rule, that is the
+     * product of heuristic and pheromone values raised to their importance.
+     *
+     * @param solutionComponent     Solution component.
+     * @param positionInSolution    Position of this component in the solution.
+     * @param environment           Environment instance with problem information.
+     * @param configurationProvider Algorithm configuration.
+     * @return Heuristic times pheromone value.
+     */
+    public double getHeuristicTimesPheromone(int solutionComponent, int positionInSolution, E environment,
+                                             ConfigurationProvider configurationProvider) {
+        return power(getHeuristicValue(solutionComponent, positionInSolution, environment),
+                configurationProvider.getHeuristicImportance())
+                * power(getPheromoneTrailValue(solutionComponent, positionInSolution, environment),
+                configurationProvider.getPheromoneImportance());
+    }
+
+    private static double power(double base, double exponent) {
+        if (exponent == 1.0) {
+            return base;
+        }
+        return Math.pow(base, exponent);
+    }
+
+    @Override
+    public Double getHeuristicValue(Integer solutionComponent, Integer positionInSolution, E environment) {
+        return getHeuristicValue(solutionComponent.intValue(), positionInSolution.intValue(), environment);
+    }
+
+    @Override
+    public Double getPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution, E environment) {
+        return getPheromoneTrailValue(solutionComponent.intValue(), positionInSolution.intValue(), environment);
+    }
+
+    @Override
+    public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution, E environment,
+                                       Double value) {
+        setPheromoneTrailValue(solutionComponent.intValue(), positionInSolution.intValue(), environment,
+                value.doubleValue());
+    }
+
+    @Override
+    public void updatePheromoneTrailValue(Integer solutionComponent, Integer positionInSolution, E environment,
+                                          DoubleUnaryOperator update) {
+        updatePheromoneTrailValue(solutionComponent.intValue(), positionInSolution.intValue(), environment, update);
+    }
+
+    @Override
+    public boolean depositPheromone(Integer solutionComponent, Integer positionInSolution, E environment,
+                                    DepositBuffer depositBuffer, double amount) {
+        return depositPheromone(solutionComponent.intValue(), positionInSolution.intValue(), environment,
+                depositBuffer, amount);
+    }
+
+    @Override
+    public List<Integer> getNeighbourhood(E environment) {
+        int[] neighbourhood = new int[numberOfNodes];
+        int neighbourhoodSize = getNeighbourhood(environment, neighbourhood);
+
+        List<Integer> neighbourhoodAsList = new ArrayList<>(neighbourhoodSize);
+        for (int i = 0; i < neighbourhoodSize; i++) {
+            neighbourhoodAsList.add(neighbourhood[i]);
+        }
+        return neighbourhoodAsList;
+    }
+
+    /**
+     * Returns the component at an specific position of the solution.
+     *
+     * @param positionInSolution Position, lower than the current index.
+     * @return Solution component.
+     */
+    public int getComponent(int positionInSolution) {
+        return solution[positionInSolution];
+    }
+
+    /**
+     * Returns the solution as an int array. Only the positions lower than the
+     * current index are part of the solution.
+     *
+     * @return Solution array.
+     */
+    public int[] getIntSolution() {
+        return solution;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Returns a scratch array for getNeighbourhood(environment, neighbourhood),
+     * owned by this Ant.
+     *
+     * @return Neighbourhood buffer.
+     */
+    public int[] getNeighbourhoodBuffer() {
+        return neighbourhoodBuffer;
+    }
+
+    /**
+     * Returns the selection weights buffer owned by this Ant.
+     *
+     * @return Selection weights buffer.
+     */
+    public SelectionWeights getSelectionWeights() {
+        return selectionWeights;
+    }
+
+    /**
+     * Returns true if the selection weight of a node doesn't depend on the
+     * position of the Ant in its solution. Node selection policies can then keep
+     * weights on a FenwickSampler, and sample the next node in O(log n). By
+     * default this method returns false: override if necessary.
+     * <p>
+     * <p>
+     * If the weight of a node changes during solution construction, report it
+     * through invalidateSelectionWeight().
+     *
+     * @return True if selection weights are independent of the current position.
+     */
+    public boolean hasStationarySelectionWeights() {
+        return false;
+    }
+
+    /**
+     * Returns the sampler owned by this Ant, for Ants with stationary selection
+     * weights. It is reset on every clear().
+     *
+     * @return Selection sampler.
+     */
+    public FenwickSampler getSelectionSampler() {
+        if (selectionSampler == null) {
+            selectionSampler = new FenwickSampler(numberOfNodes);
+        }
+        return selectionSampler;
+    }
+
+    /**
+     * Reports that the selection weight of a node has changed, so it is
+     * calculated again before the next node selection.
+     *
+     * @param node Node whose weight has changed.
+     */
+    public void invalidateSelectionWeight(int node) {
+        if (selectionSampler != null && selectionSampler.isBuilt()) {
+            selectionSampler.invalidate(node);
+        }
+    }
+
+    /**
+     * Returns a read-only copy of the solution. Positions beyond the current
+     * index are null. The copy is cached until the solution changes.
+     *
+     * @return Solution as an Integer array.
+     */
+    @Override
+    public Integer[] getSolution() {
+        int currentIndex = getCurrentIndex();
+        if (solutionView == null || solutionViewEpoch != epoch || solutionViewIndex != currentIndex) {
+            Integer[] view = new Integer[numberOfNodes];
+            for (int i = 0; i < currentIndex; i++) {
+                view[i] = solution[i];
+            }
+
+            solutionView = view;
+            solutionViewEpoch = epoch;
+            solutionViewIndex = currentIndex;
+        }
+
+        return solutionView;
+    }
+
+    @Override
+    public void setSolution(Integer[] solution) {
+        throw new ConfigurationException("The solution of " + this.getClass().getName()
+                + " is managed through visitNode() and clear().");
+    }
+
+    @Override
+    public String getSolutionAsString() {
+        StringBuilder solutionString = new StringBuilder();
+        for (int i = 0; i < getCurrentIndex(); i++) {
+            solutionString.append(' ').append(solution[i]);
+        }
+        return solutionString.toString();
+    }
+
+    /**
+     * Returns the visited nodes as a Map. This is built on every call: prefer
+     * isNodeVisited().
+     *
+     * @return Visited nodes.
+     */
+    @Override
+    public Map<Integer, Boolean> getVisited() {
+        Map<Integer, Boolean> visited = new HashMap<>();
+        for (int i = 0; i < getCurrentIndex(); i++) {
+            visited.put(solution[i], true);
+        }
+        return visited;
+    }
+
+}
@@ -0,0 +1,113 @@
+package isula.aco;
+
+/**
+ * A reusable buffer of candidate nodes and their selection weights. Each IntAnt
+ * owns one, so node selection policies can write weights once per step without
+ * allocating any object.
+ * <p>
+ * <p>
+ * Weights are not normalised: sampling works over the cumulative sum of weights.
+ */
+public class SelectionWeights {
+
+    private final int[] nodes;
+    private final double[] weights;
+    private int size = 0;
+    private double total = 0.0;
+
+    /**
+     * Creates a buffer for a maximum number of candidates.
+     *
+     * @param capacity Maximum number of candidates.
+     */
+    public SelectionWeights(int capacity) {
+        this.nodes = new int[capacity];
+        this.weights = new double[capacity];
+    }
+
+    /**
+     * Removes all candidates.
+     */
+    public void clear() {
+        this.size = 0;
+        this.total = 0.0;
+    }
+
+    /**
+     * Adds a candidate node.
+     *
+     * @param node   Candidate node.
+     * @param weight Its weight, that must be zero or positive.
+     */
+    public void add(int node, double weight) {
+        nodes[size] = node;
+        weights[size] = weight;
+        total += weight;
+        size++;
+    }
+
+    /**
+     * Returns the position of a candidate selected with probability proportional
+     * to its weight. Zero-weighted candidates are never selected.
+     *
+     * @param randomValue Random value between 0 (inclusive) and 1 (exclusive).
+     * @return Position of the selected candidate, or -1 if there are no weighted candidates.
+     */
+    public int sample(double randomValue) {
+        double threshold = randomValue * total;
+        double cumulativeWeight = 0.0;
+        int lastWeighted = -1;
+
+        for (int i = 0; i < size; i++) {
+            if (weights[i] > 0) {
+                cumulativeWeight += weights[i];
+                lastWeighted = i;
+
+                if (cumulativeWeight > threshold) {
+                    return i;
+                }
+            }
+        }
+
+        // Only reachable because of rounding errors on the cumulative sum.
+        return lastWeighted;
+    }
+
+    /**
+     * Returns the position of the candidate with the highest weight.
+     *
+     * @return Position of the best candidate, or -1 if the buffer is empty.
+     */
+    public int argMax() {
+        int best = -1;
+        double bestWeight = -1;
+
+        for (int i = 0; i < size; i++) {
+            if (weights[i] > bestWeight) {
+                best = i;
+                bestWeight = weights[i];
+            }
+        }
+        return best;
+    }
+
+    public int getNode(int position) {
+        return nodes[position];
+    }
+
+    public double getWeight(int position) {
+        return weights[position];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return nodes.length;
+    }
+}
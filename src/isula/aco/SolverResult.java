@@ -0,0 +1,83 @@
+package isula.aco;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the best solution found by a solver: its
+ * components, its cost and the iteration it was found at. It is what
+ * solveAsync() completes with, and what improvement listeners receive. It
+ * is serializable when the solution components are.
+ *
+ * @param <C> Class for components of a solution.
+ */
+public final class SolverResult<C> implements Serializable {
+
+    private static final long serialVersionUID = 4482870212962349812L;
+
+    private final C[] solution;
+    private final double cost;
+    private final String solutionAsString;
+    private final Map<Integer, Integer> layerThicknessMap;
+    private final int iteration;
+
+    /**
+     * Creates a result. The solution array and the map are copied.
+     *
+     * @param solution          Solution components, or null if there is no solution yet.
+     * @param cost              Solution cost.
+     * @param solutionAsString  Solution as a String.
+     * @param layerThicknessMap Layer thickness map of ASP solutions. It can be null.
+     * @param iteration         Iteration the solution was found at.
+     */
+    public SolverResult(C[] solution, double cost, String solutionAsString,
+                        Map<Integer, Integer> layerThicknessMap, int iteration) {
+        this.solution = solution == null ? null : solution.clone();
+        this.cost = cost;
+        this.solutionAsString = solutionAsString;
+        this.layerThicknessMap = layerThicknessMap == null ? null
+                : Collections.unmodifiableMap(new HashMap<>(layerThicknessMap));
+        this.iteration = iteration;
+    }
+
+    /**
+     * Indicates if a solution was found.
+     *
+     * @return False if no ant finished a solution.
+     */
+    public boolean hasSolution() {
+        return solution != null;
+    }
+
+    /**
+     * Returns a copy of the solution components.
+     *
+     * @return Solution components, or null if there is no solution.
+     */
+    public C[] getSolution() {
+        return solution == null ? null : solution.clone();
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public String getSolutionAsString() {
+        return solutionAsString;
+    }
+
+    public Map<Integer, Integer> getLayerThicknessMap() {
+        return layerThicknessMap;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    @Override
+    public String toString() {
+        return "Cost: " + cost + ", Solution: " + solutionAsString;
+    }
+}
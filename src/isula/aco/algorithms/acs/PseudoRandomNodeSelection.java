@@ -2,13 +2,14 @@ package isula.aco.algorithms.acs;
 
 import isula.aco.ConfigurationProvider;
 import isula.aco.Environment;
+import isula.aco.IntAnt;
+import isula.aco.SelectionWeights;
 import isula.aco.algorithms.antsystem.RandomNodeSelection;
 import isula.aco.exception.SolutionConstructionException;
 
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map.Entry;
-import java.util.Random;
 import java.util.logging.Logger;
 
 /**
@@ -24,7 +25,8 @@ import java.util.logging.Logger;
  * </ul>
  * <p>
  * <p>
- * Using one or another is determined by a "best-choice" probability.
+ * Using one or another is determined by a "best-choice" probability. For an
+ * IntAnt, both rules work over the same selection buffer, filled once per step.
  *
  * @param <C> Class for components of a solution.
  * @param <E> Class representing the Environment.
@@ -42,6 +44,31 @@ public class PseudoRandomNodeSelection<C, E extends Environment> extends
         C nextNode;
         AcsConfigurationProvider configurationProvider = (AcsConfigurationProvider) configuration;
 
+        IntAnt<E> intAnt = getIntAnt();
+        if (intAnt != null) {
+            SelectionWeights selectionWeights = getSelectionWeights(intAnt, environment, configuration);
+            if (selectionWeights.getSize() > 0) {
+                if (selectMostConvenient(configurationProvider)) {
+                    logger.fine("Selecting the greedy choice");
+
+                    int mostConvenient = getMostConvenient(selectionWeights);
+                    if (mostConvenient >= 0) {
+                        nodeWasSelected = true;
+                        intAnt.visitNode(mostConvenient);
+                    }
+                } else {
+                    logger.fine("Selecting the probabilistic choice");
+
+                    nodeWasSelected = visitSampledNode(intAnt, selectionWeights, intAnt.getRandom().nextDouble());
+                }
+
+                if (!nodeWasSelected) {
+                    nodeWasSelected = this.doIfNoNodeWasSelected(environment, configuration);
+                }
+                return nodeWasSelected;
+            }
+        }
+
         HashMap<C, Double> componentsWithProbabilities = this
                 .getComponentsWithProbabilities(environment, configurationProvider);
 
@@ -77,8 +104,7 @@ public class PseudoRandomNodeSelection<C, E extends Environment> extends
     protected boolean selectMostConvenient(AcsConfigurationProvider configurationProvider) {
         double bestChoiceProbability = configurationProvider
                 .getBestChoiceProbability();
-        Random random = new Random();
-        double randomValue = random.nextDouble();
+        double randomValue = getAnt().getRandom().nextDouble();
         return randomValue < bestChoiceProbability;
     }
 
@@ -112,6 +138,21 @@ public class PseudoRandomNodeSelection<C, E extends Environment> extends
         return nextNode;
     }
 
+    /**
+     * Returns the most convenient node in the selection buffer, that is the one
+     * with the highest heuristic times pheromone value.
+     *
+     * @param selectionWeights Weights of the possible moves.
+     * @return Most convenient node, or -1 if there are no possible moves.
+     */
+    public int getMostConvenient(SelectionWeights selectionWeights) {
+        int bestPosition = selectionWeights.argMax();
+        if (bestPosition < 0) {
+            return -1;
+        }
+        return selectionWeights.getNode(bestPosition);
+    }
+
     protected boolean doIfNoNodeWasSelected(E environment,
                                             ConfigurationProvider configuration) {
         throw new SolutionConstructionException(
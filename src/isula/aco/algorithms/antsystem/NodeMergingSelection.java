@@ -4,6 +4,7 @@ import isula.aco.AntPolicy;
 import isula.aco.AntPolicyType;
 import isula.aco.ConfigurationProvider;
 import isula.aco.Environment;
+import isula.aco.IntAnt;
 import isula.aco.exception.ConfigurationException;
 
 import java.util.*;
@@ -20,11 +21,10 @@ public class NodeMergingSelection<C, E extends Environment>
 
     @Override
     public boolean applyPolicy(E environment, ConfigurationProvider configurationProvider) {
-        Random random = new Random();
         C nextNode = null;
 
         // value will just between 0~1
-        double value = random.nextDouble();
+        double value = getAnt().getRandom().nextDouble();
         double total = 0;
 
         // powerful usage of Hashmap
@@ -81,7 +81,7 @@ public class NodeMergingSelection<C, E extends Environment>
 //            System.out.println("possibleMove -> " + possibleMove);
 
             // heuristicTimesPheromone -> { η*τ }
-            Double heuristicTimesPheromone = getHeuristicTimesPheromone(
+            double heuristicTimesPheromone = getHeuristicTimesPheromone(
                     environment, configurationProvider, possibleMove);
             denominator += heuristicTimesPheromone;
 
@@ -106,7 +106,7 @@ public class NodeMergingSelection<C, E extends Environment>
             C component = componentWithProbability.getKey();
 //            System.out.println("component -> " + component);
 
-            Double numerator = getHeuristicTimesPheromone(
+            double numerator = getHeuristicTimesPheromone(
                     environment, configurationProvider, component);
 
 //            System.out.println("numerator -> " + numerator);
@@ -132,8 +132,14 @@ public class NodeMergingSelection<C, E extends Environment>
     }
 
 
-    private Double getHeuristicTimesPheromone(E environment,
+    private double getHeuristicTimesPheromone(E environment,
                                               ConfigurationProvider configurationProvider, C possibleMove) {
+        IntAnt<E> intAnt = getIntAnt();
+        if (intAnt != null) {
+            return intAnt.getHeuristicTimesPheromone((Integer) possibleMove, intAnt.getCurrentIndex(),
+                    environment, configurationProvider);
+        }
+
         // heuristicValue is a distance between
         // the last city (component) of so far that ant go through (current solution)
         // and possibleMove
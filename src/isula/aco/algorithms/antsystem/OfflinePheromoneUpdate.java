@@ -44,7 +44,9 @@ public abstract class OfflinePheromoneUpdate<C, E extends Environment> extends D
             }
         }
 
-        logger.fine("Pheromone matrix after update :" + Arrays.deepToString(environment.getPheromoneMatrix()));
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Pheromone matrix after update :" + Arrays.deepToString(environment.getPheromoneMatrix()));
+        }
     }
 
     /**
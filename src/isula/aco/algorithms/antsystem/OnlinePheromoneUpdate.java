@@ -8,6 +8,12 @@ import isula.aco.Environment;
 /**
  * The pheromone update policy of Ant System. After an Ant has built a solution,
  * pheromone is deposited in each of the solution components.
+ * <p>
+ * <p>
+ * Each deposit goes through Ant.updatePheromoneTrailValue(), so it is atomic
+ * when ants run in parallel over a concurrent pheromone store. Also override
+ * the getNewPheromoneValue() version that receives the current pheromone value
+ * to make the whole update atomic.
  *
  * @param <C> Class for components of a solution.
  * @param <E> Class representing the Environment.
@@ -24,12 +30,13 @@ public abstract class OnlinePheromoneUpdate<C, E extends Environment> extends
     public boolean applyPolicy(E environment,
                                ConfigurationProvider configurationProvider) {
 
-        for (int i = 0; i < getAnt().getSolution().length; i++) {
-            C solutionComponent = getAnt().getSolution()[i];
-            double newPheromoneValue = this.getNewPheromoneValue(solutionComponent, i,
-                    environment, configurationProvider);
-            getAnt().setPheromoneTrailValue(solutionComponent, i, environment,
-                    newPheromoneValue);
+        C[] solution = getAnt().getSolution();
+        for (int i = 0; i < solution.length; i++) {
+            C solutionComponent = solution[i];
+            Integer positionInSolution = i;
+            getAnt().updatePheromoneTrailValue(solutionComponent, positionInSolution, environment,
+                    currentValue -> this.getNewPheromoneValue(solutionComponent, positionInSolution, currentValue,
+                            environment, configurationProvider));
         }
 
         return true;
@@ -48,4 +55,23 @@ public abstract class OnlinePheromoneUpdate<C, E extends Environment> extends
                                                    Integer positionInSolution,
                                                    E environment, ConfigurationProvider configurationProvider);
 
+    /**
+     * Calculates the pheromone value to be used in the pheromone matrix update,
+     * from the current one. It can be called more than once per update, if other
+     * ants update the same cell concurrently. By default, it ignores the current
+     * value and calls the version of this method without it.
+     *
+     * @param solutionComponent     Solution component.
+     * @param positionInSolution    Position of the component in the solution.
+     * @param currentValue          Current pheromone value.
+     * @param environment           Environment with problem specific information.
+     * @param configurationProvider Algorithm configuration.
+     * @return New pheromone value.
+     */
+    protected double getNewPheromoneValue(C solutionComponent,
+                                          Integer positionInSolution, double currentValue,
+                                          E environment, ConfigurationProvider configurationProvider) {
+        return getNewPheromoneValue(solutionComponent, positionInSolution, environment, configurationProvider);
+    }
+
 }
@@ -0,0 +1,174 @@
+package isula.aco.algorithms.antsystem;
+
+import isula.aco.Ant;
+import isula.aco.ConfigurationProvider;
+import isula.aco.ConstructionScope;
+import isula.aco.Environment;
+import isula.aco.pheromone.DepositBuffer;
+import isula.aco.pheromone.PheromoneStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An offline pheromone update where ants deposit pheromone in parallel. It has two phases:
+ * <p>
+ * <p>
+ * First, the colony is split in chunks and each chunk fills its own DepositBuffer, with no shared writes. Then, the
+ * buffers are merged in parallel by partition: every partition is applied by a single thread, so each cell of the
+ * pheromone store is written once and without contention.
+ * <p>
+ * <p>
+ * Both phases run on the executor service of the colony -see AntColony.setExecutorService()-, so the deposit uses
+ * the same threads as solution construction. Without an executor service, chunks and partitions run sequentially.
+ * <p>
+ * <p>
+ * Ants that don't support buffered deposits -see Ant.depositPheromone()- are updated sequentially after the merge.
+ *
+ * @param <C> Class for components of a solution.
+ * @param <E> Class representing the Environment.
+ */
+public abstract class ParallelPheromoneDeposit<C, E extends Environment> extends OfflinePheromoneUpdate<C, E> {
+
+    private static Logger logger = Logger.getLogger(ParallelPheromoneDeposit.class.getName());
+
+    // Fixed, so deposits are added up in the same order -and with the same rounding- on any number of threads.
+    private static final int MAXIMUM_CHUNKS = 64;
+
+    private DepositBuffer[] depositBuffers;
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+
+        logger.log(Level.FINE, "Performing parallel pheromone deposit");
+
+        E environment = getEnvironment();
+        PheromoneStore pheromoneStore = environment.getPheromoneStore();
+        List<Ant<C, E>> hive = getAntColony().getHive();
+
+        int numberOfChunks = Math.max(1, Math.min(hive.size(), MAXIMUM_CHUNKS));
+        DepositBuffer[] buffers = getDepositBuffers(numberOfChunks, pheromoneStore.isSymmetric());
+
+        List<List<PendingDeposit<C, E>>> pendingDeposits = new ArrayList<>(numberOfChunks);
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+            pendingDeposits.add(new ArrayList<>());
+        }
+
+        runTasks(numberOfChunks, chunk -> {
+            DepositBuffer buffer = buffers[chunk];
+            buffer.clear();
+
+            for (int antIndex = chunk; antIndex < hive.size(); antIndex += numberOfChunks) {
+                Ant<C, E> ant = hive.get(antIndex);
+                C[] solution = ant.getSolution();
+
+                for (int i = 0; i < solution.length && solution[i] != null; i++) {
+                    double deposit = this.getPheromoneDeposit(ant, i, solution[i], environment,
+                            configurationProvider);
+                    if (!ant.depositPheromone(solution[i], i, environment, buffer, deposit)) {
+                        pendingDeposits.get(chunk).add(new PendingDeposit<>(ant, i, solution[i], deposit));
+                    }
+                }
+            }
+        });
+
+        runTasks(buffers[0].getNumberOfPartitions(), partition -> {
+            for (DepositBuffer buffer : buffers) {
+                buffer.apply(partition, pheromoneStore);
+            }
+        });
+
+        for (List<PendingDeposit<C, E>> chunkDeposits : pendingDeposits) {
+            for (PendingDeposit<C, E> pendingDeposit : chunkDeposits) {
+                pendingDeposit.ant.updatePheromoneTrailValue(pendingDeposit.solutionComponent,
+                        pendingDeposit.positionInSolution, environment,
+                        currentValue -> currentValue + pendingDeposit.deposit);
+            }
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Pheromone matrix after update :" + Arrays.deepToString(environment.getPheromoneMatrix()));
+        }
+    }
+
+    /**
+     * Runs a task per index on the executor service of the colony, and waits for all of them to end. Without an
+     * executor service, tasks run one after the other on the calling thread.
+     *
+     * @param numberOfTasks Number of tasks.
+     * @param task          Task to run, that receives its index.
+     */
+    private void runTasks(int numberOfTasks, IntConsumer task) {
+        ExecutorService executorService = getAntColony().getExecutorService();
+        if (executorService == null || numberOfTasks == 1) {
+            for (int taskIndex = 0; taskIndex < numberOfTasks; taskIndex++) {
+                task.accept(taskIndex);
+            }
+            return;
+        }
+
+        ConstructionScope scope = new ConstructionScope(executorService);
+        try {
+            for (int taskIndex = 0; taskIndex < numberOfTasks; taskIndex++) {
+                final int index = taskIndex;
+                scope.fork(() -> task.accept(index));
+            }
+            scope.join();
+        } finally {
+            scope.close();
+        }
+    }
+
+    private DepositBuffer[] getDepositBuffers(int numberOfChunks, boolean symmetric) {
+        if (depositBuffers == null || depositBuffers.length != numberOfChunks
+                || depositBuffers[0].isSymmetric() != symmetric) {
+            depositBuffers = new DepositBuffer[numberOfChunks];
+            for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+                depositBuffers[chunk] = new DepositBuffer(numberOfChunks, symmetric);
+            }
+        }
+
+        return depositBuffers;
+    }
+
+    @Override
+    protected double getNewPheromoneValue(Ant<C, E> ant, Integer positionInSolution, C solutionComponent,
+                                          E environment, ConfigurationProvider configurationProvider) {
+        return ant.getPheromoneTrailValue(solutionComponent, positionInSolution, environment)
+                + getPheromoneDeposit(ant, positionInSolution, solutionComponent, environment, configurationProvider);
+    }
+
+    /**
+     * Calculates the amount of pheromone an ant deposits on a solution component. This method is called from several
+     * threads at the same time: it shouldn't modify any shared state.
+     *
+     * @param ant                   Ant instance doing the deposit.
+     * @param positionInSolution    Position of the component in the solution.
+     * @param solutionComponent     Solution component.
+     * @param environment           Environment with problem specific information.
+     * @param configurationProvider Algorithm configuration.
+     * @return Pheromone to deposit.
+     */
+    protected abstract double getPheromoneDeposit(Ant<C, E> ant, Integer positionInSolution, C solutionComponent,
+                                                  E environment, ConfigurationProvider configurationProvider);
+
+    private static class PendingDeposit<C, E extends Environment> {
+
+        private final Ant<C, E> ant;
+        private final int positionInSolution;
+        private final C solutionComponent;
+        private final double deposit;
+
+        PendingDeposit(Ant<C, E> ant, int positionInSolution, C solutionComponent, double deposit) {
+            this.ant = ant;
+            this.positionInSolution = positionInSolution;
+            this.solutionComponent = solutionComponent;
+            this.deposit = deposit;
+        }
+    }
+}
@@ -4,16 +4,23 @@ import isula.aco.AntPolicy;
 import isula.aco.AntPolicyType;
 import isula.aco.ConfigurationProvider;
 import isula.aco.Environment;
+import isula.aco.FenwickSampler;
+import isula.aco.IntAnt;
+import isula.aco.SelectionWeights;
 import isula.aco.exception.ConfigurationException;
 import isula.aco.exception.SolutionConstructionException;
 
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * This is the node selection policy used in Ant System algorithms, also known as Random Proportional Rule.
+ * <p>
+ * <p>
+ * When the Ant is an IntAnt, weights are written once per step in the selection buffer owned by the Ant, and the
+ * next node is sampled over their cumulative sum: no probability normalisation nor allocation takes place. If the
+ * IntAnt has stationary selection weights, they are kept on a FenwickSampler instead, and every step takes O(log n).
  *
  * @param <C> Class for components of a solution.
  * @param <E> Class representing the Environment.
@@ -28,11 +35,23 @@ public class RandomNodeSelection<C, E extends Environment> extends
 
     @Override
     public boolean applyPolicy(E environment, ConfigurationProvider configurationProvider) {
-        Random random = new Random();
+        IntAnt<E> intAnt = getIntAnt();
+        if (intAnt != null && intAnt.hasStationarySelectionWeights()) {
+            FenwickSampler selectionSampler = getSelectionSampler(intAnt, environment, configurationProvider);
+            if (selectionSampler.getWeightedNodes() > 0) {
+                return visitSampledNode(intAnt, selectionSampler, intAnt.getRandom().nextDouble());
+            }
+        } else if (intAnt != null) {
+            SelectionWeights selectionWeights = getSelectionWeights(intAnt, environment, configurationProvider);
+            if (selectionWeights.getSize() > 0) {
+                return visitSampledNode(intAnt, selectionWeights, intAnt.getRandom().nextDouble());
+            }
+        }
+
         C nextNode = null;
 
         // value will just between 0~1
-        double value = random.nextDouble();
+        double value = getAnt().getRandom().nextDouble();
         double total = 0;
 
         // powerful usage of Hashmap
@@ -65,6 +84,142 @@ public class RandomNodeSelection<C, E extends Environment> extends
         return false;
     }
 
+    /**
+     * Writes the weight of every possible move in the selection buffer of the
+     * Ant. The weight of a move is its heuristic times pheromone value.
+     *
+     * @param intAnt                Ant building a solution.
+     * @param environment           Environment that ants are traversing.
+     * @param configurationProvider Configuration provider.
+     * @return The selection buffer of the Ant, with the weights for the adjacent nodes.
+     */
+    protected SelectionWeights getSelectionWeights(IntAnt<E> intAnt, E environment,
+                                                   ConfigurationProvider configurationProvider) {
+        SelectionWeights selectionWeights = intAnt.getSelectionWeights();
+        selectionWeights.clear();
+
+        int[] neighbourhood = intAnt.getNeighbourhoodBuffer();
+        int neighbourhoodSize = intAnt.getNeighbourhood(environment, neighbourhood);
+        int currentIndex = intAnt.getCurrentIndex();
+
+        for (int i = 0; i < neighbourhoodSize; i++) {
+            int possibleMove = neighbourhood[i];
+
+            if (!intAnt.isNodeVisited(possibleMove) && intAnt.isNodeValid(possibleMove)) {
+                double heuristicTimesPheromone = intAnt.getHeuristicTimesPheromone(possibleMove, currentIndex,
+                        environment, configurationProvider);
+                if (Double.isNaN(heuristicTimesPheromone)) {
+                    throw new ConfigurationException("The probability for component " + possibleMove +
+                            " is not a number.");
+                }
+
+                selectionWeights.add(possibleMove, heuristicTimesPheromone);
+            }
+        }
+
+        return selectionWeights;
+    }
+
+    /**
+     * Returns the selection sampler of an Ant with stationary selection weights.
+     * The sampler is built on the first step of a solution, and later only the
+     * weights reported as changed are calculated again.
+     *
+     * @param intAnt                Ant building a solution.
+     * @param environment           Environment that ants are traversing.
+     * @param configurationProvider Configuration provider.
+     * @return The selection sampler of the Ant, with the weights for the available nodes.
+     */
+    protected FenwickSampler getSelectionSampler(IntAnt<E> intAnt, E environment,
+                                                 ConfigurationProvider configurationProvider) {
+        FenwickSampler selectionSampler = intAnt.getSelectionSampler();
+        int currentIndex = intAnt.getCurrentIndex();
+
+        if (!selectionSampler.isBuilt()) {
+            int[] neighbourhood = intAnt.getNeighbourhoodBuffer();
+            int neighbourhoodSize = intAnt.getNeighbourhood(environment, neighbourhood);
+
+            for (int i = 0; i < neighbourhoodSize; i++) {
+                int possibleMove = neighbourhood[i];
+                selectionSampler.setInitialWeight(possibleMove, getStationaryWeight(intAnt, possibleMove,
+                        currentIndex, environment, configurationProvider));
+            }
+            selectionSampler.build();
+        }
+
+        for (int node = selectionSampler.pollStaleNode(); node >= 0; node = selectionSampler.pollStaleNode()) {
+            selectionSampler.update(node, getStationaryWeight(intAnt, node, currentIndex, environment,
+                    configurationProvider));
+        }
+
+        return selectionSampler;
+    }
+
+    private double getStationaryWeight(IntAnt<E> intAnt, int node, int currentIndex, E environment,
+                                       ConfigurationProvider configurationProvider) {
+        if (intAnt.isNodeVisited(node) || !intAnt.isNodeValid(node)) {
+            return 0.0;
+        }
+
+        double heuristicTimesPheromone = intAnt.getHeuristicTimesPheromone(node, currentIndex, environment,
+                configurationProvider);
+        if (Double.isNaN(heuristicTimesPheromone)) {
+            throw new ConfigurationException("The probability for component " + node + " is not a number.");
+        }
+        return heuristicTimesPheromone;
+    }
+
+    /**
+     * Samples a node from the selection sampler, with a probability proportional
+     * to its weight, marks it as visited and removes it from the sampler.
+     *
+     * @param intAnt           Ant building a solution.
+     * @param selectionSampler Weights of the available nodes.
+     * @param randomValue      Random value between 0 and 1.
+     * @return True if a node was selected.
+     */
+    protected boolean visitSampledNode(IntAnt<E> intAnt, FenwickSampler selectionSampler, double randomValue) {
+        double totalWeight = selectionSampler.getTotal();
+        if (!(totalWeight > 0) || Double.isInfinite(totalWeight)) {
+            throw new ConfigurationException("The sum of weights for the possible components is " +
+                    totalWeight + ". We expect a positive number.");
+        }
+
+        int selectedNode = selectionSampler.sample(randomValue);
+        if (selectedNode < 0) {
+            return false;
+        }
+
+        selectionSampler.remove(selectedNode);
+        intAnt.visitNode(selectedNode);
+        return true;
+    }
+
+    /**
+     * Samples a node from the selection buffer, with a probability proportional
+     * to its weight, and marks it as visited.
+     *
+     * @param intAnt           Ant building a solution.
+     * @param selectionWeights Weights of the possible moves.
+     * @param randomValue      Random value between 0 and 1.
+     * @return True if a node was selected.
+     */
+    protected boolean visitSampledNode(IntAnt<E> intAnt, SelectionWeights selectionWeights, double randomValue) {
+        double totalWeight = selectionWeights.getTotal();
+        if (!(totalWeight > 0) || Double.isInfinite(totalWeight)) {
+            throw new ConfigurationException("The sum of weights for the possible components is " +
+                    totalWeight + ". We expect a positive number.");
+        }
+
+        int selectedPosition = selectionWeights.sample(randomValue);
+        if (selectedPosition < 0) {
+            return false;
+        }
+
+        intAnt.visitNode(selectionWeights.getNode(selectedPosition));
+        return true;
+    }
+
     /**
      * Gets a probabilities vector, containing probabilities to move to each node
      * according to pheromone matrix.
@@ -86,7 +241,7 @@ public class RandomNodeSelection<C, E extends Environment> extends
                     && getAnt().isNodeValid(possibleMove)) {
 
                 // heuristicTimesPheromone -> { η*τ }
-                Double heuristicTimesPheromone = getHeuristicTimesPheromone(
+                double heuristicTimesPheromone = getHeuristicTimesPheromone(
                         environment, configurationProvider, possibleMove);
                 denominator += heuristicTimesPheromone;
 
@@ -103,7 +258,7 @@ public class RandomNodeSelection<C, E extends Environment> extends
                     .next();
             C component = componentWithProbability.getKey();
 
-            Double numerator = getHeuristicTimesPheromone(
+            double numerator = getHeuristicTimesPheromone(
                     environment, configurationProvider, component);
             Double probability = numerator / denominator;
             totalProbability += probability;
@@ -135,8 +290,14 @@ public class RandomNodeSelection<C, E extends Environment> extends
                         + "\nPartial solution : " + getAnt().getSolutionAsString());
     }
 
-    private Double getHeuristicTimesPheromone(E environment,
+    private double getHeuristicTimesPheromone(E environment,
                                               ConfigurationProvider configurationProvider, C possibleMove) {
+        IntAnt<E> intAnt = getIntAnt();
+        if (intAnt != null) {
+            return intAnt.getHeuristicTimesPheromone((Integer) possibleMove, intAnt.getCurrentIndex(),
+                    environment, configurationProvider);
+        }
+
         // heuristicValue is a distance between
         // the last city(component) of so far that ant go through (current solution)
         // and possibleMove
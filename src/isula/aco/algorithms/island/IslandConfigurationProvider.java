@@ -0,0 +1,44 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.ConfigurationProvider;
+
+/**
+ * Configuration parameters of the island model. Each island is configured on its own: these parameters only control
+ * how many islands run and how they migrate.
+ */
+public interface IslandConfigurationProvider extends ConfigurationProvider {
+
+    /**
+     * Number of islands. Each one is solved on its own thread.
+     *
+     * @return Number of islands.
+     */
+    int getNumberOfIslands();
+
+    /**
+     * Iterations between migrations. On every migration all running islands wait for each other.
+     *
+     * @return Migration interval.
+     */
+    int getMigrationInterval();
+
+    /**
+     * Which islands each island receives migrants from. By default, a ring.
+     *
+     * @return Migration topology.
+     */
+    default MigrationTopology getMigrationTopology() {
+        return MigrationTopology.RING;
+    }
+
+    /**
+     * Weight of the pheromone received on a migration. Each pheromone value becomes (1 - weight) times its own
+     * value plus weight times the average value of the source islands. Zero disables blending, and only best
+     * solutions are exchanged.
+     *
+     * @return Blending weight, between 0 and 1.
+     */
+    default double getPheromoneBlendingWeight() {
+        return 0.1;
+    }
+}
@@ -0,0 +1,332 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.SolverResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinates an island model where each island is a separate process, connected through a loopback TCP socket.
+ * Islands are ordinary solvers wrapped on a RemoteIsland. On every migration, the coordinator waits for all
+ * running islands and sends each one the migrants of its source islands: their best solutions and their
+ * compressed pheromone. Blending happens on the islands.
+ * <p>
+ * <p>
+ * The coordinator can launch the island processes itself, with the same Java installation and class path. The
+ * main class of the islands receives the coordinator port and the island index as its first two arguments.
+ *
+ * @param <C> Class for components of a solution.
+ */
+public class IslandCoordinator<C> implements Closeable {
+
+    private static Logger logger = Logger.getLogger(IslandCoordinator.class.getName());
+
+    private static final int CONNECTION_TIMEOUT_MILLIS = 60000;
+
+    private final IslandConfigurationProvider configurationProvider;
+    private final List<Process> islandProcesses = new ArrayList<>();
+
+    private ServerSocket serverSocket;
+    private volatile SolverResult<C> bestSolution = new SolverResult<>(null, 0.0, "", null, 0);
+    private volatile int migrations = 0;
+
+    /**
+     * Creates a coordinator.
+     *
+     * @param configurationProvider Island model configuration: number of islands and topology.
+     */
+    public IslandCoordinator(IslandConfigurationProvider configurationProvider) {
+        this.configurationProvider = configurationProvider;
+    }
+
+    /**
+     * Starts listening for islands, on a free port of the loopback interface.
+     *
+     * @return Port islands have to connect to.
+     * @throws IOException If the port can't be opened.
+     */
+    public int start() throws IOException {
+        serverSocket = new ServerSocket(0, configurationProvider.getNumberOfIslands(),
+                InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout(CONNECTION_TIMEOUT_MILLIS);
+        logger.info("Coordinator listening on port " + serverSocket.getLocalPort());
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Launches one process per island. Island output goes to the output of this process.
+     *
+     * @param islandMainClass Main class of the islands.
+     * @param arguments       Arguments for the islands, after the port and the island index.
+     * @throws IOException If a process can't be started.
+     */
+    public void launchIslands(Class<?> islandMainClass, String... arguments) throws IOException {
+        String javaExecutable = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int islandIndex = 0; islandIndex < configurationProvider.getNumberOfIslands(); islandIndex++) {
+            List<String> command = new ArrayList<>(Arrays.asList(javaExecutable,
+                    "-cp", System.getProperty("java.class.path"), islandMainClass.getName(),
+                    String.valueOf(serverSocket.getLocalPort()), String.valueOf(islandIndex)));
+            command.addAll(Arrays.asList(arguments));
+
+            islandProcesses.add(new ProcessBuilder(command).inheritIO().start());
+        }
+    }
+
+    /**
+     * Launches the island processes, coordinates their migrations and waits for them to finish.
+     *
+     * @param islandMainClass Main class of the islands.
+     * @param arguments       Arguments for the islands, after the port and the island index.
+     * @return Best solution found by any island.
+     * @throws IOException On connection errors.
+     */
+    public SolverResult<C> solveProblem(Class<?> islandMainClass, String... arguments) throws IOException {
+        try {
+            start();
+            launchIslands(islandMainClass, arguments);
+            coordinate();
+            waitForIslandProcesses();
+        } finally {
+            close();
+        }
+
+        logger.info("Islands finished after " + migrations + " migrations");
+        logger.info("Best solution cost: " + bestSolution.getCost());
+        logger.info("Best solution:" + bestSolution.getSolutionAsString());
+        return bestSolution;
+    }
+
+    /**
+     * Accepts a connection from every island and coordinates their migrations, until all of them finish.
+     *
+     * @return Best solution found by any island.
+     * @throws IOException If an island doesn't connect in time, or on connection errors.
+     */
+    public SolverResult<C> coordinate() throws IOException {
+        int numberOfIslands = configurationProvider.getNumberOfIslands();
+        final BlockingQueue<MigrationMessage> messages = new LinkedBlockingQueue<>();
+        DataOutputStream[] outputStreams = new DataOutputStream[numberOfIslands];
+        List<Socket> sockets = new ArrayList<>();
+        int numberOfCells = MigrationMessage.NO_PHEROMONE;
+
+        try {
+            int connectedIslands = 0;
+            while (connectedIslands < numberOfIslands) {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                socket.setTcpNoDelay(true);
+
+                final DataInputStream inputStream = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                final int islandIndex;
+                try {
+                    MigrationMessage hello = MigrationMessage.readHello(inputStream);
+                    islandIndex = hello.getIslandIndex();
+                    if (islandIndex < 0 || islandIndex >= numberOfIslands || outputStreams[islandIndex] != null) {
+                        throw new IOException("Unexpected island index: " + islandIndex);
+                    }
+                    if (connectedIslands > 0 && hello.getNumberOfCells() != numberOfCells) {
+                        throw new IOException("Island " + islandIndex + " has " + hello.getNumberOfCells()
+                                + " pheromone cells, while other islands have " + numberOfCells);
+                    }
+                    numberOfCells = hello.getNumberOfCells();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Connection rejected: it is not a valid island", e);
+                    socket.close();
+                    continue;
+                }
+                outputStreams[islandIndex] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                connectedIslands++;
+
+                final int expectedCells = numberOfCells;
+                Thread reader = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        readMessages(islandIndex, expectedCells, inputStream, messages);
+                    }
+                }, "island-reader-" + islandIndex);
+                reader.setDaemon(true);
+                reader.start();
+            }
+
+            logger.info("All " + numberOfIslands + " islands connected");
+            coordinateMigrations(messages, outputStreams);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while coordinating islands", e);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+
+        return bestSolution;
+    }
+
+    /**
+     * Reads the messages of an island until it finishes. Messages are checked before they are queued, and on any
+     * failure the island is reported as disconnected, so the coordinator never waits for it.
+     */
+    private static void readMessages(int islandIndex, int numberOfCells, DataInputStream inputStream,
+                                     BlockingQueue<MigrationMessage> messages) {
+        boolean finished = false;
+        try {
+            while (!finished) {
+                MigrationMessage message = MigrationMessage.readFromIsland(inputStream, islandIndex, numberOfCells);
+                messages.add(message);
+                finished = message.getType() == MigrationMessage.FINISHED;
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Connection to island " + islandIndex + " closed", e);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Invalid message from island " + islandIndex, e);
+        } finally {
+            if (!finished) {
+                messages.add(MigrationMessage.createDisconnected(islandIndex));
+            }
+        }
+    }
+
+    /**
+     * Handles island messages one at a time. A migration happens once every running island has sent its migrant.
+     */
+    private void coordinateMigrations(BlockingQueue<MigrationMessage> messages,
+                                      DataOutputStream[] outputStreams) throws InterruptedException, IOException {
+        int numberOfIslands = outputStreams.length;
+        boolean[] running = new boolean[numberOfIslands];
+        Arrays.fill(running, true);
+        int runningIslands = numberOfIslands;
+        MigrationMessage[] pendingMigrants = new MigrationMessage[numberOfIslands];
+        int pendingIslands = 0;
+
+        while (runningIslands > 0) {
+            MigrationMessage message = messages.take();
+            int islandIndex = message.getIslandIndex();
+            if (!running[islandIndex]) {
+                continue;
+            }
+
+            if (message.getType() == MigrationMessage.MIGRANT) {
+                offerSolution(message.<C>getResult());
+                pendingMigrants[islandIndex] = message;
+                pendingIslands++;
+            } else {
+                if (message.getType() == MigrationMessage.FINISHED) {
+                    offerSolution(message.<C>getResult());
+                    logger.info("Island " + islandIndex + " finished");
+                } else {
+                    logger.warning("Island " + islandIndex + " disconnected before finishing");
+                }
+
+                running[islandIndex] = false;
+                runningIslands--;
+                if (pendingMigrants[islandIndex] != null) {
+                    pendingMigrants[islandIndex] = null;
+                    pendingIslands--;
+                }
+            }
+
+            if (pendingIslands > 0 && pendingIslands == runningIslands) {
+                sendMigrants(pendingMigrants, outputStreams);
+                Arrays.fill(pendingMigrants, null);
+                pendingIslands = 0;
+            }
+        }
+    }
+
+    private void sendMigrants(MigrationMessage[] pendingMigrants, DataOutputStream[] outputStreams) {
+        List<MigrationMessage> participants = new ArrayList<>();
+        for (MigrationMessage migrant : pendingMigrants) {
+            if (migrant != null) {
+                participants.add(migrant);
+            }
+        }
+
+        MigrationTopology migrationTopology = configurationProvider.getMigrationTopology();
+        for (int position = 0; position < participants.size(); position++) {
+            List<MigrationMessage> sourceMigrants = new ArrayList<>();
+            for (int source : migrationTopology.getSources(position, participants.size())) {
+                sourceMigrants.add(participants.get(source));
+            }
+
+            int islandIndex = participants.get(position).getIslandIndex();
+            try {
+                MigrationMessage.writeMigrants(outputStreams[islandIndex], sourceMigrants);
+            } catch (IOException e) {
+                // The reader of that island reports the disconnection.
+                logger.log(Level.WARNING, "Migrants could not be sent to island " + islandIndex, e);
+            }
+        }
+
+        migrations++;
+        logger.fine("Migration " + migrations + " with " + participants.size() + " islands. Best solution cost: "
+                + bestSolution.getCost());
+    }
+
+    private void offerSolution(SolverResult<C> result) {
+        if (result.hasSolution() && (!bestSolution.hasSolution() || result.getCost() < bestSolution.getCost())) {
+            bestSolution = result;
+        }
+    }
+
+    private void waitForIslandProcesses() throws IOException {
+        for (Process islandProcess : islandProcesses) {
+            try {
+                int exitValue = islandProcess.waitFor();
+                if (exitValue != 0) {
+                    logger.warning("An island process finished with exit value " + exitValue);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for island processes", e);
+            }
+        }
+    }
+
+    /**
+     * Stops listening, and destroys the island processes still alive.
+     *
+     * @throws IOException If the server socket can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Process islandProcess : islandProcesses) {
+            if (islandProcess.isAlive()) {
+                islandProcess.destroy();
+            }
+        }
+        islandProcesses.clear();
+
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * The best solution received from any island.
+     *
+     * @return Best solution so far.
+     */
+    public SolverResult<C> getResult() {
+        return bestSolution;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+}
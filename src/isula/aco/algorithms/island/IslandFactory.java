@@ -0,0 +1,22 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Environment;
+
+/**
+ * Creates the solvers of an island model. Each island needs its own Environment and Colony, and should have its own
+ * random seed if runs have to be reproducible.
+ *
+ * @param <C> Class for components of a solution.
+ * @param <E> Class representing the Environment.
+ */
+public interface IslandFactory<C, E extends Environment> {
+
+    /**
+     * Creates an initialized solver, with its daemon actions and ant policies.
+     *
+     * @param islandIndex Island index, from 0 to the number of islands - 1.
+     * @return Solver for the island.
+     */
+    AcoProblemSolver<C, E> createIsland(int islandIndex);
+}
@@ -0,0 +1,323 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.Environment;
+import isula.aco.SolverResult;
+import isula.aco.exception.ConfigurationException;
+import isula.aco.pheromone.PheromoneStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Solves a problem with several independent islands -each one an AcoProblemSolver, with its own Colony and
+ * pheromone matrix- running on their own threads. Every few iterations the running islands wait for each other
+ * and migrate: each island adopts the best solution of its source islands, if it is better than its own, and
+ * blends their pheromone into its own.
+ * <p>
+ * <p>
+ * Islands only synchronize on migrations. Each island copies its own pheromone before the barrier and blends the
+ * copies of its sources after it, so both sweeps run in parallel. An island that finishes -by iterations, time
+ * limit, target cost or stagnation- leaves the migrations, and the others keep going without it.
+ *
+ * @param <C> Class for components of a solution.
+ * @param <E> Class representing the Environment.
+ */
+public class IslandSolver<C, E extends Environment> {
+
+    private static Logger logger = Logger.getLogger(IslandSolver.class.getName());
+
+    private final IslandConfigurationProvider configurationProvider;
+    private final IslandFactory<C, E> islandFactory;
+
+    private List<AcoProblemSolver<C, E>> islands = Collections.emptyList();
+    private Phaser phaser;
+    private AtomicReferenceArray<Migrant<C>> migrants;
+    private double[][][] snapshotBuffers;
+    private volatile List<Migrant<C>> participants = Collections.emptyList();
+    private volatile int migrations = 0;
+
+    /**
+     * Creates an island solver.
+     *
+     * @param configurationProvider Island model configuration.
+     * @param islandFactory         Creates the solver of each island.
+     */
+    public IslandSolver(IslandConfigurationProvider configurationProvider, IslandFactory<C, E> islandFactory) {
+        this.configurationProvider = configurationProvider;
+        this.islandFactory = islandFactory;
+    }
+
+    /**
+     * Solves the problem on every island, and waits for all of them to finish.
+     *
+     * @throws ConfigurationException If the island model or an island is not properly configured.
+     */
+    public void solveProblem() {
+        final int numberOfIslands = configurationProvider.getNumberOfIslands();
+        final int migrationInterval = configurationProvider.getMigrationInterval();
+        if (numberOfIslands < 1 || migrationInterval < 1) {
+            throw new ConfigurationException("The number of islands and the migration interval must be positive. "
+                    + "Check your Configuration Provider.");
+        }
+
+        List<AcoProblemSolver<C, E>> newIslands = new ArrayList<>();
+        for (int islandIndex = 0; islandIndex < numberOfIslands; islandIndex++) {
+            AcoProblemSolver<C, E> island = islandFactory.createIsland(islandIndex);
+            island.addDaemonActions(new Migration(islandIndex));
+            newIslands.add(island);
+        }
+
+        this.islands = Collections.unmodifiableList(newIslands);
+        this.migrants = new AtomicReferenceArray<>(numberOfIslands);
+        this.snapshotBuffers = new double[numberOfIslands][2][];
+        this.participants = Collections.emptyList();
+        this.migrations = 0;
+        this.phaser = new Phaser(numberOfIslands) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                collectMigrants(phase);
+                return registeredParties == 0;
+            }
+        };
+
+        logger.info("Starting " + numberOfIslands + " islands. Migration interval: " + migrationInterval
+                + ", topology: " + configurationProvider.getMigrationTopology());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfIslands);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (final AcoProblemSolver<C, E> island : islands) {
+                results.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        try {
+                            island.solveProblem();
+                        } catch (Exception | Error e) {
+                            requestStop();
+                            throw e;
+                        } finally {
+                            phaser.arriveAndDeregister();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> result : results) {
+                waitForIsland(result);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        logger.info("Islands finished after " + migrations + " migrations");
+        logger.info("Best solution cost: " + getResult().getCost());
+        logger.info("Best solution:" + getResult().getSolutionAsString());
+    }
+
+    private void waitForIsland(Future<Void> result) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            requestStop();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof javax.naming.ConfigurationException) {
+                ConfigurationException configurationException = new ConfigurationException(cause.getMessage());
+                configurationException.initCause(cause);
+                throw configurationException;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("An island failed", cause);
+        }
+    }
+
+    /**
+     * Called by the last island arriving to a migration, while the others wait: registers which islands take
+     * part on it.
+     *
+     * @param phase Migration phase.
+     */
+    private void collectMigrants(int phase) {
+        List<Migrant<C>> newParticipants = new ArrayList<>();
+        for (int islandIndex = 0; islandIndex < migrants.length(); islandIndex++) {
+            Migrant<C> migrant = migrants.get(islandIndex);
+            if (migrant != null && migrant.phase == phase) {
+                newParticipants.add(migrant);
+            }
+        }
+
+        if (!newParticipants.isEmpty()) {
+            this.participants = Collections.unmodifiableList(newParticipants);
+            this.migrations++;
+        }
+    }
+
+    /**
+     * Copies the pheromone values of an island. Copies alternate between two buffers, by phase: an island can't
+     * start the next migration until every other island has arrived, so no island is reading the buffer being
+     * overwritten.
+     */
+    private double[] takeSnapshot(int islandIndex, int phase, PheromoneStore pheromoneStore) {
+        double[] snapshot = PheromoneMigration.copyCells(pheromoneStore, snapshotBuffers[islandIndex][phase & 1]);
+        snapshotBuffers[islandIndex][phase & 1] = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Adopts the best solution of the source islands and blends their pheromone. Runs on the island thread, right
+     * after the migration barrier.
+     */
+    private void receiveMigrants(int islandIndex, List<Migrant<C>> currentParticipants) {
+        int position = -1;
+        for (int index = 0; index < currentParticipants.size(); index++) {
+            if (currentParticipants.get(index).islandIndex == islandIndex) {
+                position = index;
+            }
+        }
+        if (position < 0) {
+            return;
+        }
+
+        int[] sources = configurationProvider.getMigrationTopology().getSources(position, currentParticipants.size());
+        List<SolverResult<C>> sourceResults = new ArrayList<>();
+        List<double[]> sourceSnapshots = new ArrayList<>();
+        for (int source : sources) {
+            sourceResults.add(currentParticipants.get(source).result);
+            sourceSnapshots.add(currentParticipants.get(source).pheromoneSnapshot);
+        }
+
+        AcoProblemSolver<C, E> island = islands.get(islandIndex);
+        SolverResult<C> adoptedResult = PheromoneMigration.adoptBestSolution(island, sourceResults);
+        if (adoptedResult != null) {
+            logger.fine("Island " + islandIndex + " adopted a migrant solution. Cost: " + adoptedResult.getCost());
+        }
+
+        double[] ownSnapshot = currentParticipants.get(position).pheromoneSnapshot;
+        if (ownSnapshot != null) {
+            PheromoneMigration.blend(island, ownSnapshot, sourceSnapshots,
+                    configurationProvider.getPheromoneBlendingWeight());
+        }
+    }
+
+    /**
+     * Asks every island to stop before its next iteration.
+     */
+    public void requestStop() {
+        for (AcoProblemSolver<C, E> island : islands) {
+            island.requestStop();
+        }
+    }
+
+    /**
+     * The best solution found by any island.
+     *
+     * @return Best solution so far.
+     */
+    public SolverResult<C> getResult() {
+        SolverResult<C> bestResult = null;
+        for (AcoProblemSolver<C, E> island : islands) {
+            SolverResult<C> result = island.getResult();
+            if (bestResult == null || (result.hasSolution()
+                    && (!bestResult.hasSolution() || result.getCost() < bestResult.getCost()))) {
+                bestResult = result;
+            }
+        }
+
+        if (bestResult == null) {
+            return new SolverResult<>(null, 0.0, "", null, 0);
+        }
+        return bestResult;
+    }
+
+    public C[] getBestSolution() {
+        return getResult().getSolution();
+    }
+
+    public double getBestSolutionCost() {
+        return getResult().getCost();
+    }
+
+    public String getBestSolutionAsString() {
+        return getResult().getSolutionAsString();
+    }
+
+    public List<AcoProblemSolver<C, E>> getIslands() {
+        return islands;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * What an island offers on a migration: its best solution and a copy of its pheromone.
+     */
+    private static final class Migrant<C> {
+
+        private final int islandIndex;
+        private final int phase;
+        private final SolverResult<C> result;
+        private final double[] pheromoneSnapshot;
+
+        private Migrant(int islandIndex, int phase, SolverResult<C> result, double[] pheromoneSnapshot) {
+            this.islandIndex = islandIndex;
+            this.phase = phase;
+            this.result = result;
+            this.pheromoneSnapshot = pheromoneSnapshot;
+        }
+    }
+
+    /**
+     * Migrates at the end of every migration interval, except on the last iteration.
+     */
+    private final class Migration extends DaemonAction<C, E> {
+
+        private final int islandIndex;
+
+        private Migration(int islandIndex) {
+            super(DaemonActionType.END_OF_ITERATION);
+            this.islandIndex = islandIndex;
+        }
+
+        @Override
+        public void applyDaemonAction(ConfigurationProvider provider) {
+            AcoProblemSolver<C, E> island = getProblemSolver();
+            int iterations = island.getCurrentIteration() + 1;
+            if (iterations % configurationProvider.getMigrationInterval() != 0
+                    || iterations >= provider.getNumberOfIterations() || island.isStopRequested()) {
+                return;
+            }
+
+            // This island hasn't arrived yet, so the phase can't advance before reading it.
+            int phase = phaser.getPhase();
+            double[] snapshot = null;
+            if (configurationProvider.getPheromoneBlendingWeight() > 0) {
+                snapshot = takeSnapshot(islandIndex, phase, getEnvironment().getPheromoneStore());
+            }
+            migrants.set(islandIndex, new Migrant<>(islandIndex, phase, island.getResult(), snapshot));
+
+            phaser.arriveAndAwaitAdvance();
+            receiveMigrants(islandIndex, participants);
+        }
+    }
+}
@@ -0,0 +1,570 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.SolverResult;
+import isula.aco.exception.ConfigurationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A message between an island process and the coordinator. Solutions travel encoded field by field, and pheromone
+ * cells travel compressed. The coordinator forwards both as they arrived, once it has checked them.
+ * <p>
+ * <p>
+ * Nothing is deserialized: solution components can only be integers, longs, doubles or strings. Every length on a
+ * message is checked before it is read, and byte arrays grow as their bytes arrive, so a broken or hostile peer
+ * can't make the reader allocate more than it actually sends. Each island announces its number of pheromone cells
+ * when it connects, and messages with any other number are rejected.
+ * <p>
+ * <p>
+ * Before compression, the bytes of the cells are regrouped by position -all the first bytes, then all the second
+ * bytes, and so on. Sign and exponent bytes are alike across a pheromone matrix, so they compress well even when
+ * the values don't.
+ */
+final class MigrationMessage {
+
+    static final byte HELLO = 1;
+    static final byte MIGRANT = 2;
+    static final byte FINISHED = 3;
+    static final byte MIGRANTS = 4;
+    static final byte DISCONNECTED = 5;
+
+    static final int NO_PHEROMONE = -1;
+    static final int MAXIMUM_CELLS = Integer.MAX_VALUE / Double.BYTES;
+
+    private static final int MAXIMUM_RESULT_BYTES = 1 << 26;
+    private static final int READ_CHUNK_BYTES = 1 << 16;
+
+    private static final int NO_LENGTH = -1;
+    private static final byte INTEGER_COMPONENTS = 1;
+    private static final byte LONG_COMPONENTS = 2;
+    private static final byte DOUBLE_COMPONENTS = 3;
+    private static final byte STRING_COMPONENTS = 4;
+
+    private final byte type;
+    private final int islandIndex;
+    private final byte[] encodedResult;
+    private final int numberOfCells;
+    private final byte[] compressedCells;
+
+    private SolverResult<?> result;
+
+    private MigrationMessage(byte type, int islandIndex, byte[] encodedResult, int numberOfCells,
+                             byte[] compressedCells) {
+        this.type = type;
+        this.islandIndex = islandIndex;
+        this.encodedResult = encodedResult;
+        this.numberOfCells = numberOfCells;
+        this.compressedCells = compressedCells;
+    }
+
+    /**
+     * Creates the message an island sends on a migration.
+     *
+     * @param islandIndex    Island index.
+     * @param result         Best solution of the island.
+     * @param pheromoneCells Pheromone cells of the island, or null if pheromone is not blended.
+     * @return Migrant message.
+     * @throws IOException If the solution can't be encoded.
+     */
+    static MigrationMessage createMigrant(int islandIndex, SolverResult<?> result, double[] pheromoneCells)
+            throws IOException {
+        if (pheromoneCells == null) {
+            return new MigrationMessage(MIGRANT, islandIndex, encode(result), NO_PHEROMONE, new byte[0]);
+        }
+        return new MigrationMessage(MIGRANT, islandIndex, encode(result), pheromoneCells.length,
+                compress(pheromoneCells));
+    }
+
+    static MigrationMessage createFinished(int islandIndex, SolverResult<?> result) throws IOException {
+        return new MigrationMessage(FINISHED, islandIndex, encode(result), NO_PHEROMONE, new byte[0]);
+    }
+
+    static MigrationMessage createDisconnected(int islandIndex) {
+        return new MigrationMessage(DISCONNECTED, islandIndex, new byte[0], NO_PHEROMONE, new byte[0]);
+    }
+
+    /**
+     * Writes the first message of an island.
+     *
+     * @param outputStream  Stream to the coordinator.
+     * @param islandIndex   Island index.
+     * @param numberOfCells Pheromone cells on every migrant of the island, or NO_PHEROMONE.
+     * @throws IOException On connection errors.
+     */
+    static void writeHello(DataOutputStream outputStream, int islandIndex, int numberOfCells) throws IOException {
+        outputStream.writeByte(HELLO);
+        outputStream.writeInt(islandIndex);
+        outputStream.writeInt(numberOfCells);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the migrants for an island, in a single message.
+     *
+     * @param outputStream Stream to the island.
+     * @param migrants     Migrant messages of the source islands.
+     * @throws IOException On connection errors.
+     */
+    static void writeMigrants(DataOutputStream outputStream, List<MigrationMessage> migrants) throws IOException {
+        outputStream.writeByte(MIGRANTS);
+        outputStream.writeInt(migrants.size());
+        for (MigrationMessage migrant : migrants) {
+            migrant.writeBody(outputStream);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes this message and flushes the stream.
+     *
+     * @param outputStream Stream to write on.
+     * @throws IOException On connection errors.
+     */
+    void write(DataOutputStream outputStream) throws IOException {
+        outputStream.writeByte(type);
+        writeBody(outputStream);
+        outputStream.flush();
+    }
+
+    private void writeBody(DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(islandIndex);
+        outputStream.writeInt(encodedResult.length);
+        outputStream.write(encodedResult);
+        outputStream.writeInt(numberOfCells);
+        outputStream.writeInt(compressedCells.length);
+        outputStream.write(compressedCells);
+    }
+
+    /**
+     * Reads the first message of an island. It only carries the island index and its number of pheromone cells.
+     *
+     * @param inputStream Stream from the island.
+     * @return Hello message.
+     * @throws IOException On connection errors, or if the message is not valid.
+     */
+    static MigrationMessage readHello(DataInputStream inputStream) throws IOException {
+        byte type = inputStream.readByte();
+        if (type != HELLO) {
+            throw new IOException("Expected a hello message from island, but received type " + type);
+        }
+
+        int islandIndex = inputStream.readInt();
+        int numberOfCells = inputStream.readInt();
+        if (numberOfCells != NO_PHEROMONE && (numberOfCells < 0 || numberOfCells > MAXIMUM_CELLS)) {
+            throw new IOException("Invalid number of pheromone cells: " + numberOfCells);
+        }
+        return new MigrationMessage(HELLO, islandIndex, new byte[0], numberOfCells, new byte[0]);
+    }
+
+    /**
+     * Reads a migrant or a finished message from an island. Its solution is decoded, so invalid solutions are
+     * detected here.
+     *
+     * @param inputStream   Stream from the island.
+     * @param islandIndex   Index of the island on the other end of the stream.
+     * @param numberOfCells Pheromone cells on every migrant of the island, or NO_PHEROMONE.
+     * @return Message read.
+     * @throws IOException On connection errors, or if the message is not valid.
+     */
+    static MigrationMessage readFromIsland(DataInputStream inputStream, int islandIndex, int numberOfCells)
+            throws IOException {
+        byte type = inputStream.readByte();
+        if (type != MIGRANT && type != FINISHED) {
+            throw new IOException("Unexpected message type from island: " + type);
+        }
+
+        MigrationMessage message = readBody(type, inputStream, type == MIGRANT ? numberOfCells : NO_PHEROMONE);
+        if (message.getIslandIndex() != islandIndex) {
+            throw new IOException("Island " + islandIndex + " sent a message as island " + message.getIslandIndex());
+        }
+        message.getResult();
+        return message;
+    }
+
+    /**
+     * Reads the migrants sent by the coordinator.
+     *
+     * @param inputStream     Stream from the coordinator.
+     * @param maximumMigrants Maximum number of migrants, like the number of islands.
+     * @param numberOfCells   Pheromone cells on every migrant, or NO_PHEROMONE.
+     * @return Migrant messages of the source islands.
+     * @throws IOException On connection errors, or if the message is not valid.
+     */
+    static List<MigrationMessage> readMigrants(DataInputStream inputStream, int maximumMigrants, int numberOfCells)
+            throws IOException {
+        byte type = inputStream.readByte();
+        if (type != MIGRANTS) {
+            throw new IOException("Unexpected message type from coordinator: " + type);
+        }
+
+        int numberOfMigrants = inputStream.readInt();
+        if (numberOfMigrants < 0 || numberOfMigrants > maximumMigrants) {
+            throw new IOException("Invalid number of migrants: " + numberOfMigrants);
+        }
+
+        List<MigrationMessage> migrants = new ArrayList<>(numberOfMigrants);
+        for (int index = 0; index < numberOfMigrants; index++) {
+            migrants.add(readBody(MIGRANT, inputStream, numberOfCells));
+        }
+        return migrants;
+    }
+
+    private static MigrationMessage readBody(byte type, DataInputStream inputStream, int expectedCells)
+            throws IOException {
+        int islandIndex = inputStream.readInt();
+        byte[] encodedResult = readBytes(inputStream, inputStream.readInt(), MAXIMUM_RESULT_BYTES, "solution");
+
+        int numberOfCells = inputStream.readInt();
+        if (numberOfCells != expectedCells) {
+            throw new IOException("Expected " + expectedCells + " pheromone cells, but received " + numberOfCells);
+        }
+        int maximumCompressedLength = numberOfCells == NO_PHEROMONE ? 0 : getMaximumCompressedLength(numberOfCells);
+        byte[] compressedCells = readBytes(inputStream, inputStream.readInt(), maximumCompressedLength,
+                "pheromone");
+
+        return new MigrationMessage(type, islandIndex, encodedResult, numberOfCells, compressedCells);
+    }
+
+    /**
+     * Reads a byte array after checking its length. The array grows as bytes arrive, instead of being allocated
+     * with the length received.
+     */
+    private static byte[] readBytes(DataInputStream inputStream, int length, int maximumLength, String content)
+            throws IOException {
+        if (length < 0 || length > maximumLength) {
+            throw new IOException("Invalid " + content + " length: " + length + " bytes, the maximum is "
+                    + maximumLength);
+        }
+
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK_BYTES)];
+        int bytesRead = 0;
+        while (bytesRead < length) {
+            if (bytesRead == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            inputStream.readFully(bytes, bytesRead, bytes.length - bytesRead);
+            bytesRead = bytes.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * An upper bound for the compressed size of a number of cells: deflate adds a few bytes per block when the
+     * data can't be compressed.
+     */
+    static int getMaximumCompressedLength(int numberOfCells) {
+        long length = (long) numberOfCells * Double.BYTES;
+        return (int) Math.min(Integer.MAX_VALUE - 8, length + (length >>> 12) + 64);
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    int getIslandIndex() {
+        return islandIndex;
+    }
+
+    /**
+     * Number of pheromone cells of this message. On hello messages, the number of cells on every migrant of the
+     * island.
+     *
+     * @return Number of cells, or NO_PHEROMONE.
+     */
+    int getNumberOfCells() {
+        return numberOfCells;
+    }
+
+    /**
+     * Decodes the solution on this message. It is decoded only once.
+     *
+     * @param <C> Class for components of a solution.
+     * @return Best solution of the island.
+     * @throws IOException If the solution is not valid.
+     */
+    @SuppressWarnings("unchecked")
+    <C> SolverResult<C> getResult() throws IOException {
+        if (result == null) {
+            result = decode(encodedResult);
+        }
+        return (SolverResult<C>) result;
+    }
+
+    /**
+     * Decompresses the pheromone cells on this message.
+     *
+     * @return Pheromone cells, or null if the message has none.
+     * @throws IOException If the cells are not valid.
+     */
+    double[] getPheromoneCells() throws IOException {
+        if (numberOfCells == NO_PHEROMONE) {
+            return null;
+        }
+        return decompress(compressedCells, numberOfCells);
+    }
+
+    /**
+     * Encodes a solution: cost, iteration, solution as a String, layer thickness map and components.
+     *
+     * @param result Solution to encode.
+     * @return Encoded solution.
+     * @throws IOException If the solution can't be written.
+     */
+    static byte[] encode(SolverResult<?> result) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream outputStream = new DataOutputStream(byteStream);
+
+        outputStream.writeDouble(result.getCost());
+        outputStream.writeInt(result.getIteration());
+        writeString(outputStream, result.getSolutionAsString());
+
+        Map<Integer, Integer> layerThicknessMap = result.getLayerThicknessMap();
+        if (layerThicknessMap == null) {
+            outputStream.writeInt(NO_LENGTH);
+        } else {
+            outputStream.writeInt(layerThicknessMap.size());
+            for (Map.Entry<Integer, Integer> entry : layerThicknessMap.entrySet()) {
+                outputStream.writeInt(entry.getKey());
+                outputStream.writeInt(entry.getValue());
+            }
+        }
+
+        Object[] solution = result.getSolution();
+        if (solution == null) {
+            outputStream.writeInt(NO_LENGTH);
+        } else {
+            byte componentType = getComponentType(solution.getClass().getComponentType());
+            outputStream.writeInt(solution.length);
+            outputStream.writeByte(componentType);
+            for (Object component : solution) {
+                outputStream.writeBoolean(component != null);
+                if (component != null) {
+                    writeComponent(outputStream, componentType, component);
+                }
+            }
+        }
+
+        outputStream.flush();
+        return byteStream.toByteArray();
+    }
+
+    private static byte getComponentType(Class<?> componentClass) {
+        if (componentClass == Integer.class) {
+            return INTEGER_COMPONENTS;
+        }
+        if (componentClass == Long.class) {
+            return LONG_COMPONENTS;
+        }
+        if (componentClass == Double.class) {
+            return DOUBLE_COMPONENTS;
+        }
+        if (componentClass == String.class) {
+            return STRING_COMPONENTS;
+        }
+        throw new ConfigurationException("Solution components of class " + componentClass.getName()
+                + " can't be sent to other islands. Use Integer, Long, Double or String components.");
+    }
+
+    private static void writeComponent(DataOutputStream outputStream, byte componentType, Object component)
+            throws IOException {
+        switch (componentType) {
+            case INTEGER_COMPONENTS:
+                outputStream.writeInt((Integer) component);
+                break;
+            case LONG_COMPONENTS:
+                outputStream.writeLong((Long) component);
+                break;
+            case DOUBLE_COMPONENTS:
+                outputStream.writeDouble((Double) component);
+                break;
+            default:
+                writeString(outputStream, (String) component);
+        }
+    }
+
+    private static void writeString(DataOutputStream outputStream, String value) throws IOException {
+        if (value == null) {
+            outputStream.writeInt(NO_LENGTH);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    /**
+     * Decodes a solution written by encode(). Every length is checked against the bytes left.
+     *
+     * @param encodedResult Encoded solution.
+     * @param <C>           Class for components of a solution.
+     * @return Decoded solution.
+     * @throws IOException If the solution is not valid.
+     */
+    @SuppressWarnings("unchecked")
+    static <C> SolverResult<C> decode(byte[] encodedResult) throws IOException {
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(encodedResult));
+
+        double cost = inputStream.readDouble();
+        int iteration = inputStream.readInt();
+        String solutionAsString = readString(inputStream);
+
+        Map<Integer, Integer> layerThicknessMap = null;
+        int mapSize = inputStream.readInt();
+        if (mapSize != NO_LENGTH) {
+            checkLength(inputStream, mapSize, 2 * Integer.BYTES, "layer thickness map");
+            layerThicknessMap = new HashMap<>();
+            for (int entry = 0; entry < mapSize; entry++) {
+                layerThicknessMap.put(inputStream.readInt(), inputStream.readInt());
+            }
+        }
+
+        C[] solution = null;
+        int solutionLength = inputStream.readInt();
+        if (solutionLength != NO_LENGTH) {
+            checkLength(inputStream, solutionLength, 1, "solution");
+            byte componentType = inputStream.readByte();
+            solution = (C[]) Array.newInstance(getComponentClass(componentType), solutionLength);
+            for (int position = 0; position < solutionLength; position++) {
+                if (inputStream.readBoolean()) {
+                    solution[position] = (C) readComponent(inputStream, componentType);
+                }
+            }
+        }
+
+        if (inputStream.available() > 0) {
+            throw new IOException("Unexpected " + inputStream.available() + " bytes after the solution");
+        }
+        return new SolverResult<>(solution, cost, solutionAsString, layerThicknessMap, iteration);
+    }
+
+    private static Class<?> getComponentClass(byte componentType) throws IOException {
+        switch (componentType) {
+            case INTEGER_COMPONENTS:
+                return Integer.class;
+            case LONG_COMPONENTS:
+                return Long.class;
+            case DOUBLE_COMPONENTS:
+                return Double.class;
+            case STRING_COMPONENTS:
+                return String.class;
+            default:
+                throw new IOException("Unknown type of solution components: " + componentType);
+        }
+    }
+
+    private static Object readComponent(DataInputStream inputStream, byte componentType) throws IOException {
+        switch (componentType) {
+            case INTEGER_COMPONENTS:
+                return inputStream.readInt();
+            case LONG_COMPONENTS:
+                return inputStream.readLong();
+            case DOUBLE_COMPONENTS:
+                return inputStream.readDouble();
+            default:
+                return readString(inputStream);
+        }
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException {
+        int length = inputStream.readInt();
+        if (length == NO_LENGTH) {
+            return null;
+        }
+
+        checkLength(inputStream, length, 1, "string");
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkLength(DataInputStream inputStream, int length, int bytesPerElement, String content)
+            throws IOException {
+        if (length < 0 || (long) length * bytesPerElement > inputStream.available()) {
+            throw new IOException("Invalid " + content + " length: " + length);
+        }
+    }
+
+    static byte[] compress(double[] cells) {
+        int numberOfCells = cells.length;
+        if (numberOfCells > MAXIMUM_CELLS) {
+            throw new ConfigurationException("The pheromone store is too large to send: " + numberOfCells
+                    + " cells");
+        }
+
+        byte[] regroupedBytes = new byte[numberOfCells * Double.BYTES];
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            long bits = Double.doubleToRawLongBits(cells[cellIndex]);
+            for (int byteIndex = 0; byteIndex < Double.BYTES; byteIndex++) {
+                regroupedBytes[byteIndex * numberOfCells + cellIndex] = (byte) (bits >>> (56 - 8 * byteIndex));
+            }
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(regroupedBytes);
+            deflater.finish();
+
+            ByteArrayOutputStream compressedStream = new ByteArrayOutputStream(regroupedBytes.length / 4 + 64);
+            byte[] buffer = new byte[1 << 16];
+            while (!deflater.finished()) {
+                compressedStream.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressedStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static double[] decompress(byte[] compressedCells, int numberOfCells) throws IOException {
+        if (numberOfCells < 0 || numberOfCells > MAXIMUM_CELLS) {
+            throw new IOException("Invalid number of pheromone cells: " + numberOfCells);
+        }
+
+        byte[] regroupedBytes = new byte[numberOfCells * Double.BYTES];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedCells);
+            int length = 0;
+            while (length < regroupedBytes.length && !inflater.finished()) {
+                int inflated = inflater.inflate(regroupedBytes, length, regroupedBytes.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != regroupedBytes.length) {
+                throw new IOException("Pheromone cells are truncated: " + length + " of " + regroupedBytes.length
+                        + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Pheromone cells are not valid", e);
+        } finally {
+            inflater.end();
+        }
+
+        double[] cells = new double[numberOfCells];
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            long bits = 0;
+            for (int byteIndex = 0; byteIndex < Double.BYTES; byteIndex++) {
+                bits = (bits << 8) | (regroupedBytes[byteIndex * numberOfCells + cellIndex] & 0xFFL);
+            }
+            cells[cellIndex] = Double.longBitsToDouble(bits);
+        }
+        return cells;
+    }
+}
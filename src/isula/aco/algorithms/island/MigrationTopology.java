@@ -0,0 +1,47 @@
+package isula.aco.algorithms.island;
+
+/**
+ * Which islands each island receives migrants from. Only the islands still running take part in a migration, so
+ * topologies are defined over their positions on the list of participants.
+ */
+public enum MigrationTopology {
+
+    /**
+     * Each island receives from the previous one, so the best solution travels around the ring.
+     */
+    RING {
+        @Override
+        public int[] getSources(int position, int participants) {
+            if (participants < 2) {
+                return new int[0];
+            }
+            return new int[]{(position + participants - 1) % participants};
+        }
+    },
+
+    /**
+     * Each island receives from every other island.
+     */
+    FULLY_CONNECTED {
+        @Override
+        public int[] getSources(int position, int participants) {
+            int[] sources = new int[Math.max(0, participants - 1)];
+            int index = 0;
+            for (int source = 0; source < participants; source++) {
+                if (source != position) {
+                    sources[index++] = source;
+                }
+            }
+            return sources;
+        }
+    };
+
+    /**
+     * Returns the islands a participant receives migrants from.
+     *
+     * @param position     Position of the receiving island on the list of participants.
+     * @param participants Number of participants.
+     * @return Positions of the source islands.
+     */
+    public abstract int[] getSources(int position, int participants);
+}
@@ -0,0 +1,100 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Environment;
+import isula.aco.SolverResult;
+import isula.aco.exception.ConfigurationException;
+import isula.aco.pheromone.PheromoneStore;
+
+import java.util.List;
+
+/**
+ * What an island does with the migrants it receives, wherever they come from: adopting the best solution and
+ * blending pheromone. Pheromone travels as a copy of the cells of the store, so islands need stores with the same
+ * layout.
+ */
+final class PheromoneMigration {
+
+    private PheromoneMigration() {
+    }
+
+    /**
+     * Copies the cells of a pheromone store.
+     *
+     * @param pheromoneStore Pheromone store.
+     * @param buffer         Array to reuse, if it has the right size. It can be null.
+     * @return Cell values.
+     */
+    static double[] copyCells(PheromoneStore pheromoneStore, double[] buffer) {
+        long cellCount = pheromoneStore.getCellCount();
+        if (cellCount > Integer.MAX_VALUE) {
+            throw new ConfigurationException("The pheromone store is too large for migrations: "
+                    + cellCount + " cells");
+        }
+
+        double[] cells = buffer;
+        if (cells == null || cells.length != cellCount) {
+            cells = new double[(int) cellCount];
+        }
+
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            cells[cellIndex] = pheromoneStore.getCell(cellIndex);
+        }
+        return cells;
+    }
+
+    /**
+     * Offers the best of the migrant solutions to an island.
+     *
+     * @param island  Receiving island.
+     * @param results Migrant solutions.
+     * @param <C>     Class for components of a solution.
+     * @return The solution adopted, or null if the island already had a better one.
+     */
+    static <C> SolverResult<C> adoptBestSolution(AcoProblemSolver<C, ?> island, List<SolverResult<C>> results) {
+        SolverResult<C> bestResult = null;
+        for (SolverResult<C> result : results) {
+            if (result.hasSolution() && (bestResult == null || result.getCost() < bestResult.getCost())) {
+                bestResult = result;
+            }
+        }
+
+        if (bestResult != null && island.offerSolution(bestResult)) {
+            return bestResult;
+        }
+        return null;
+    }
+
+    /**
+     * Sets each pheromone value of an island to (1 - weight) times its own value plus weight times the average
+     * value of the sources, and rebuilds its choice-info.
+     *
+     * @param island      Receiving island.
+     * @param ownCells    Pheromone cells of the island, as copied before the migration.
+     * @param sourceCells Pheromone cells of each source island.
+     * @param weight      Blending weight.
+     */
+    static void blend(AcoProblemSolver<?, ? extends Environment> island, double[] ownCells,
+                      List<double[]> sourceCells, double weight) {
+        if (sourceCells.isEmpty()) {
+            return;
+        }
+        for (double[] cells : sourceCells) {
+            if (cells.length != ownCells.length) {
+                throw new ConfigurationException("Islands need pheromone stores with the same layout to blend "
+                        + "pheromone");
+            }
+        }
+
+        double sourceWeight = weight / sourceCells.size();
+        PheromoneStore pheromoneStore = island.getEnvironment().getPheromoneStore();
+        for (int cellIndex = 0; cellIndex < ownCells.length; cellIndex++) {
+            double sourceValues = 0.0;
+            for (double[] cells : sourceCells) {
+                sourceValues += cells[cellIndex];
+            }
+            pheromoneStore.setCell(cellIndex, (1 - weight) * ownCells[cellIndex] + sourceWeight * sourceValues);
+        }
+        island.getEnvironment().updateChoiceInfo(island.getConfigurationProvider());
+    }
+}
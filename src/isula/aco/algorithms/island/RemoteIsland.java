@@ -0,0 +1,171 @@
+package isula.aco.algorithms.island;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.Environment;
+import isula.aco.SolverResult;
+import isula.aco.exception.ConfigurationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs an ordinary solver as an island of an IslandCoordinator, on another process. Every migration interval the
+ * island sends its best solution and its pheromone to the coordinator, waits for the migrants of its source
+ * islands, adopts their best solution and blends their pheromone.
+ * <p>
+ * <p>
+ * If the connection to the coordinator is lost, the island keeps solving on its own.
+ *
+ * @param <C> Class for components of a solution.
+ * @param <E> Class representing the Environment.
+ */
+public class RemoteIsland<C, E extends Environment> {
+
+    private static Logger logger = Logger.getLogger(RemoteIsland.class.getName());
+
+    private final AcoProblemSolver<C, E> island;
+    private final IslandConfigurationProvider configurationProvider;
+    private final int coordinatorPort;
+    private final int islandIndex;
+
+    private DataInputStream inputStream;
+    private DataOutputStream outputStream;
+    private int numberOfCells;
+    private boolean connected = false;
+
+    /**
+     * Creates a remote island.
+     *
+     * @param island                Initialized solver, with its daemon actions and ant policies.
+     * @param configurationProvider Island model configuration: migration interval and blending weight.
+     * @param coordinatorPort       Port of the coordinator, on the loopback interface.
+     * @param islandIndex           Index of this island.
+     */
+    public RemoteIsland(AcoProblemSolver<C, E> island, IslandConfigurationProvider configurationProvider,
+                        int coordinatorPort, int islandIndex) {
+        this.island = island;
+        this.configurationProvider = configurationProvider;
+        this.coordinatorPort = coordinatorPort;
+        this.islandIndex = islandIndex;
+    }
+
+    /**
+     * Connects to the coordinator, solves the problem and reports the best solution found.
+     *
+     * @throws ConfigurationException If algorithm parameters aren't properly configured.
+     * @throws IOException            If the island can't connect to the coordinator.
+     */
+    public void solveProblem() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort)) {
+            socket.setTcpNoDelay(true);
+            inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            numberOfCells = getNumberOfCells();
+            MigrationMessage.writeHello(outputStream, islandIndex, numberOfCells);
+            connected = true;
+
+            island.addDaemonActions(new RemoteMigration());
+            try {
+                island.solveProblem();
+            } catch (javax.naming.ConfigurationException e) {
+                ConfigurationException configurationException = new ConfigurationException(e.getMessage());
+                configurationException.initCause(e);
+                throw configurationException;
+            }
+
+            if (connected) {
+                MigrationMessage.createFinished(islandIndex, island.getResult()).write(outputStream);
+            }
+        } finally {
+            connected = false;
+        }
+    }
+
+    /**
+     * Pheromone cells on every migrant of this island. They are only sent when pheromone is blended.
+     */
+    private int getNumberOfCells() {
+        if (configurationProvider.getPheromoneBlendingWeight() <= 0) {
+            return MigrationMessage.NO_PHEROMONE;
+        }
+
+        long numberOfCells = island.getEnvironment().getPheromoneStore().getCellCount();
+        if (numberOfCells > MigrationMessage.MAXIMUM_CELLS) {
+            throw new ConfigurationException("The pheromone store is too large to send: " + numberOfCells
+                    + " cells");
+        }
+        return (int) numberOfCells;
+    }
+
+    private void migrate(double[] pheromoneCells) throws IOException {
+        MigrationMessage.createMigrant(islandIndex, island.getResult(), pheromoneCells).write(outputStream);
+
+        List<SolverResult<C>> sourceResults = new ArrayList<>();
+        List<double[]> sourceCells = new ArrayList<>();
+        for (MigrationMessage migrant : MigrationMessage.readMigrants(inputStream,
+                configurationProvider.getNumberOfIslands(), numberOfCells)) {
+            sourceResults.add(migrant.<C>getResult());
+            double[] cells = migrant.getPheromoneCells();
+            if (cells != null) {
+                sourceCells.add(cells);
+            }
+        }
+
+        SolverResult<C> adoptedResult = PheromoneMigration.adoptBestSolution(island, sourceResults);
+        if (adoptedResult != null) {
+            logger.fine("Island " + islandIndex + " adopted a migrant solution. Cost: " + adoptedResult.getCost());
+        }
+        if (pheromoneCells != null) {
+            PheromoneMigration.blend(island, pheromoneCells, sourceCells,
+                    configurationProvider.getPheromoneBlendingWeight());
+        }
+    }
+
+    public AcoProblemSolver<C, E> getIsland() {
+        return island;
+    }
+
+    /**
+     * Migrates at the end of every migration interval, except on the last iteration.
+     */
+    private final class RemoteMigration extends DaemonAction<C, E> {
+
+        private double[] pheromoneCells;
+
+        private RemoteMigration() {
+            super(DaemonActionType.END_OF_ITERATION);
+        }
+
+        @Override
+        public void applyDaemonAction(ConfigurationProvider provider) {
+            int iterations = island.getCurrentIteration() + 1;
+            if (!connected || iterations % configurationProvider.getMigrationInterval() != 0
+                    || iterations >= provider.getNumberOfIterations() || island.isStopRequested()) {
+                return;
+            }
+
+            if (configurationProvider.getPheromoneBlendingWeight() > 0) {
+                pheromoneCells = PheromoneMigration.copyCells(getEnvironment().getPheromoneStore(), pheromoneCells);
+            }
+
+            try {
+                migrate(configurationProvider.getPheromoneBlendingWeight() > 0 ? pheromoneCells : null);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Island " + islandIndex + " lost the coordinator. Solving alone.", e);
+                connected = false;
+            }
+        }
+    }
+}
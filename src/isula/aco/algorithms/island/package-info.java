@@ -0,0 +1,5 @@
+/**
+ * The island model: several independent colonies, each with its own pheromone matrix, that periodically exchange
+ * their best solutions and blend their pheromone.
+ */
+package isula.aco.algorithms.island;
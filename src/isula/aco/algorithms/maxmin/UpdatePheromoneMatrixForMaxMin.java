@@ -6,6 +6,7 @@ import isula.aco.DaemonAction;
 import isula.aco.DaemonActionType;
 import isula.aco.Environment;
 import isula.aco.exception.ConfigurationException;
+import isula.aco.pheromone.PheromoneStore;
 
 import java.util.Arrays;
 import java.util.logging.Level;
@@ -17,6 +18,11 @@ import java.util.logging.Logger;
  * to the best performing ant.
  * <p>
  * <p>
+ * Evaporation is a single pass over the pheromone store, that also clamps and
+ * validates every value. Big matrices are swept in parallel. The deposit is then
+ * a second pass, only over the best solution.
+ * <p>
+ * <p>
  * It is not executed online, but at the end of the iteration.
  *
  * @param <C> Class for components of a solution.
@@ -47,23 +53,14 @@ public abstract class UpdatePheromoneMatrixForMaxMin<C, E extends Environment>
         logger.log(Level.FINE,
                 "Evaporation ratio: " + configurationProvider.getEvaporationRatio());
 
-        double[][] pheromoneMatrix = getEnvironment().getPheromoneMatrix();
-        int matrixRows = pheromoneMatrix.length;
-        int matrixColumns = pheromoneMatrix[0].length;
-
-        for (int i = 0; i < matrixRows; i++) {
-            for (int j = 0; j < matrixColumns; j++) {
-                double newValue = pheromoneMatrix[i][j]
-                        * configurationProvider.getEvaporationRatio();
+        double minimumPheromoneValue = getMinimumPheromoneValue(configurationProvider);
+        double maximumPheromoneValue = getMaximumPheromoneValue(configurationProvider);
 
-                if (newValue >= getMinimumPheromoneValue(configurationProvider)) {
-                    pheromoneMatrix[i][j] = newValue;
-                } else {
-                    pheromoneMatrix[i][j] = getMinimumPheromoneValue(configurationProvider);
-                }
-
-                validatePheromoneValue(pheromoneMatrix[i][j]);
-            }
+        // Evaporation, clamping and validation on a single pass over the matrix.
+        PheromoneStore pheromoneStore = getEnvironment().getPheromoneStore();
+        if (!pheromoneStore.multiplyAndClamp(configurationProvider.getEvaporationRatio(), minimumPheromoneValue,
+                maximumPheromoneValue)) {
+            throw new ConfigurationException("Some pheromone values calculated on evaporation are not valid numbers.");
         }
 
         logger.log(Level.FINE, "Depositing pheromone on Best Ant trail.");
@@ -77,22 +74,21 @@ public abstract class UpdatePheromoneMatrixForMaxMin<C, E extends Environment>
 
         for (int componentIndex = 0; componentIndex < bestSolution.length; componentIndex += 1) {
             C solutionComponent = bestSolution[componentIndex];
-            // TODO(cgavidia): This makes me think a solution type is necessary...
-            double newValue = getNewPheromoneValue(bestAnt, componentIndex,
-                    solutionComponent, configurationProvider);
-
-            if (newValue <= getMaximumPheromoneValue(configurationProvider)) {
-                bestAnt.setPheromoneTrailValue(solutionComponent, componentIndex, getEnvironment(),
-                        newValue);
-            } else {
-                bestAnt.setPheromoneTrailValue(solutionComponent, componentIndex, getEnvironment(),
-                        getMaximumPheromoneValue(configurationProvider));
+            if (solutionComponent == null) {
+                break;
             }
 
-            validatePheromoneValue(bestAnt.getPheromoneTrailValue(solutionComponent, componentIndex, getEnvironment()));
+            // TODO(cgavidia): This makes me think a solution type is necessary...
+            double newValue = Math.min(getNewPheromoneValue(bestAnt, componentIndex,
+                    solutionComponent, configurationProvider), maximumPheromoneValue);
+
+            validatePheromoneValue(newValue);
+            bestAnt.setPheromoneTrailValue(solutionComponent, componentIndex, getEnvironment(), newValue);
         }
 
-        logger.log(Level.FINE, "After pheromone update: " + Arrays.deepToString(getEnvironment().getPheromoneMatrix()));
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "After pheromone update: " + Arrays.deepToString(getEnvironment().getPheromoneMatrix()));
+        }
 
     }
 
@@ -0,0 +1,61 @@
+package isula.aco.algorithms.stagnation;
+
+import isula.aco.ConfigurationProvider;
+
+/**
+ * Configuration parameters of stagnation detection. A limit of zero or lower disables its check, and the search is
+ * stagnated when any enabled check is met.
+ */
+public interface StagnationConfigurationProvider extends ConfigurationProvider {
+
+    /**
+     * Iterations without improving the best solution before the search is stagnated.
+     *
+     * @return Maximum iterations without improvement.
+     */
+    int getMaximumIterationsWithoutImprovement();
+
+    /**
+     * The search is stagnated when the average lambda-branching factor of the pheromone store falls to this value.
+     *
+     * @return Minimum branching factor.
+     */
+    double getMinimumBranchingFactor();
+
+    /**
+     * The search is stagnated when the average normalised entropy of the pheromone store falls to this value.
+     *
+     * @return Minimum entropy, between 0 and 1.
+     */
+    double getMinimumPheromoneEntropy();
+
+    /**
+     * Times the pheromone trails are restarted on stagnation. Once they are exhausted, the next stagnation stops
+     * the search. By default the search stops on the first stagnation.
+     *
+     * @return Maximum number of restarts.
+     */
+    default int getMaximumRestarts() {
+        return 0;
+    }
+
+    /**
+     * Lambda of the branching factor: the fraction of the pheromone range, over the row minimum, a cell needs to
+     * count as a branch.
+     *
+     * @return Lambda, between 0 and 1.
+     */
+    default double getBranchingFactorLambda() {
+        return 0.05;
+    }
+
+    /**
+     * Iterations between pheromone measures, as each one is a sweep over the pheromone store. Iterations without
+     * improvement are checked on every iteration.
+     *
+     * @return Check interval.
+     */
+    default int getStagnationCheckInterval() {
+        return 1;
+    }
+}
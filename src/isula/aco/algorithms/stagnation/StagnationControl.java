@@ -0,0 +1,143 @@
+package isula.aco.algorithms.stagnation;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.Environment;
+import isula.aco.pheromone.PheromoneStatistics;
+import isula.aco.pheromone.PheromoneStore;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detects stagnation at the end of every iteration. The search is stagnated after too many iterations without
+ * improving the best solution, or when the pheromone has converged -measured through the lambda-branching factor
+ * and the pheromone entropy.
+ * <p>
+ * <p>
+ * On stagnation, pheromone trails are restarted while there are restarts left. After that, the solver is asked to
+ * stop. Limits are taken from a StagnationConfigurationProvider.
+ *
+ * @param <C> Class for components of a solution.
+ * @param <E> Class representing the Environment.
+ */
+public class StagnationControl<C, E extends Environment> extends DaemonAction<C, E> {
+
+    private static Logger logger = Logger.getLogger(StagnationControl.class.getName());
+
+    private int restarts = 0;
+    private int lastRestartIteration = 0;
+    private double branchingFactor = Double.NaN;
+    private double pheromoneEntropy = Double.NaN;
+
+    public StagnationControl() {
+        super(DaemonActionType.END_OF_ITERATION);
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider provider) {
+        StagnationConfigurationProvider configurationProvider = (StagnationConfigurationProvider) provider;
+        AcoProblemSolver<C, E> problemSolver = getProblemSolver();
+
+        if (problemSolver.getCurrentIteration() == 0) {
+            restarts = 0;
+            lastRestartIteration = 0;
+        }
+
+        if (!isStagnated(configurationProvider)) {
+            return;
+        }
+
+        if (restarts < configurationProvider.getMaximumRestarts()) {
+            restarts++;
+            lastRestartIteration = problemSolver.getCurrentIteration();
+            logger.info("Stagnation at iteration " + lastRestartIteration + ". Restarting pheromone trails: restart "
+                    + restarts + " of " + configurationProvider.getMaximumRestarts());
+
+            restartPheromoneTrails(configurationProvider);
+        } else {
+            logger.info("Stagnation at iteration " + problemSolver.getCurrentIteration() + ". Stopping the search.");
+            problemSolver.requestStop();
+        }
+    }
+
+    /**
+     * Checks every enabled stagnation condition. Pheromone measures are only taken every
+     * getStagnationCheckInterval() iterations.
+     *
+     * @param configurationProvider Stagnation configuration.
+     * @return True if the search is stagnated.
+     */
+    protected boolean isStagnated(StagnationConfigurationProvider configurationProvider) {
+        AcoProblemSolver<C, E> problemSolver = getProblemSolver();
+        int currentIteration = problemSolver.getCurrentIteration();
+
+        // Improvements made before a restart don't count: the search starts over.
+        int iterationsWithoutImprovement = Math.min(problemSolver.getIterationsWithoutImprovement(),
+                currentIteration - lastRestartIteration);
+        int maximumIterationsWithoutImprovement = configurationProvider.getMaximumIterationsWithoutImprovement();
+        if (maximumIterationsWithoutImprovement > 0
+                && iterationsWithoutImprovement >= maximumIterationsWithoutImprovement) {
+            logger.fine("No improvement in " + iterationsWithoutImprovement + " iterations");
+            return true;
+        }
+
+        boolean measureBranchingFactor = configurationProvider.getMinimumBranchingFactor() > 0;
+        boolean measureEntropy = configurationProvider.getMinimumPheromoneEntropy() > 0;
+        int checkInterval = Math.max(1, configurationProvider.getStagnationCheckInterval());
+        if (!(measureBranchingFactor || measureEntropy) || (currentIteration + 1) % checkInterval != 0) {
+            return false;
+        }
+
+        PheromoneStore pheromoneStore = getEnvironment().getPheromoneStore();
+        if (measureBranchingFactor) {
+            branchingFactor = PheromoneStatistics.getBranchingFactor(pheromoneStore,
+                    configurationProvider.getBranchingFactorLambda());
+        }
+        if (measureEntropy) {
+            pheromoneEntropy = PheromoneStatistics.getEntropy(pheromoneStore);
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Branching factor: " + branchingFactor + ", pheromone entropy: " + pheromoneEntropy);
+        }
+
+        return (measureBranchingFactor && branchingFactor <= configurationProvider.getMinimumBranchingFactor())
+                || (measureEntropy && pheromoneEntropy <= configurationProvider.getMinimumPheromoneEntropy());
+    }
+
+    /**
+     * Resets every pheromone trail to the initial pheromone value. Override it for other restart schemes, like
+     * resetting to the maximum value on Max-Min Ant System.
+     *
+     * @param configurationProvider Algorithm configuration.
+     */
+    protected void restartPheromoneTrails(ConfigurationProvider configurationProvider) {
+        getEnvironment().populatePheromoneMatrix(configurationProvider.getInitialPheromoneValue());
+        getEnvironment().updateChoiceInfo(configurationProvider);
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * The last branching factor measured.
+     *
+     * @return Branching factor, or NaN if it hasn't been measured.
+     */
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    /**
+     * The last pheromone entropy measured.
+     *
+     * @return Pheromone entropy, or NaN if it hasn't been measured.
+     */
+    public double getPheromoneEntropy() {
+        return pheromoneEntropy;
+    }
+}
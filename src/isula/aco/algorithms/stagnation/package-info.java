@@ -0,0 +1,4 @@
+/**
+ * Detection of stagnation, to stop the search early or to restart the pheromone trails.
+ */
+package isula.aco.algorithms.stagnation;
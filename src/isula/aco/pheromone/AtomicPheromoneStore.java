@@ -0,0 +1,164 @@
+package isula.aco.pheromone;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A pheromone store that supports concurrent updates. Values are kept as the bits of doubles on an
+ * AtomicLongArray, and update() is a compare-and-set loop: when ants deposit pheromone while others are still
+ * building their solutions -like on the local update of Ant Colony System- no update is lost.
+ * <p>
+ * <p>
+ * The layout can be dense -row-major- or symmetric -upper triangle only, diagonal included-. Bulk operations like
+ * fill() or multiply() are not atomic: they are meant to run between iterations.
+ */
+public class AtomicPheromoneStore extends PheromoneStore {
+
+    private final AtomicLongArray values;
+    private final boolean symmetric;
+
+    // For symmetric layouts, the position of the diagonal cell of each row.
+    private final int[] rowOffsets;
+
+    /**
+     * Creates a store with all its cells set to 0.
+     *
+     * @param rows      Number of rows.
+     * @param columns   Number of columns.
+     * @param symmetric If true, only the upper triangle is stored. Rows and columns must be equal.
+     */
+    public AtomicPheromoneStore(int rows, int columns, boolean symmetric) {
+        super(rows, columns);
+        this.symmetric = symmetric;
+
+        long cellCount = (long) rows * columns;
+        if (symmetric) {
+            if (rows != columns) {
+                throw new ConfigurationException("A symmetric pheromone matrix needs to be square. Rows: " + rows
+                        + " Columns: " + columns);
+            }
+            cellCount = (long) rows * (rows + 1) / 2;
+        }
+
+        if (cellCount > Integer.MAX_VALUE - 8) {
+            throw new ConfigurationException("A pheromone matrix of " + cellCount
+                    + " cells doesn't fit on a single array. Consider using another PheromoneStore.");
+        }
+
+        this.values = new AtomicLongArray((int) cellCount);
+        this.rowOffsets = symmetric ? new int[rows] : null;
+        if (symmetric) {
+            for (int row = 0, offset = 0; row < rows; row++) {
+                rowOffsets[row] = offset;
+                offset += rows - row;
+            }
+        }
+    }
+
+    /**
+     * Creates a store with a copy of the values of another one, with the same layout.
+     *
+     * @param pheromoneStore Pheromone store to copy.
+     */
+    public AtomicPheromoneStore(PheromoneStore pheromoneStore) {
+        this(pheromoneStore.getRows(), pheromoneStore.getColumns(), pheromoneStore.isSymmetric());
+
+        for (int i = 0; i < getRows(); i++) {
+            for (int j = symmetric ? i : 0; j < getColumns(); j++) {
+                set(i, j, pheromoneStore.get(i, j));
+            }
+        }
+    }
+
+    /**
+     * Position of a matrix cell on the values array.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index.
+     */
+    public int getIndex(int row, int column) {
+        if (!symmetric) {
+            return row * getColumns() + column;
+        }
+
+        if (row > column) {
+            return rowOffsets[column] + row - column;
+        }
+        return rowOffsets[row] + column - row;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return Double.longBitsToDouble(values.get(getIndex(row, column)));
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        values.set(getIndex(row, column), Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        update(row, column, value -> value + amount);
+    }
+
+    /**
+     * Updates a cell atomically. The update function can be called more than once, if other threads update the
+     * same cell concurrently: it should have no side effects.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @param update Function from the current pheromone value to the new one.
+     * @return New pheromone value.
+     */
+    @Override
+    public double update(int row, int column, DoubleUnaryOperator update) {
+        int index = getIndex(row, column);
+
+        while (true) {
+            long currentBits = values.get(index);
+            double newValue = update.applyAsDouble(Double.longBitsToDouble(currentBits));
+            if (values.compareAndSet(index, currentBits, Double.doubleToRawLongBits(newValue))) {
+                return newValue;
+            }
+        }
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return getIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return values.length();
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return Double.longBitsToDouble(values.get((int) cellIndex));
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        values.set((int) cellIndex, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new AtomicPheromoneStore(getRows(), getColumns(), symmetric);
+    }
+
+    @Override
+    public PheromoneStore toConcurrent() {
+        return this;
+    }
+}
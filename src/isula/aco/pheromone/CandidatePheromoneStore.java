@@ -0,0 +1,213 @@
+package isula.aco.pheromone;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.util.Arrays;
+
+/**
+ * A sparse pheromone store that only keeps the edges on candidate lists: each row has a fixed number of slots,
+ * one per candidate column. Every other position shares a single default value. Memory and evaporation are then
+ * proportional to the number of candidate edges instead of the size of the matrix.
+ * <p>
+ * <p>
+ * The default value is the last cell of the store, so sweeps over all cells -like evaporation- update it as well.
+ * Updates on positions without a cell are dropped. On symmetric stores, a position is kept if any of its two
+ * orientations is a candidate edge, and updates are written on both when present.
+ * <p>
+ * <p>
+ * Values are kept on a double array, or on a float array once toSinglePrecision() is called.
+ */
+public class CandidatePheromoneStore extends PheromoneStore {
+
+    private final int candidatesPerRow;
+    private final int[] candidates;
+    private final boolean symmetric;
+
+    // Only one of them is used, depending on the precision of the store.
+    private final double[] values;
+    private final float[] floatValues;
+    private final int defaultValueIndex;
+
+    /**
+     * Creates a store with all its cells set to 0.
+     *
+     * @param size             Number of rows and columns.
+     * @param candidatesPerRow Number of candidate columns per row.
+     * @param candidates       Candidate columns, candidatesPerRow per row in row-major order. The array is not
+     *                         copied.
+     * @param symmetric        If true, (row, column) and (column, row) are the same position.
+     */
+    public CandidatePheromoneStore(int size, int candidatesPerRow, int[] candidates, boolean symmetric) {
+        this(size, candidatesPerRow, candidates, symmetric, false);
+    }
+
+    private CandidatePheromoneStore(int size, int candidatesPerRow, int[] candidates, boolean symmetric,
+                                    boolean singlePrecision) {
+        super(size, size);
+
+        if (candidates.length != size * candidatesPerRow) {
+            throw new ConfigurationException("Expected " + candidatesPerRow + " candidates for each of the " + size
+                    + " rows, but received " + candidates.length);
+        }
+
+        this.candidatesPerRow = candidatesPerRow;
+        this.candidates = candidates;
+        this.symmetric = symmetric;
+        this.defaultValueIndex = candidates.length;
+        this.values = singlePrecision ? null : new double[candidates.length + 1];
+        this.floatValues = singlePrecision ? new float[candidates.length + 1] : null;
+    }
+
+    private int findCell(int row, int column) {
+        int rowOffset = row * candidatesPerRow;
+        for (int position = 0; position < candidatesPerRow; position++) {
+            if (candidates[rowOffset + position] == column) {
+                return rowOffset + position;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        int cellIndex = findCell(row, column);
+        if (cellIndex < 0 && symmetric) {
+            cellIndex = findCell(column, row);
+        }
+        return cellIndex;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        long cellIndex = getCellIndex(row, column);
+        if (cellIndex < 0) {
+            return getCell(defaultValueIndex);
+        }
+        return getCell(cellIndex);
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        int cellIndex = findCell(row, column);
+        if (cellIndex >= 0) {
+            setCell(cellIndex, value);
+        }
+
+        if (symmetric) {
+            int reverseCellIndex = findCell(column, row);
+            if (reverseCellIndex >= 0) {
+                setCell(reverseCellIndex, value);
+            }
+        }
+    }
+
+    @Override
+    public long getCellCount() {
+        return defaultValueIndex + 1;
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        if (floatValues != null) {
+            return floatValues[(int) cellIndex];
+        }
+        return values[(int) cellIndex];
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        if (floatValues != null) {
+            floatValues[(int) cellIndex] = FloatPheromoneStore.toFloat(value);
+        } else {
+            values[(int) cellIndex] = value;
+        }
+    }
+
+    /**
+     * Visits the candidate edges. The default value is not visited.
+     *
+     * @param cellConsumer Operation to perform on each position.
+     */
+    @Override
+    public void forEachCell(CellConsumer cellConsumer) {
+        for (int cellIndex = 0; cellIndex < candidates.length; cellIndex++) {
+            cellConsumer.accept(cellIndex, cellIndex / candidatesPerRow, candidates[cellIndex]);
+        }
+    }
+
+    /**
+     * Visits the candidate edges of each row. A row is made only of its candidates: the default value is shared by
+     * positions ants only reach once every candidate was visited, so it is not part of any row.
+     *
+     * @param cellConsumer Operation to perform on each cell and row.
+     */
+    @Override
+    public void forEachRowCell(CellConsumer cellConsumer) {
+        forEachCell(cellConsumer);
+    }
+
+    @Override
+    public void fill(double value) {
+        if (floatValues != null) {
+            Arrays.fill(floatValues, FloatPheromoneStore.toFloat(value));
+        } else {
+            Arrays.fill(values, value);
+        }
+    }
+
+    @Override
+    public void multiply(double factor) {
+        if (floatValues != null) {
+            PheromoneSweeps.multiply(floatValues, (float) factor);
+        } else {
+            PheromoneSweeps.multiply(values, factor);
+        }
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        if (floatValues != null) {
+            return PheromoneSweeps.multiplyAndClamp(floatValues, factor, minimum, maximum);
+        }
+        return PheromoneSweeps.multiplyAndClamp(values, factor, minimum, maximum);
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new CandidatePheromoneStore(getRows(), candidatesPerRow, candidates, symmetric, floatValues != null);
+    }
+
+    /**
+     * Returns a copy of this store backed by a float array, sharing its candidate lists. If this store already has
+     * single precision, it is returned as is.
+     *
+     * @return Single precision store.
+     */
+    @Override
+    public PheromoneStore toSinglePrecision() {
+        if (floatValues != null) {
+            return this;
+        }
+
+        CandidatePheromoneStore singlePrecisionStore = new CandidatePheromoneStore(getRows(), candidatesPerRow,
+                candidates, symmetric, true);
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            singlePrecisionStore.setCell(cellIndex, values[cellIndex]);
+        }
+        return singlePrecisionStore;
+    }
+
+    /**
+     * Value of all the positions without a cell.
+     *
+     * @return Default pheromone value.
+     */
+    public double getDefaultValue() {
+        return getCell(defaultValueIndex);
+    }
+}
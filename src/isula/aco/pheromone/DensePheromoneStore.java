@@ -0,0 +1,121 @@
+package isula.aco.pheromone;
+
+import java.util.Arrays;
+
+/**
+ * The default pheromone store: the whole matrix on a single double array, in row-major order.
+ */
+public class DensePheromoneStore extends PheromoneStore {
+
+    private final double[] values;
+
+    /**
+     * Creates a store with all its cells set to 0.
+     *
+     * @param rows    Number of rows.
+     * @param columns Number of columns.
+     */
+    public DensePheromoneStore(int rows, int columns) {
+        super(rows, columns);
+        this.values = new double[Math.multiplyExact(rows, columns)];
+    }
+
+    /**
+     * Creates a store with a copy of the values of a matrix.
+     *
+     * @param pheromoneMatrix Pheromone matrix. All rows must have the same length.
+     */
+    public DensePheromoneStore(double[][] pheromoneMatrix) {
+        this(pheromoneMatrix.length, pheromoneMatrix.length == 0 ? 0 : pheromoneMatrix[0].length);
+
+        int columns = getColumns();
+        for (int i = 0; i < pheromoneMatrix.length; i++) {
+            System.arraycopy(pheromoneMatrix[i], 0, values, i * columns, columns);
+        }
+    }
+
+    /**
+     * Position of a matrix cell on the values array.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index.
+     */
+    public int getIndex(int row, int column) {
+        return row * getColumns() + column;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return values[getIndex(row, column)];
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        values[getIndex(row, column)] = value;
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        values[getIndex(row, column)] += amount;
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return getIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return values.length;
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return values[(int) cellIndex];
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        values[(int) cellIndex] = value;
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(values, value);
+    }
+
+    @Override
+    public void multiply(double factor) {
+        PheromoneSweeps.multiply(values, factor);
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        return PheromoneSweeps.multiplyAndClamp(values, factor, minimum, maximum);
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new DensePheromoneStore(getRows(), getColumns());
+    }
+
+    /**
+     * Returns a copy of this store on an AtomicPheromoneStore, that updates cells with compare-and-set.
+     *
+     * @return Concurrent pheromone store.
+     */
+    @Override
+    public PheromoneStore toConcurrent() {
+        return new AtomicPheromoneStore(this);
+    }
+
+    /**
+     * The values array backing this store, for linear sweeps. Changes on the array are changes on the store.
+     *
+     * @return Pheromone values, in row-major order.
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
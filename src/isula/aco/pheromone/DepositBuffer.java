@@ -0,0 +1,167 @@
+package isula.aco.pheromone;
+
+import java.util.Arrays;
+
+/**
+ * A sparse buffer of pheromone deposits, that a single thread fills while ants deposit pheromone. Amounts for the
+ * same matrix position are added up on the buffer, and applied later to the pheromone store with a single write
+ * per position.
+ * <p>
+ * <p>
+ * Positions are split on a fixed number of partitions. Buffers with the same number of partitions send each
+ * position to the same partition, so several threads can apply them in parallel -one partition each- without
+ * writing on the same cell.
+ */
+public class DepositBuffer {
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final boolean symmetric;
+    private final long[][] positions;
+    private final double[][] amounts;
+    private final int[] sizes;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param numberOfPartitions Number of partitions.
+     * @param symmetric          If true, (row, column) and (column, row) are the same position.
+     */
+    public DepositBuffer(int numberOfPartitions, boolean symmetric) {
+        this.symmetric = symmetric;
+        this.positions = new long[numberOfPartitions][];
+        this.amounts = new double[numberOfPartitions][];
+        this.sizes = new int[numberOfPartitions];
+
+        for (int partition = 0; partition < numberOfPartitions; partition++) {
+            positions[partition] = newPositions(INITIAL_CAPACITY);
+            amounts[partition] = new double[INITIAL_CAPACITY];
+        }
+    }
+
+    private static long[] newPositions(int capacity) {
+        long[] newPositions = new long[capacity];
+        Arrays.fill(newPositions, EMPTY);
+        return newPositions;
+    }
+
+    private static int getPartition(long position, int numberOfPartitions) {
+        long hash = position * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (hash ^ (hash >>> 32)), numberOfPartitions);
+    }
+
+    private static int getSlot(long position, int mask) {
+        long hash = position * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    /**
+     * Adds an amount of pheromone for a matrix position.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @param amount Pheromone to add.
+     */
+    public void add(int row, int column, double amount) {
+        if (symmetric && row > column) {
+            int swap = row;
+            row = column;
+            column = swap;
+        }
+
+        long position = ((long) row << 32) | column;
+        int partition = getPartition(position, positions.length);
+
+        if (2 * (sizes[partition] + 1) > positions[partition].length) {
+            grow(partition);
+        }
+
+        long[] partitionPositions = positions[partition];
+        int mask = partitionPositions.length - 1;
+        int slot = getSlot(position, mask);
+        while (partitionPositions[slot] != EMPTY && partitionPositions[slot] != position) {
+            slot = (slot + 1) & mask;
+        }
+
+        if (partitionPositions[slot] == EMPTY) {
+            partitionPositions[slot] = position;
+            amounts[partition][slot] = amount;
+            sizes[partition]++;
+        } else {
+            amounts[partition][slot] += amount;
+        }
+    }
+
+    private void grow(int partition) {
+        long[] oldPositions = positions[partition];
+        double[] oldAmounts = amounts[partition];
+
+        long[] newPositions = newPositions(oldPositions.length * 2);
+        double[] newAmounts = new double[oldPositions.length * 2];
+        int mask = newPositions.length - 1;
+
+        for (int i = 0; i < oldPositions.length; i++) {
+            if (oldPositions[i] != EMPTY) {
+                int slot = getSlot(oldPositions[i], mask);
+                while (newPositions[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                newPositions[slot] = oldPositions[i];
+                newAmounts[slot] = oldAmounts[i];
+            }
+        }
+
+        positions[partition] = newPositions;
+        amounts[partition] = newAmounts;
+    }
+
+    /**
+     * Adds the amounts of a partition to a pheromone store.
+     *
+     * @param partition      Partition to apply.
+     * @param pheromoneStore Pheromone store to update.
+     */
+    public void apply(int partition, PheromoneStore pheromoneStore) {
+        long[] partitionPositions = positions[partition];
+        double[] partitionAmounts = amounts[partition];
+
+        for (int slot = 0; slot < partitionPositions.length; slot++) {
+            long position = partitionPositions[slot];
+            if (position != EMPTY) {
+                pheromoneStore.add((int) (position >>> 32), (int) position, partitionAmounts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes all deposits. Capacity is kept.
+     */
+    public void clear() {
+        for (int partition = 0; partition < positions.length; partition++) {
+            Arrays.fill(positions[partition], EMPTY);
+            sizes[partition] = 0;
+        }
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    public int getNumberOfPartitions() {
+        return positions.length;
+    }
+
+    /**
+     * Number of positions with deposits.
+     *
+     * @return Number of positions.
+     */
+    public int getSize() {
+        int size = 0;
+        for (int partitionSize : sizes) {
+            size += partitionSize;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,186 @@
+package isula.aco.pheromone;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.util.Arrays;
+
+/**
+ * A pheromone store that keeps its values with single precision, on a single float array. It halves the memory
+ * of the pheromone matrix and the traffic of evaporation sweeps, at the cost of precision.
+ * <p>
+ * <p>
+ * The layout can be dense -row-major, like DensePheromoneStore- or symmetric -upper triangle only, like
+ * SymmetricPheromoneStore-. Values beyond the float range are stored as the largest float, so very large
+ * choice-info values don't become infinite.
+ */
+public class FloatPheromoneStore extends PheromoneStore {
+
+    private final float[] values;
+    private final boolean symmetric;
+
+    // For symmetric layouts, the position of the diagonal cell of each row.
+    private final int[] rowOffsets;
+
+    /**
+     * Creates a dense store with all its cells set to 0.
+     *
+     * @param rows    Number of rows.
+     * @param columns Number of columns.
+     */
+    public FloatPheromoneStore(int rows, int columns) {
+        this(rows, columns, false);
+    }
+
+    /**
+     * Creates a store with all its cells set to 0.
+     *
+     * @param rows      Number of rows.
+     * @param columns   Number of columns.
+     * @param symmetric If true, only the upper triangle is stored. Rows and columns must be equal.
+     */
+    public FloatPheromoneStore(int rows, int columns, boolean symmetric) {
+        super(rows, columns);
+        this.symmetric = symmetric;
+
+        long cellCount = (long) rows * columns;
+        if (symmetric) {
+            if (rows != columns) {
+                throw new ConfigurationException("A symmetric pheromone matrix needs to be square. Rows: " + rows
+                        + " Columns: " + columns);
+            }
+            cellCount = (long) rows * (rows + 1) / 2;
+        }
+
+        if (cellCount > Integer.MAX_VALUE - 8) {
+            throw new ConfigurationException("A pheromone matrix of " + cellCount
+                    + " cells doesn't fit on a single array. Consider using another PheromoneStore.");
+        }
+
+        this.values = new float[(int) cellCount];
+        this.rowOffsets = symmetric ? new int[rows] : null;
+        if (symmetric) {
+            for (int row = 0, offset = 0; row < rows; row++) {
+                rowOffsets[row] = offset;
+                offset += rows - row;
+            }
+        }
+    }
+
+    /**
+     * Creates a store with a copy of the values of another one, with the same layout.
+     *
+     * @param pheromoneStore Pheromone store to copy.
+     */
+    public FloatPheromoneStore(PheromoneStore pheromoneStore) {
+        this(pheromoneStore.getRows(), pheromoneStore.getColumns(), pheromoneStore.isSymmetric());
+
+        for (int i = 0; i < getRows(); i++) {
+            for (int j = symmetric ? i : 0; j < getColumns(); j++) {
+                set(i, j, pheromoneStore.get(i, j));
+            }
+        }
+    }
+
+    /**
+     * Position of a matrix cell on the values array.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index.
+     */
+    public int getIndex(int row, int column) {
+        if (!symmetric) {
+            return row * getColumns() + column;
+        }
+
+        if (row > column) {
+            return rowOffsets[column] + row - column;
+        }
+        return rowOffsets[row] + column - row;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return values[getIndex(row, column)];
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        values[getIndex(row, column)] = toFloat(value);
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        int index = getIndex(row, column);
+        values[index] = toFloat(values[index] + amount);
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return getIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return values.length;
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return values[(int) cellIndex];
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        values[(int) cellIndex] = toFloat(value);
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(values, toFloat(value));
+    }
+
+    @Override
+    public void multiply(double factor) {
+        PheromoneSweeps.multiply(values, (float) factor);
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        return PheromoneSweeps.multiplyAndClamp(values, factor, minimum, maximum);
+    }
+
+    static float toFloat(double value) {
+        if (value > Float.MAX_VALUE) {
+            return Float.MAX_VALUE;
+        }
+        if (value < -Float.MAX_VALUE) {
+            return -Float.MAX_VALUE;
+        }
+        return (float) value;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new FloatPheromoneStore(getRows(), getColumns(), symmetric);
+    }
+
+    @Override
+    public PheromoneStore toSinglePrecision() {
+        return this;
+    }
+
+    /**
+     * The values array backing this store, for linear sweeps. Changes on the array are changes on the store.
+     *
+     * @return Pheromone values.
+     */
+    public float[] getValues() {
+        return values;
+    }
+}
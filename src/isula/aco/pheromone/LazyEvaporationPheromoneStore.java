@@ -0,0 +1,194 @@
+package isula.aco.pheromone;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A pheromone store that evaporates lazily. It wraps another store and keeps a cumulative decay factor: the
+ * pheromone value of a cell is its stored value times that factor. Multiplying the whole matrix only updates the
+ * factor, so evaporation costs O(1) instead of a sweep over all cells.
+ * <p>
+ * <p>
+ * Reads and writes are scaled through the factor. When it gets too small, it is applied to the wrapped store and
+ * reset to 1, so stored values never overflow -not even on single precision stores-.
+ * <p>
+ * <p>
+ * The store also tracks if stored values changed, so values derived from them -like choice-info- only need to be
+ * recalculated when something other than the decay factor changed.
+ */
+public class LazyEvaporationPheromoneStore extends PheromoneStore {
+
+    // Small enough to renormalise rarely, big enough to keep stored values on the float range.
+    private static final double MINIMUM_DECAY_FACTOR = 1e-30;
+
+    private final PheromoneStore pheromoneStore;
+    private double decayFactor = 1.0;
+
+    // Written by ants during construction, read after they are joined.
+    private boolean modified = true;
+
+    /**
+     * Wraps a pheromone store. Its current values are kept.
+     *
+     * @param pheromoneStore Store for the scaled values.
+     */
+    public LazyEvaporationPheromoneStore(PheromoneStore pheromoneStore) {
+        this(pheromoneStore, 1.0);
+    }
+
+    private LazyEvaporationPheromoneStore(PheromoneStore pheromoneStore, double decayFactor) {
+        super(pheromoneStore.getRows(), pheromoneStore.getColumns());
+        this.pheromoneStore = pheromoneStore;
+        this.decayFactor = decayFactor;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return pheromoneStore.get(row, column) * decayFactor;
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        modified = true;
+        pheromoneStore.set(row, column, value / decayFactor);
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        modified = true;
+        pheromoneStore.add(row, column, amount / decayFactor);
+    }
+
+    @Override
+    public double update(int row, int column, DoubleUnaryOperator update) {
+        modified = true;
+        double currentDecayFactor = decayFactor;
+        return pheromoneStore.update(row, column,
+                storedValue -> update.applyAsDouble(storedValue * currentDecayFactor) / currentDecayFactor)
+                * currentDecayFactor;
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return pheromoneStore.getCellIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return pheromoneStore.getCellCount();
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return pheromoneStore.getCell(cellIndex) * decayFactor;
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        modified = true;
+        pheromoneStore.setCell(cellIndex, value / decayFactor);
+    }
+
+    @Override
+    public void forEachCell(CellConsumer cellConsumer) {
+        pheromoneStore.forEachCell(cellConsumer);
+    }
+
+    @Override
+    public void forEachRowCell(CellConsumer cellConsumer) {
+        pheromoneStore.forEachRowCell(cellConsumer);
+    }
+
+    @Override
+    public void fill(double value) {
+        modified = true;
+        decayFactor = 1.0;
+        pheromoneStore.fill(value);
+    }
+
+    /**
+     * Multiplies every cell by a factor, by updating the decay factor. Only when the decay factor gets too small,
+     * the wrapped store is swept.
+     *
+     * @param factor Factor for multiplication.
+     */
+    @Override
+    public void multiply(double factor) {
+        if (factor == 0) {
+            fill(0);
+            return;
+        }
+
+        decayFactor *= factor;
+        if (decayFactor < MINIMUM_DECAY_FACTOR) {
+            renormalise();
+        }
+    }
+
+    /**
+     * Clamping needs every cell, so the pending decay factor is applied on the same sweep.
+     */
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        modified = true;
+        boolean valid = pheromoneStore.multiplyAndClamp(decayFactor * factor, minimum, maximum);
+        decayFactor = 1.0;
+        return valid;
+    }
+
+    /**
+     * Applies the decay factor to the wrapped store and resets it to 1.
+     */
+    public void renormalise() {
+        modified = true;
+        pheromoneStore.multiply(decayFactor);
+        decayFactor = 1.0;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return pheromoneStore.isSymmetric();
+    }
+
+    /**
+     * Creates an empty store like the wrapped one. It evaporates eagerly.
+     *
+     * @return New pheromone store.
+     */
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return pheromoneStore.createEmptyStore();
+    }
+
+    @Override
+    public PheromoneStore toSinglePrecision() {
+        renormalise();
+        return new LazyEvaporationPheromoneStore(pheromoneStore.toSinglePrecision());
+    }
+
+    @Override
+    public PheromoneStore toConcurrent() {
+        return new LazyEvaporationPheromoneStore(pheromoneStore.toConcurrent(), decayFactor);
+    }
+
+    public double getDecayFactor() {
+        return decayFactor;
+    }
+
+    /**
+     * Indicates if stored values changed since the last call to clearModified(). Multiplications that only update
+     * the decay factor don't count.
+     *
+     * @return True if stored values changed.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public void clearModified() {
+        modified = false;
+    }
+
+    public PheromoneStore getPheromoneStore() {
+        return pheromoneStore;
+    }
+}
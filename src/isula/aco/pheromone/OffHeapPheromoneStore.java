@@ -0,0 +1,348 @@
+package isula.aco.pheromone;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A pheromone store that keeps its values outside the Java heap, on direct buffers or on a memory-mapped file. The
+ * heap size and garbage collection pauses don't grow with the size of the pheromone matrix, and matrices can have
+ * more than 2^31 cells: cells are addressed with long indexes, over a sequence of fixed-size buffers.
+ * <p>
+ * <p>
+ * The layout can be dense -row-major- or symmetric -upper triangle only, diagonal included-. Values are kept on
+ * DoubleBuffer chunks, or on FloatBuffer chunks for single precision stores. Call close() to release the file of a
+ * memory-mapped store.
+ */
+public class OffHeapPheromoneStore extends PheromoneStore implements AutoCloseable {
+
+    // 2^26 cells per buffer: 512 MiB of doubles, or 256 MiB of floats.
+    private static final int DEFAULT_CHUNK_BITS = 26;
+
+    private final int chunkBits;
+    private final int chunkMask;
+
+    private final long cellCount;
+    private final boolean symmetric;
+    private final DoubleBuffer[] chunks;
+    private final FloatBuffer[] floatChunks;
+    private final FileChannel fileChannel;
+    private final MappedByteBuffer[] mappedChunks;
+
+    /**
+     * Creates a store on direct buffers, with all its cells set to 0.
+     *
+     * @param rows      Number of rows.
+     * @param columns   Number of columns.
+     * @param symmetric If true, only the upper triangle is stored. Rows and columns must be equal.
+     */
+    public OffHeapPheromoneStore(int rows, int columns, boolean symmetric) {
+        this(rows, columns, symmetric, false);
+    }
+
+    /**
+     * Creates a store on direct buffers, with all its cells set to 0.
+     *
+     * @param rows            Number of rows.
+     * @param columns         Number of columns.
+     * @param symmetric       If true, only the upper triangle is stored. Rows and columns must be equal.
+     * @param singlePrecision If true, values are kept as floats, on half the memory.
+     */
+    public OffHeapPheromoneStore(int rows, int columns, boolean symmetric, boolean singlePrecision) {
+        this(rows, columns, symmetric, singlePrecision, DEFAULT_CHUNK_BITS);
+    }
+
+    OffHeapPheromoneStore(int rows, int columns, boolean symmetric, boolean singlePrecision, int chunkBits) {
+        super(rows, columns);
+        this.chunkBits = chunkBits;
+        this.chunkMask = (1 << chunkBits) - 1;
+        this.symmetric = symmetric;
+        this.cellCount = getCellCount(rows, columns, symmetric);
+        this.fileChannel = null;
+        this.mappedChunks = new MappedByteBuffer[0];
+
+        int numberOfChunks = getNumberOfChunks();
+        this.chunks = singlePrecision ? null : new DoubleBuffer[numberOfChunks];
+        this.floatChunks = singlePrecision ? new FloatBuffer[numberOfChunks] : null;
+
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+            int chunkSize = getChunkSize(chunk);
+            if (singlePrecision) {
+                floatChunks[chunk] = ByteBuffer.allocateDirect(chunkSize * Float.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asFloatBuffer();
+            } else {
+                chunks[chunk] = ByteBuffer.allocateDirect(chunkSize * Double.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asDoubleBuffer();
+            }
+        }
+    }
+
+    private OffHeapPheromoneStore(int rows, int columns, boolean symmetric, FileChannel fileChannel)
+            throws IOException {
+        super(rows, columns);
+        this.chunkBits = DEFAULT_CHUNK_BITS;
+        this.chunkMask = (1 << chunkBits) - 1;
+        this.symmetric = symmetric;
+        this.cellCount = getCellCount(rows, columns, symmetric);
+        this.fileChannel = fileChannel;
+        this.chunks = new DoubleBuffer[getNumberOfChunks()];
+        this.floatChunks = null;
+        this.mappedChunks = new MappedByteBuffer[chunks.length];
+
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long position = ((long) chunk << chunkBits) * Double.BYTES;
+            mappedChunks[chunk] = fileChannel.map(FileChannel.MapMode.READ_WRITE, position,
+                    (long) getChunkSize(chunk) * Double.BYTES);
+            chunks[chunk] = mappedChunks[chunk]
+                    .order(ByteOrder.nativeOrder())
+                    .asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Creates a store backed by a memory-mapped file. The file is created if it doesn't exist, and its current
+     * contents are used as pheromone values.
+     *
+     * @param file      File to map.
+     * @param rows      Number of rows.
+     * @param columns   Number of columns.
+     * @param symmetric If true, only the upper triangle is stored. Rows and columns must be equal.
+     * @return A memory-mapped pheromone store.
+     * @throws IOException If the file can't be mapped.
+     */
+    public static OffHeapPheromoneStore mapToFile(Path file, int rows, int columns, boolean symmetric)
+            throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new OffHeapPheromoneStore(rows, columns, symmetric, fileChannel);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    private static long getCellCount(int rows, int columns, boolean symmetric) {
+        if (!symmetric) {
+            return (long) rows * columns;
+        }
+
+        if (rows != columns) {
+            throw new ConfigurationException("A symmetric pheromone matrix needs to be square. Rows: " + rows
+                    + " Columns: " + columns);
+        }
+        return (long) rows * (rows + 1) / 2;
+    }
+
+    private int getNumberOfChunks() {
+        long numberOfChunks = (cellCount + chunkMask) >>> chunkBits;
+        return (int) numberOfChunks;
+    }
+
+    private int getChunkSize(int chunk) {
+        long chunkStart = (long) chunk << chunkBits;
+        return (int) Math.min(1L << chunkBits, cellCount - chunkStart);
+    }
+
+    /**
+     * Position of a matrix cell on the sequence of cells.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index.
+     */
+    public long getIndex(int row, int column) {
+        if (!symmetric) {
+            return (long) row * getColumns() + column;
+        }
+
+        if (row > column) {
+            int swap = row;
+            row = column;
+            column = swap;
+        }
+        return (long) row * getColumns() - (long) row * (row - 1) / 2 + column - row;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return getCell(getIndex(row, column));
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        setCell(getIndex(row, column), value);
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return getIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        if (floatChunks != null) {
+            return floatChunks[(int) (cellIndex >>> chunkBits)].get((int) cellIndex & chunkMask);
+        }
+        return chunks[(int) (cellIndex >>> chunkBits)].get((int) cellIndex & chunkMask);
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        if (floatChunks != null) {
+            floatChunks[(int) (cellIndex >>> chunkBits)].put((int) cellIndex & chunkMask,
+                    FloatPheromoneStore.toFloat(value));
+            return;
+        }
+        chunks[(int) (cellIndex >>> chunkBits)].put((int) cellIndex & chunkMask, value);
+    }
+
+    @Override
+    public void fill(double value) {
+        if (floatChunks != null) {
+            float floatValue = FloatPheromoneStore.toFloat(value);
+            for (FloatBuffer chunk : floatChunks) {
+                int chunkSize = chunk.capacity();
+                for (int i = 0; i < chunkSize; i++) {
+                    chunk.put(i, floatValue);
+                }
+            }
+            return;
+        }
+
+        for (DoubleBuffer chunk : chunks) {
+            int chunkSize = chunk.capacity();
+            for (int i = 0; i < chunkSize; i++) {
+                chunk.put(i, value);
+            }
+        }
+    }
+
+    @Override
+    public void multiply(double factor) {
+        if (floatChunks != null) {
+            float floatFactor = (float) factor;
+            Arrays.stream(floatChunks).parallel().forEach(chunk -> {
+                int chunkSize = chunk.capacity();
+                for (int i = 0; i < chunkSize; i++) {
+                    chunk.put(i, chunk.get(i) * floatFactor);
+                }
+            });
+            return;
+        }
+
+        Arrays.stream(chunks).parallel().forEach(chunk -> {
+            int chunkSize = chunk.capacity();
+            for (int i = 0; i < chunkSize; i++) {
+                chunk.put(i, chunk.get(i) * factor);
+            }
+        });
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        if (floatChunks != null) {
+            float floatFactor = (float) factor;
+            float floatMinimum = (float) minimum;
+            float floatMaximum = (float) Math.min(maximum, Float.MAX_VALUE);
+            return Arrays.stream(floatChunks).parallel().mapToInt(chunk -> {
+                int chunkSize = chunk.capacity();
+                boolean valid = true;
+                for (int i = 0; i < chunkSize; i++) {
+                    float value = Math.min(Math.max(chunk.get(i) * floatFactor, floatMinimum), floatMaximum);
+                    valid &= PheromoneSweeps.isFinite(value);
+                    chunk.put(i, value);
+                }
+                return valid ? 0 : 1;
+            }).sum() == 0;
+        }
+
+        return Arrays.stream(chunks).parallel().mapToInt(chunk -> {
+            int chunkSize = chunk.capacity();
+            boolean valid = true;
+            for (int i = 0; i < chunkSize; i++) {
+                double value = Math.min(Math.max(chunk.get(i) * factor, minimum), maximum);
+                valid &= PheromoneSweeps.isFinite(value);
+                chunk.put(i, value);
+            }
+            return valid ? 0 : 1;
+        }).sum() == 0;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    public boolean isSinglePrecision() {
+        return floatChunks != null;
+    }
+
+    /**
+     * Creates a store on direct buffers, with the same precision, even if this one is memory-mapped.
+     *
+     * @return New pheromone store.
+     */
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new OffHeapPheromoneStore(getRows(), getColumns(), symmetric, isSinglePrecision(), chunkBits);
+    }
+
+    /**
+     * Copies the values of this store to a single precision store on direct buffers, even if this one is
+     * memory-mapped. Create the store with single precision to avoid holding both copies.
+     *
+     * @return Single precision pheromone store.
+     */
+    @Override
+    public PheromoneStore toSinglePrecision() {
+        if (isSinglePrecision()) {
+            return this;
+        }
+
+        OffHeapPheromoneStore singlePrecisionStore = new OffHeapPheromoneStore(getRows(), getColumns(), symmetric,
+                true, chunkBits);
+        for (long cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+            singlePrecisionStore.setCell(cellIndex, getCell(cellIndex));
+        }
+        return singlePrecisionStore;
+    }
+
+    /**
+     * Writes pending changes to the mapped file, if any.
+     */
+    public void force() {
+        for (MappedByteBuffer mappedChunk : mappedChunks) {
+            mappedChunk.force();
+        }
+    }
+
+    /**
+     * Writes pending changes to the mapped file, if any, and releases it.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileChannel != null) {
+            force();
+            fileChannel.close();
+        }
+    }
+}
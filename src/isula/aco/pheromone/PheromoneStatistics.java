@@ -0,0 +1,102 @@
+package isula.aco.pheromone;
+
+import java.util.Arrays;
+
+/**
+ * Measures of how much the pheromone in a store has converged. Every row is taken as the distribution of pheromone
+ * over the components available from one place -a city on TSP, or the single row on ASP- and the measures are
+ * averaged over rows.
+ * <p>
+ * <p>
+ * Each measure only sweeps the cells the store keeps, through forEachRowCell(), so it costs as much as an
+ * evaporation. On sparse stores, like CandidatePheromoneStore, a row is made only of its own cells: positions that
+ * share a default value are left out.
+ */
+public final class PheromoneStatistics {
+
+    private PheromoneStatistics() {
+    }
+
+    private static double average(double[] rowValues) {
+        if (rowValues.length == 0) {
+            return 0.0;
+        }
+
+        double total = 0.0;
+        for (double rowValue : rowValues) {
+            total += rowValue;
+        }
+        return total / rowValues.length;
+    }
+
+    /**
+     * The average lambda-branching factor. On a row, it is the number of cells with a pheromone value of at least
+     * minimum + lambda * (maximum - minimum). It falls towards 1 -or 2, on symmetric problems- as ants converge to a
+     * single solution.
+     *
+     * @param pheromoneStore Pheromone store.
+     * @param lambda         A value between 0 and 1. 0.05 is usual.
+     * @return Average branching factor.
+     */
+    public static double getBranchingFactor(final PheromoneStore pheromoneStore, double lambda) {
+        int rows = pheromoneStore.getRows();
+        final double[] minimums = new double[rows];
+        final double[] maximums = new double[rows];
+        Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+        Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+
+        pheromoneStore.forEachRowCell((cellIndex, row, column) -> {
+            double value = pheromoneStore.getCell(cellIndex);
+            minimums[row] = Math.min(minimums[row], value);
+            maximums[row] = Math.max(maximums[row], value);
+        });
+
+        // Minimums become the thresholds of each row.
+        for (int row = 0; row < rows; row++) {
+            minimums[row] += lambda * (maximums[row] - minimums[row]);
+        }
+
+        final double[] branches = new double[rows];
+        pheromoneStore.forEachRowCell((cellIndex, row, column) -> {
+            if (pheromoneStore.getCell(cellIndex) >= minimums[row]) {
+                branches[row]++;
+            }
+        });
+        return average(branches);
+    }
+
+    /**
+     * The average normalised entropy of the pheromone distribution. It is 1 when every cell of a row has the same
+     * value, and falls towards 0 as pheromone concentrates on fewer cells.
+     *
+     * @param pheromoneStore Pheromone store.
+     * @return Average entropy, between 0 and 1.
+     */
+    public static double getEntropy(final PheromoneStore pheromoneStore) {
+        int rows = pheromoneStore.getRows();
+        final int[] cells = new int[rows];
+        final double[] sums = new double[rows];
+        final double[] weightedLogarithms = new double[rows];
+
+        pheromoneStore.forEachRowCell((cellIndex, row, column) -> {
+            double value = pheromoneStore.getCell(cellIndex);
+            cells[row]++;
+            if (value > 0) {
+                sums[row] += value;
+                weightedLogarithms[row] += value * Math.log(value);
+            }
+        });
+
+        double[] entropies = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            if (cells[row] < 2 || !(sums[row] > 0)) {
+                continue;
+            }
+
+            // With S the sum of the row: H = -sum(v/S * log(v/S)) = log(S) - sum(v * log(v)) / S
+            double entropy = Math.log(sums[row]) - weightedLogarithms[row] / sums[row];
+            entropies[row] = Math.max(0.0, Math.min(1.0, entropy / Math.log(cells[row])));
+        }
+        return average(entropies);
+    }
+}
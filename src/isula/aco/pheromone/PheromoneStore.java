@@ -0,0 +1,260 @@
+package isula.aco.pheromone;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Storage for the pheromone matrix of an Environment.
+ * <p>
+ * <p>
+ * Values are addressed by row and column, like on a double[][] matrix. Each implementation also keeps its values
+ * in a linear sequence of cells, so bulk operations like evaporation are linear sweeps over that sequence instead
+ * of walks over separately allocated rows.
+ */
+public abstract class PheromoneStore {
+
+    private final int rows;
+    private final int columns;
+
+    /**
+     * Creates a store for a matrix of the given dimensions.
+     *
+     * @param rows    Number of rows.
+     * @param columns Number of columns.
+     */
+    protected PheromoneStore(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the pheromone value of a matrix cell.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Pheromone value.
+     */
+    public abstract double get(int row, int column);
+
+    /**
+     * Updates the pheromone value of a matrix cell.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @param value  New pheromone value.
+     */
+    public abstract void set(int row, int column, double value);
+
+    /**
+     * Adds an amount of pheromone to a matrix cell.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @param amount Pheromone to add.
+     */
+    public void add(int row, int column, double amount) {
+        set(row, column, get(row, column) + amount);
+    }
+
+    /**
+     * Updates the pheromone value of a matrix cell, as a function of its current value. By default, this is a
+     * read followed by a write: concurrent updates on the same cell can be lost. Stores returned by toConcurrent()
+     * perform it atomically.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @param update Function from the current pheromone value to the new one.
+     * @return New pheromone value.
+     */
+    public double update(int row, int column, DoubleUnaryOperator update) {
+        double newValue = update.applyAsDouble(get(row, column));
+        set(row, column, newValue);
+        return newValue;
+    }
+
+    /**
+     * Position of a matrix cell on the linear sequence of cells.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index, or -1 if this store doesn't keep a cell for that position.
+     */
+    public abstract long getCellIndex(int row, int column);
+
+    /**
+     * Number of cells this store keeps.
+     *
+     * @return Number of cells.
+     */
+    public abstract long getCellCount();
+
+    /**
+     * Returns the value of a cell, by its position on the linear sequence of cells.
+     *
+     * @param cellIndex Cell index, lower than getCellCount().
+     * @return Pheromone value.
+     */
+    public abstract double getCell(long cellIndex);
+
+    /**
+     * Updates the value of a cell, by its position on the linear sequence of cells.
+     *
+     * @param cellIndex Cell index, lower than getCellCount().
+     * @param value     New pheromone value.
+     */
+    public abstract void setCell(long cellIndex, double value);
+
+    /**
+     * Visits every matrix position that has its own cell on this store. For symmetric stores, positions below the
+     * diagonal are not visited unless they have their own cell.
+     *
+     * @param cellConsumer Operation to perform on each position.
+     */
+    public void forEachCell(CellConsumer cellConsumer) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = isSymmetric() ? i : 0; j < columns; j++) {
+                cellConsumer.accept(getCellIndex(i, j), i, j);
+            }
+        }
+    }
+
+    /**
+     * Visits every cell as part of the rows it belongs to: on symmetric stores, a cell off the diagonal is visited
+     * once from each of its two rows. Per-row measures, like those of PheromoneStatistics, use it to sweep only the
+     * cells this store keeps.
+     *
+     * @param cellConsumer Operation to perform on each cell and row.
+     */
+    public void forEachRowCell(CellConsumer cellConsumer) {
+        final boolean symmetric = isSymmetric();
+        forEachCell((cellIndex, row, column) -> {
+            cellConsumer.accept(cellIndex, row, column);
+            if (symmetric && row != column) {
+                cellConsumer.accept(cellIndex, column, row);
+            }
+        });
+    }
+
+    /**
+     * Assigns the same value to all cells.
+     *
+     * @param value Value to assign.
+     */
+    public void fill(double value) {
+        long cellCount = getCellCount();
+        for (long cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+            setCell(cellIndex, value);
+        }
+    }
+
+    /**
+     * Multiplies every cell by a factor.
+     *
+     * @param factor Factor for multiplication.
+     */
+    public void multiply(double factor) {
+        long cellCount = getCellCount();
+        for (long cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+            setCell(cellIndex, getCell(cellIndex) * factor);
+        }
+    }
+
+    /**
+     * Multiplies every cell by a factor and keeps the results between two bounds, in a single pass.
+     *
+     * @param factor  Factor for multiplication.
+     * @param minimum Minimum value for a cell.
+     * @param maximum Maximum value for a cell.
+     * @return False if some cell is not a finite number after the update. All cells are updated anyway.
+     */
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        boolean valid = true;
+        long cellCount = getCellCount();
+        for (long cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+            double value = Math.min(Math.max(getCell(cellIndex) * factor, minimum), maximum);
+            valid &= PheromoneSweeps.isFinite(value);
+            setCell(cellIndex, value);
+        }
+        return valid;
+    }
+
+    /**
+     * Indicates if a value stored on (row, column) is also stored on (column, row). In that case, a single set()
+     * call updates both cells.
+     *
+     * @return True if the store is symmetric. By default, false.
+     */
+    public boolean isSymmetric() {
+        return false;
+    }
+
+    /**
+     * Creates a store with the same dimensions and layout as this one, with all its cells set to 0. The
+     * Environment uses it for the choice-info matrix.
+     *
+     * @return New pheromone store.
+     */
+    public abstract PheromoneStore createEmptyStore();
+
+    /**
+     * Returns a store with the same dimensions, layout and values as this one, that keeps its values with single
+     * precision. By default, that is a FloatPheromoneStore: override if the layout is not dense nor symmetric.
+     *
+     * @return Single precision pheromone store.
+     */
+    public PheromoneStore toSinglePrecision() {
+        return new FloatPheromoneStore(this);
+    }
+
+    /**
+     * Returns a store with the same values as this one, whose update() method is atomic. By default, this store is
+     * wrapped on a StripedLockPheromoneStore.
+     *
+     * @return Concurrent pheromone store.
+     */
+    public PheromoneStore toConcurrent() {
+        return new StripedLockPheromoneStore(this);
+    }
+
+    /**
+     * Copies the values of this store to a new matrix.
+     *
+     * @return Pheromone matrix.
+     */
+    public double[][] toArray() {
+        double[][] matrix = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                matrix[i][j] = get(i, j);
+            }
+        }
+        return matrix;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": Rows " + rows + " Columns " + columns;
+    }
+
+    /**
+     * An operation over a cell of a pheromone store.
+     */
+    public interface CellConsumer {
+
+        /**
+         * Performs the operation on a cell.
+         *
+         * @param cellIndex Cell index.
+         * @param row       Row on the pheromone matrix.
+         * @param column    Column on the pheromone matrix.
+         */
+        void accept(long cellIndex, int row, int column);
+    }
+}
@@ -0,0 +1,88 @@
+package isula.aco.pheromone;
+
+import java.util.stream.IntStream;
+
+/**
+ * Linear sweeps over the arrays backing pheromone stores. Big arrays are split on blocks and swept in parallel,
+ * on the common fork-join pool.
+ */
+final class PheromoneSweeps {
+
+    private static final int BLOCK_SIZE = 1 << 14;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private PheromoneSweeps() {
+    }
+
+    private static IntStream blocks(int length) {
+        IntStream blocks = IntStream.range(0, (length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (length >= PARALLEL_THRESHOLD) {
+            blocks = blocks.parallel();
+        }
+        return blocks;
+    }
+
+    /**
+     * Checks that a value is not NaN nor infinite. Only finite values satisfy value - value == 0, so sweeps check
+     * every cell with a subtraction and a comparison, without branches.
+     *
+     * @param value Value to check. Float values are widened without changing their class.
+     * @return True if the value is finite.
+     */
+    static boolean isFinite(double value) {
+        return value - value == 0;
+    }
+
+    static void multiply(double[] values, double factor) {
+        blocks(values.length).forEach(block -> {
+            int end = Math.min(values.length, (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                values[i] *= factor;
+            }
+        });
+    }
+
+    static void multiply(float[] values, float factor) {
+        blocks(values.length).forEach(block -> {
+            int end = Math.min(values.length, (block + 1) * BLOCK_SIZE);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                values[i] *= factor;
+            }
+        });
+    }
+
+    /**
+     * Multiplies by a factor and clamps every value. All blocks are swept, even if some value is invalid.
+     *
+     * @return False if some value is not a finite number.
+     */
+    static boolean multiplyAndClamp(double[] values, double factor, double minimum, double maximum) {
+        return blocks(values.length).map(block -> {
+            int end = Math.min(values.length, (block + 1) * BLOCK_SIZE);
+            boolean valid = true;
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                double value = Math.min(Math.max(values[i] * factor, minimum), maximum);
+                valid &= isFinite(value);
+                values[i] = value;
+            }
+            return valid ? 0 : 1;
+        }).sum() == 0;
+    }
+
+    static boolean multiplyAndClamp(float[] values, double factor, double minimum, double maximum) {
+        float floatFactor = (float) factor;
+        float floatMinimum = (float) minimum;
+        float floatMaximum = (float) Math.min(maximum, Float.MAX_VALUE);
+
+        return blocks(values.length).map(block -> {
+            int end = Math.min(values.length, (block + 1) * BLOCK_SIZE);
+            boolean valid = true;
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                float value = Math.min(Math.max(values[i] * floatFactor, floatMinimum), floatMaximum);
+                valid &= isFinite(value);
+                values[i] = value;
+            }
+            return valid ? 0 : 1;
+        }).sum() == 0;
+    }
+}
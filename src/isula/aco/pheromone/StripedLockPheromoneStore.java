@@ -0,0 +1,141 @@
+package isula.aco.pheromone;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A pheromone store that makes updates on another store thread-safe, with a fixed set of locks. Each matrix
+ * position is guarded by one of them, so concurrent updates on different positions rarely wait for each other.
+ * It works with any layout, and the wrapped store is not copied.
+ * <p>
+ * <p>
+ * Writes through set(), add() and update() take the lock of their position. Reads and bulk operations like
+ * fill() or multiply() don't: they are meant to run while no ant is updating pheromone.
+ */
+public class StripedLockPheromoneStore extends PheromoneStore {
+
+    private static final int STRIPE_BITS = 8;
+
+    private final PheromoneStore pheromoneStore;
+    private final Object[] locks = new Object[1 << STRIPE_BITS];
+
+    /**
+     * Wraps a pheromone store.
+     *
+     * @param pheromoneStore Store to guard.
+     */
+    public StripedLockPheromoneStore(PheromoneStore pheromoneStore) {
+        super(pheromoneStore.getRows(), pheromoneStore.getColumns());
+        this.pheromoneStore = pheromoneStore;
+
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private Object getLock(int row, int column) {
+        // Both orientations of a symmetric position share the same lock.
+        if (pheromoneStore.isSymmetric() && row > column) {
+            int swap = row;
+            row = column;
+            column = swap;
+        }
+
+        int hash = (row * 31 + column) * 0x9E3779B9;
+        return locks[hash >>> (32 - STRIPE_BITS)];
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return pheromoneStore.get(row, column);
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        synchronized (getLock(row, column)) {
+            pheromoneStore.set(row, column, value);
+        }
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        synchronized (getLock(row, column)) {
+            pheromoneStore.add(row, column, amount);
+        }
+    }
+
+    @Override
+    public double update(int row, int column, DoubleUnaryOperator update) {
+        synchronized (getLock(row, column)) {
+            return pheromoneStore.update(row, column, update);
+        }
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return pheromoneStore.getCellIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return pheromoneStore.getCellCount();
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return pheromoneStore.getCell(cellIndex);
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        pheromoneStore.setCell(cellIndex, value);
+    }
+
+    @Override
+    public void forEachCell(CellConsumer cellConsumer) {
+        pheromoneStore.forEachCell(cellConsumer);
+    }
+
+    @Override
+    public void forEachRowCell(CellConsumer cellConsumer) {
+        pheromoneStore.forEachRowCell(cellConsumer);
+    }
+
+    @Override
+    public void fill(double value) {
+        pheromoneStore.fill(value);
+    }
+
+    @Override
+    public void multiply(double factor) {
+        pheromoneStore.multiply(factor);
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        return pheromoneStore.multiplyAndClamp(factor, minimum, maximum);
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return pheromoneStore.isSymmetric();
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return pheromoneStore.createEmptyStore();
+    }
+
+    @Override
+    public PheromoneStore toSinglePrecision() {
+        return new StripedLockPheromoneStore(pheromoneStore.toSinglePrecision());
+    }
+
+    @Override
+    public PheromoneStore toConcurrent() {
+        return this;
+    }
+
+    public PheromoneStore getPheromoneStore() {
+        return pheromoneStore;
+    }
+}
@@ -0,0 +1,136 @@
+package isula.aco.pheromone;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.util.Arrays;
+
+/**
+ * A pheromone store for square and symmetric matrices, like the ones of symmetric TSP instances. Only the upper
+ * triangle -diagonal included- is kept, packed row by row on a single double array: (row, column) and
+ * (column, row) share the same cell, so a deposit is a single write.
+ * <p>
+ * <p>
+ * The diagonal is kept since ants can read it when choosing the first component of a solution.
+ */
+public class SymmetricPheromoneStore extends PheromoneStore {
+
+    private final double[] values;
+
+    // Position of the diagonal cell of each row.
+    private final int[] rowOffsets;
+
+    /**
+     * Creates a store with all its cells set to 0.
+     *
+     * @param size Number of rows and columns.
+     */
+    public SymmetricPheromoneStore(int size) {
+        super(size, size);
+
+        long cellCount = (long) size * (size + 1) / 2;
+        if (cellCount > Integer.MAX_VALUE - 8) {
+            throw new ConfigurationException("A symmetric pheromone matrix of size " + size
+                    + " doesn't fit on a single array. Consider using another PheromoneStore.");
+        }
+
+        this.values = new double[(int) cellCount];
+        this.rowOffsets = new int[size];
+        for (int row = 0, offset = 0; row < size; row++) {
+            rowOffsets[row] = offset;
+            offset += size - row;
+        }
+    }
+
+    /**
+     * Position of a matrix cell on the values array.
+     *
+     * @param row    Row on the pheromone matrix.
+     * @param column Column on the pheromone matrix.
+     * @return Cell index.
+     */
+    public int getIndex(int row, int column) {
+        if (row > column) {
+            return rowOffsets[column] + row - column;
+        }
+        return rowOffsets[row] + column - row;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return values[getIndex(row, column)];
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        values[getIndex(row, column)] = value;
+    }
+
+    @Override
+    public void add(int row, int column, double amount) {
+        values[getIndex(row, column)] += amount;
+    }
+
+    @Override
+    public long getCellIndex(int row, int column) {
+        return getIndex(row, column);
+    }
+
+    @Override
+    public long getCellCount() {
+        return values.length;
+    }
+
+    @Override
+    public double getCell(long cellIndex) {
+        return values[(int) cellIndex];
+    }
+
+    @Override
+    public void setCell(long cellIndex, double value) {
+        values[(int) cellIndex] = value;
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(values, value);
+    }
+
+    @Override
+    public void multiply(double factor) {
+        PheromoneSweeps.multiply(values, factor);
+    }
+
+    @Override
+    public boolean multiplyAndClamp(double factor, double minimum, double maximum) {
+        return PheromoneSweeps.multiplyAndClamp(values, factor, minimum, maximum);
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    @Override
+    public PheromoneStore createEmptyStore() {
+        return new SymmetricPheromoneStore(getRows());
+    }
+
+    /**
+     * Returns a copy of this store on an AtomicPheromoneStore, that updates cells with compare-and-set.
+     *
+     * @return Concurrent pheromone store.
+     */
+    @Override
+    public PheromoneStore toConcurrent() {
+        return new AtomicPheromoneStore(this);
+    }
+
+    /**
+     * The values array backing this store, for linear sweeps. Changes on the array are changes on the store.
+     *
+     * @return Pheromone values of the upper triangle, row by row.
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * This contains the pheromone storage used by Environments: the pheromone matrix abstraction and its
+ * implementations.
+ */
+package isula.aco.pheromone;
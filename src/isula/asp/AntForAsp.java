@@ -1,18 +1,20 @@
 package isula.asp;
 
-import isula.aco.Ant;
 import isula.aco.AntPolicy;
 import isula.aco.AntPolicyType;
 import isula.aco.ConfigurationProvider;
+import isula.aco.IntAnt;
+import isula.aco.pheromone.DepositBuffer;
 import isula.tsp.AntForTsp;
 
 import java.util.*;
+import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Logger;
 
 /**
  * Created by kevinhung on 2017/4/14.
  */
-public class AntForAsp extends Ant<Integer, AspEnvironment> {
+public class AntForAsp extends IntAnt<AspEnvironment> {
     private static Logger logger = Logger.getLogger(AntForTsp.class.getName());
 
     private static final double DELTA = Float.MIN_VALUE;
@@ -23,12 +25,14 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
     private Integer[][] choosingReference;
     private double[] visualQualityArray;
 
+    // Layers with thickness, updated on every merge.
+    private int numberOfLayers;
+
 
 
     public AntForAsp(int numberOfCities, double[][] problemGraph) {
-        super();
+        super(numberOfCities);
         this.numberOfCities = numberOfCities;
-        this.setSolution(new Integer[numberOfCities]);
         this.choosingReference = new Integer[this.numberOfCities][2];
         this.problemGraphReference = problemGraph;
         this.visualQualityArray = new double[numberOfCities];
@@ -49,6 +53,7 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         for (int i = 0; i < numberOfCities; i++) {
             getLayerThicknessMap().put(i, 1);
         }
+        this.numberOfLayers = numberOfCities;
 
         for (int i = 0; i < numberOfCities; i++) {
             visualQualityArray[i] = this.problemGraphReference[i][1];
@@ -58,7 +63,7 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         for (int i = 0; i < numberOfCities; i++) {
             getChoosingReference()[i] = null;
         }
-        this.initialReference = new Random().nextInt(this.numberOfCities);
+        this.initialReference = getRandom().nextInt(this.numberOfCities);
     }
 
 
@@ -107,28 +112,14 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
 
 
     /**
-     * On TSP, the cost of a solution is the total distance traversed by the salesman.
+     * On ASP, the cost of a solution is the number of layers left after merging. It is updated on every merge.
      *
      * @param environment Environment instance with problem information.
-     * @return Total distance.
+     * @return Number of layers.
      */
     @Override
     public double getSolutionCost(AspEnvironment environment) {
-        double totalLayers = 0;
-
-        Iterator<Map.Entry<Integer, Integer>> layerThicknessIterator = this.getLayerThicknessMap()
-                .entrySet().iterator();
-        while (layerThicknessIterator.hasNext()) {
-            Map.Entry<Integer, Integer> componentWithlayerThickness = layerThicknessIterator
-                    .next();
-            Integer thickness = componentWithlayerThickness.getValue();
-
-            if (thickness > 0) {
-                totalLayers += 1;
-            }
-
-        }
-        return totalLayers;
+        return numberOfLayers;
     }
 
 
@@ -142,7 +133,7 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
      * @return Heuristic contribution.
      */
     @Override
-    public Double getHeuristicValue(Integer solutionComponent, Integer positionInSolution, AspEnvironment environment) {
+    public double getHeuristicValue(int solutionComponent, int positionInSolution, AspEnvironment environment) {
 //        Integer lastComponent = this.initialReference;
 //
 //        // if this.getSolution.length > 0, change last component to the last component of this.getSolution
@@ -156,6 +147,18 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         return 1 / getVisualQualityArray()[solutionComponent]+ DELTA;
     }
 
+    /**
+     * The weight of a layer depends only on its visual quality and its pheromone,
+     * not on the previous layer. Visual quality changes on merges, that are
+     * reported through invalidateSelectionWeight().
+     *
+     * @return True.
+     */
+    @Override
+    public boolean hasStationarySelectionWeights() {
+        return true;
+    }
+
     /**
      * Just retrieves a value from the pheromone matrix.
      *
@@ -165,35 +168,35 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
      * @return pheromoneMatrix
      */
     @Override
-    public Double getPheromoneTrailValue(Integer solutionComponent,
-                                         Integer positionInSolution, AspEnvironment environment) {
+    public double getPheromoneTrailValue(int solutionComponent,
+                                         int positionInSolution, AspEnvironment environment) {
 
 //        Integer previousComponent = this.initialReference;
 //        if (positionInSolution > 0) {
 //            previousComponent = getSolution()[positionInSolution - 1];
 //        }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
-        return pheromoneMatrix[0][solutionComponent];
+        return environment.getPheromoneStore().get(0, solutionComponent);
     }
 
     /**
      * On TSP, the neighbourhood is given by the non-visited cities.
      *
-     * @param environment Environment instance with problem information.
-     * @return List of neighbourhood
+     * @param environment   Environment instance with problem information.
+     * @param neighbourhood Array to fill with the non-visited layers.
+     * @return Size of the neighbourhood.
      */
     @Override
-    public List<Integer> getNeighbourhood(AspEnvironment environment) {
-        List<Integer> neighbourhood = new ArrayList<>();
+    public int getNeighbourhood(AspEnvironment environment, int[] neighbourhood) {
+        int neighbourhoodSize = 0;
 
         for (int cityIndex = 0; cityIndex < environment.getNumberOfCities(); cityIndex += 1) {
             if (!this.isNodeVisited(cityIndex)) {
-                neighbourhood.add(cityIndex);
+                neighbourhood[neighbourhoodSize++] = cityIndex;
             }
         }
 
-        return neighbourhood;
+        return neighbourhoodSize;
     }
 
     /**
@@ -207,8 +210,8 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         List<Integer> neighbourhood = new ArrayList<>();
 
         // RandomNodeSelection has already increased the currentIndex
-        Integer currentIndex = getCurrentIndex()-1;
-        Integer currentLayerIndex = getSolution()[currentIndex];
+        int currentIndex = getCurrentIndex()-1;
+        Integer currentLayerIndex = getComponent(currentIndex);
 
         Integer upperTraceResult = upperTrace(currentLayerIndex, environment);
         Integer lowerTraceResult = lowerTrace(currentLayerIndex, environment);
@@ -240,19 +243,31 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
      * @param value              New pheromone value.
      */
     @Override
-    public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
-                                       AspEnvironment environment, Double value) {
+    public void setPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                       AspEnvironment environment, double value) {
 //        Integer previousComponent = this.initialReference;
 //        if (positionInSolution > 0) {
 //            previousComponent = getSolution()[positionInSolution - 1];
 //        }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
-        pheromoneMatrix[0][solutionComponent] = value;
+        environment.getPheromoneStore().set(0, solutionComponent, value);
 //        pheromoneMatrix[previousComponent][solutionComponent] = value;
 
     }
 
+    @Override
+    public void updatePheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                          AspEnvironment environment, DoubleUnaryOperator update) {
+        environment.getPheromoneStore().update(0, solutionComponent, update);
+    }
+
+    @Override
+    public boolean depositPheromone(int solutionComponent, int positionInSolution, AspEnvironment environment,
+                                    DepositBuffer depositBuffer, double amount) {
+        depositBuffer.add(0, solutionComponent, amount);
+        return true;
+    }
+
     /**
      * Selects a node and marks it as visited.
      *
@@ -266,10 +281,6 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         AntPolicy<Integer, AspEnvironment> selectNodePolicy = getAntPolicy(
                 AntPolicyType.MERGING_SELECTION, 1);
 
-        // TODO(cgavidia): With this approach, the policy is a shared resource
-        // between ants. This doesn't allow parallelism.
-        selectNodePolicy.setAnt(this);
-
         // Return false -> merge nothing; true -> merge one layer
         boolean policyResult = selectNodePolicy.applyPolicy(environment, configurationProvider);
 //        if (!policyResult) {
@@ -285,14 +296,17 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
      */
     public void mergeLayer(Integer mergingLayerIndex) {
 
-        Integer currentIndex = getCurrentIndex()-1;
-        Integer currentLayerIndex = getSolution()[currentIndex];
+        int currentIndex = getCurrentIndex()-1;
+        Integer currentLayerIndex = getComponent(currentIndex);
 
 //        System.out.println("mergeLayer: mergingLayerIndex -> " + mergingLayerIndex);
 //        System.out.println("mergeLayer: currentLayerIndex -> " + currentLayerIndex);
 
         // Modify LayerThicknessMap
         Integer preThickness = getLayerThicknessMap().put(currentLayerIndex, 0);
+        if (preThickness > 0) {
+            numberOfLayers--;
+        }
         Integer newThickness = getLayerThicknessMap().get(mergingLayerIndex) + preThickness;
         getLayerThicknessMap().put(mergingLayerIndex, newThickness);
 
@@ -301,8 +315,10 @@ public class AntForAsp extends Ant<Integer, AspEnvironment> {
         double currentLayerVQ = getVisualQualityArray()[currentLayerIndex];
         if (mergingLayerVQ > currentLayerVQ) {
             getVisualQualityArray()[currentLayerIndex] = mergingLayerVQ;
+            invalidateSelectionWeight(currentLayerIndex);
         } else if (currentLayerVQ > mergingLayerVQ) {
             getVisualQualityArray()[mergingLayerIndex] = currentLayerVQ;
+            invalidateSelectionWeight(mergingLayerIndex);
         }
 
 //        System.out.println("mergeLayer: mergeResult -> " + getLayerThicknessMap().toString());
@@ -61,15 +61,15 @@ public class AspEnvironment extends Environment {
     }
 
     /**
-     * The pheromone matrix in the TSP problem stores a pheromone value per city and per position of this city on
-     * the route. That explains the dimensions selected for the pheromone matrix.
+     * On ASP, the pheromone of a layer doesn't depend on the previously selected layer, so the pheromone matrix has
+     * a single row with a value per layer.
      *
      * @return Pheromone matrix instance.
      */
     @Override
     protected double[][] createPheromoneMatrix() {
         int numberOfCities = getNumberOfCities();
-        return new double[numberOfCities][numberOfCities];
+        return new double[1][numberOfCities];
     }
 
 }
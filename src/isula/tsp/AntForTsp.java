@@ -1,34 +1,45 @@
 package isula.tsp;
 
-import isula.aco.Ant;
-import org.apache.commons.math3.ml.distance.EuclideanDistance;
+import isula.aco.ConfigurationProvider;
+import isula.aco.IntAnt;
+import isula.aco.pheromone.DepositBuffer;
+import isula.aco.pheromone.PheromoneStore;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Logger;
 
 /**
  * Created by kevinhung on 2017/4/10.
  */
-public class AntForTsp extends Ant<Integer, TspEnvironment>{
+public class AntForTsp extends IntAnt<TspEnvironment> {
     private static Logger logger = Logger.getLogger(AntForTsp.class.getName());
 
-    private static final double DELTA = Float.MIN_VALUE;
     private final int numberOfCities;
     private int initialReference;
 
+    // Distance of the open path over the first pathLength cities. It's extended on every cost request, so each
+    // edge is added only once per solution.
+    private long pathDistance = 0;
+    private int pathLength = 0;
+
+    // Position of each candidate on the candidate list of slotsCity, the city the last neighbourhood was built from.
+    private final int[] candidateSlots;
+    private int slotsCity = -1;
+
     public AntForTsp(int numberOfCities) {
-        super();
+        super(numberOfCities);
         this.numberOfCities = numberOfCities;
-        this.setSolution(new Integer[numberOfCities]);
+        this.candidateSlots = new int[numberOfCities];
     }
 
 
     @Override
     public void clear() {
         super.clear();
-        this.initialReference = new Random().nextInt(this.numberOfCities);
+        this.initialReference = getRandom().nextInt(this.numberOfCities);
+        this.pathDistance = 0;
+        this.pathLength = 0;
+        this.slotsCity = -1;
     }
 
     /**
@@ -44,14 +55,26 @@ public class AntForTsp extends Ant<Integer, TspEnvironment>{
 
 
     /**
-     * On TSP, the cost of a solution is the total distance traversed by the salesman.
+     * On TSP, the cost of a solution is the total distance traversed by the salesman. Only the cities visited since
+     * the last call are walked, so asking for the cost several times is cheap.
      *
      * @param environment Environment instance with problem information.
      * @return Total distance.
      */
     @Override
     public double getSolutionCost(TspEnvironment environment) {
-        return getTotalDistance(getSolution(), environment.getProblemGraph());
+        int currentIndex = getCurrentIndex();
+        if (currentIndex == 0) {
+            return 0.0;
+        }
+
+        int[] solution = getIntSolution();
+        for (int solutionIndex = Math.max(pathLength, 1); solutionIndex < currentIndex; solutionIndex += 1) {
+            pathDistance += environment.getDistance(solution[solutionIndex - 1], solution[solutionIndex]);
+        }
+        pathLength = currentIndex;
+
+        return pathDistance + environment.getDistance(solution[currentIndex - 1], solution[0]);
     }
 
 
@@ -65,15 +88,47 @@ public class AntForTsp extends Ant<Integer, TspEnvironment>{
      * @return Heuristic contribution.
      */
     @Override
-    public Double getHeuristicValue(Integer solutionComponent, Integer positionInSolution, TspEnvironment environment) {
-        Integer lastComponent = this.initialReference;
+    public double getHeuristicValue(int solutionComponent, int positionInSolution, TspEnvironment environment) {
+        int lastComponent = this.initialReference;
 
         // if this.getSolution.length > 0, change last component to the last component of this.getSolution
         if (getCurrentIndex() > 0) {
-            lastComponent = this.getSolution()[getCurrentIndex() - 1];
+            lastComponent = getComponent(getCurrentIndex() - 1);
+        }
+        return environment.getHeuristicInformation(solutionComponent, lastComponent);
+    }
+
+    /**
+     * The weight of a city in the random proportional rule. It is read from the choice-info matrix of the Environment
+     * when it is available. Candidates of the current city are read by their position on its candidate list.
+     *
+     * @param solutionComponent     Solution component. (possibleMove)
+     * @param positionInSolution    Position of this component in the solution.
+     * @param environment           Environment instance with problem information.
+     * @param configurationProvider Algorithm configuration.
+     * @return Heuristic times pheromone value.
+     */
+    @Override
+    public double getHeuristicTimesPheromone(int solutionComponent, int positionInSolution,
+                                             TspEnvironment environment,
+                                             ConfigurationProvider configurationProvider) {
+        if (!environment.hasChoiceInfo()) {
+            return super.getHeuristicTimesPheromone(solutionComponent, positionInSolution, environment,
+                    configurationProvider);
+        }
+
+        int previousComponent = this.initialReference;
+        if (positionInSolution > 0) {
+            previousComponent = getComponent(positionInSolution - 1);
         }
-        double distance = getDistance(lastComponent, solutionComponent, environment.getProblemGraph()) + DELTA;
-        return 1 / distance;
+
+        if (previousComponent == slotsCity) {
+            int slot = candidateSlots[solutionComponent];
+            if (environment.getCandidate(previousComponent, slot) == solutionComponent) {
+                return environment.getCandidateChoiceInfo(previousComponent, slot);
+            }
+        }
+        return environment.getChoiceInfo(previousComponent, solutionComponent);
     }
 
     /**
@@ -85,37 +140,85 @@ public class AntForTsp extends Ant<Integer, TspEnvironment>{
      * @return pheromoneMatrix
      */
     @Override
-    public Double getPheromoneTrailValue(Integer solutionComponent,
-                                         Integer positionInSolution, TspEnvironment environment) {
+    public double getPheromoneTrailValue(int solutionComponent,
+                                         int positionInSolution, TspEnvironment environment) {
 
-        Integer previousComponent = this.initialReference;
+        int previousComponent = this.initialReference;
         if (positionInSolution > 0) {
-            previousComponent = getSolution()[positionInSolution - 1];
+            previousComponent = getComponent(positionInSolution - 1);
         }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
+        return environment.getPheromoneStore().get(solutionComponent, previousComponent);
+    }
+
+    /**
+     * On TSP, the neighbourhood is given by the non-visited cities. When the Environment has candidate lists, only
+     * the non-visited candidates of the current city are considered. If all of them were visited, the neighbourhood
+     * is the best remaining city.
+     *
+     * @param environment   Environment instance with problem information.
+     * @param neighbourhood Array to fill with the non-visited cities.
+     * @return Size of the neighbourhood.
+     */
+    @Override
+    public int getNeighbourhood(TspEnvironment environment, int[] neighbourhood) {
+        int neighbourhoodSize = 0;
+
+        if (environment.hasCandidateLists() && getCurrentIndex() > 0) {
+            int currentCity = getComponent(getCurrentIndex() - 1);
+
+            for (int position = 0; position < environment.getCandidateListSize(); position += 1) {
+                int candidate = environment.getCandidate(currentCity, position);
+                if (!this.isNodeVisited(candidate)) {
+                    neighbourhood[neighbourhoodSize++] = candidate;
+                    candidateSlots[candidate] = position;
+                }
+            }
+            slotsCity = currentCity;
+
+            if (neighbourhoodSize == 0) {
+                int bestRemainingCity = getBestRemainingCity(currentCity, environment);
+                if (bestRemainingCity >= 0) {
+                    neighbourhood[neighbourhoodSize++] = bestRemainingCity;
+                }
+            }
+
+            return neighbourhoodSize;
+        }
 
+        for (int cityIndex = 0; cityIndex < environment.getNumberOfCities(); cityIndex += 1) {
+            if (!this.isNodeVisited(cityIndex)) {
+                neighbourhood[neighbourhoodSize++] = cityIndex;
+            }
+        }
 
-        return pheromoneMatrix[solutionComponent][previousComponent];
+        return neighbourhoodSize;
     }
 
     /**
-     * On TSP, the neighbourhood is given by the non-visited cities.
+     * Finds the non-visited city with the highest choice-info value from the current city. If choice-info is not
+     * available, that is the nearest non-visited city.
      *
+     * @param currentCity Current city.
      * @param environment Environment instance with problem information.
-     * @return List of neighbourhood
+     * @return Best remaining city, or -1 if all cities were visited.
      */
-    @Override
-    public List<Integer> getNeighbourhood(TspEnvironment environment) {
-        List<Integer> neighbourhood = new ArrayList<>();
+    private int getBestRemainingCity(int currentCity, TspEnvironment environment) {
+        int bestCity = -1;
+        double bestValue = -1;
 
         for (int cityIndex = 0; cityIndex < environment.getNumberOfCities(); cityIndex += 1) {
             if (!this.isNodeVisited(cityIndex)) {
-                neighbourhood.add(cityIndex);
+                double value = environment.hasChoiceInfo() ? environment.getChoiceInfo(currentCity, cityIndex)
+                        : environment.getHeuristicInformation(currentCity, cityIndex);
+                if (value > bestValue) {
+                    bestCity = cityIndex;
+                    bestValue = value;
+                }
             }
         }
 
-        return neighbourhood;
+        return bestCity;
     }
 
 
@@ -128,17 +231,64 @@ public class AntForTsp extends Ant<Integer, TspEnvironment>{
      * @param value              New pheromone value.
      */
     @Override
-    public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
-                                       TspEnvironment environment, Double value) {
-        Integer previousComponent = this.initialReference;
+    public void setPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                       TspEnvironment environment, double value) {
+        int previousComponent = this.initialReference;
+        if (positionInSolution > 0) {
+            previousComponent = getComponent(positionInSolution - 1);
+        }
+
+        PheromoneStore pheromoneStore = environment.getPheromoneStore();
+        pheromoneStore.set(solutionComponent, previousComponent, value);
+        environment.updateChoiceInfo(solutionComponent, previousComponent);
+
+        if (!pheromoneStore.isSymmetric()) {
+            pheromoneStore.set(previousComponent, solutionComponent, value);
+            environment.updateChoiceInfo(previousComponent, solutionComponent);
+        }
+
+    }
+
+    @Override
+    public boolean depositPheromone(int solutionComponent, int positionInSolution, TspEnvironment environment,
+                                    DepositBuffer depositBuffer, double amount) {
+        int previousComponent = this.initialReference;
+        if (positionInSolution > 0) {
+            previousComponent = getComponent(positionInSolution - 1);
+        }
+
+        depositBuffer.add(solutionComponent, previousComponent, amount);
+        if (!environment.getPheromoneStore().isSymmetric()) {
+            depositBuffer.add(previousComponent, solutionComponent, amount);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the pheromone of an edge through the pheromone store, so the update is atomic when the store
+     * supports it.
+     *
+     * @param solutionComponent  Solution component.
+     * @param positionInSolution Position of this component in the solution.
+     * @param environment        Environment instance with problem information.
+     * @param update             Function from the current pheromone value to the new one.
+     */
+    @Override
+    public void updatePheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                          TspEnvironment environment, DoubleUnaryOperator update) {
+        int previousComponent = this.initialReference;
         if (positionInSolution > 0) {
-            previousComponent = getSolution()[positionInSolution - 1];
+            previousComponent = getComponent(positionInSolution - 1);
         }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
-        pheromoneMatrix[solutionComponent][previousComponent] = value;
-        pheromoneMatrix[previousComponent][solutionComponent] = value;
+        PheromoneStore pheromoneStore = environment.getPheromoneStore();
+        double newValue = pheromoneStore.update(solutionComponent, previousComponent, update);
+        environment.updateChoiceInfo(solutionComponent, previousComponent);
 
+        if (!pheromoneStore.isSymmetric()) {
+            pheromoneStore.set(previousComponent, solutionComponent, newValue);
+            environment.updateChoiceInfo(previousComponent, solutionComponent);
+        }
     }
 
 
@@ -170,23 +320,10 @@ public class AntForTsp extends Ant<Integer, TspEnvironment>{
      * @return Distance between these cities.
      */
     public static double getDistance(int anIndex, int anotherIndex, double[][] problemRepresentation) {
-        double[] aCoordinate = getCityCoordinates(anIndex, problemRepresentation);
-        double[] anotherCoordinate = getCityCoordinates(anotherIndex, problemRepresentation);
-
-        return Math.round(new EuclideanDistance().compute(aCoordinate, anotherCoordinate));
-
-    }
+        double xDistance = problemRepresentation[anIndex][0] - problemRepresentation[anotherIndex][0];
+        double yDistance = problemRepresentation[anIndex][1] - problemRepresentation[anotherIndex][1];
 
-    /**
-     * Extracts the coordinates of a city from the coordinates array.
-     *
-     * @param index                 City index.
-     * @param problemRepresentation Coordinates array.
-     * @return Coordinates as a double array.
-     */
-    private static double[] getCityCoordinates(int index, double[][] problemRepresentation) {
-        return new double[]{problemRepresentation[index][0],
-                problemRepresentation[index][1]};
+        return Math.round(Math.sqrt(xDistance * xDistance + yDistance * yDistance));
 
     }
 
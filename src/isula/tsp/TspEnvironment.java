@@ -2,17 +2,45 @@ package isula.tsp;
 
 import isula.aco.Environment;
 import isula.aco.exception.InvalidInputException;
+import isula.aco.pheromone.CandidatePheromoneStore;
+import isula.aco.pheromone.OffHeapPheromoneStore;
+import isula.aco.pheromone.PheromoneStore;
+import isula.aco.pheromone.SymmetricPheromoneStore;
 
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * Created by kevinhung on 2017/4/10.
+ *
+ * Distances between cities are computed once, at construction, and stored in a row-major int matrix. For big
+ * instances the matrix is not built, and distances are calculated from the coordinates when needed.
+ * Optionally, the Environment also keeps a candidate list per city: its nearest cities, sorted by distance. Ants
+ * then only choose among those candidates, and each construction step no longer depends on the number of cities.
  */
 public class TspEnvironment extends Environment {
     private static Logger logger = Logger.getLogger(TspEnvironment.class.getName());
 
+    private static final double DELTA = Float.MIN_VALUE;
+
+    // Distance matrices for bigger instances are built using all the available cores.
+    private static final int PARALLEL_THRESHOLD = 1000;
+
+    // Largest number of cells we allocate for a row-major int array.
+    private static final long MAXIMUM_MATRIX_CELLS = Integer.MAX_VALUE - 8;
+
+    // Pheromone and choice-info stores move off-heap when they would take more than this fraction of the heap.
+    private static final double MAXIMUM_HEAP_FRACTION = 0.5;
+
+    // The distance matrix is only built if it takes less than this fraction of the heap, leaving room for the
+    // pheromone and choice-info stores.
+    private static final double MAXIMUM_DISTANCE_HEAP_FRACTION = 0.25;
+
     private final int numberOfCities;
+    private final int[] distanceMatrix;
 
+    private final int candidateListSize;
+    private final int[] candidateLists;
 
 
     /**
@@ -22,25 +50,241 @@ public class TspEnvironment extends Environment {
      * @throws InvalidInputException When the problem graph is incorrectly formed.
      */
     public TspEnvironment(double[][] problemGraph) throws InvalidInputException {
+        this(problemGraph, 0);
+    }
+
+    /**
+     * Creates an Environment for the Ants to traverse, with nearest-neighbour candidate lists.
+     *
+     * @param problemGraph      Graph representation of the problem to be solved.
+     * @param candidateListSize Number of nearest cities kept per city, usually between 10 and 40. Use 0 to disable
+     *                          candidate lists.
+     * @throws InvalidInputException When the problem graph is incorrectly formed.
+     */
+    public TspEnvironment(double[][] problemGraph, int candidateListSize) throws InvalidInputException {
         super(problemGraph);
         this.numberOfCities = problemGraph.length;
+        this.distanceMatrix = createDistanceMatrix();
+        this.candidateListSize = Math.max(0, Math.min(candidateListSize, numberOfCities - 1));
+        this.candidateLists = createCandidateLists();
         logger.info("Number of cities: " + numberOfCities);
     }
 
+    /**
+     * Calculates the distance between every pair of cities. For instances too big to fit in an array, or that would
+     * take more than a quarter of the maximum heap size, no matrix is built and distances are calculated on demand.
+     *
+     * @return Row-major distance matrix, or null if the instance is too big.
+     */
+    private int[] createDistanceMatrix() {
+        long cellCount = (long) numberOfCities * numberOfCities;
+        double heapBytes = (double) cellCount * Integer.BYTES;
+        if (cellCount > MAXIMUM_MATRIX_CELLS
+                || heapBytes > MAXIMUM_DISTANCE_HEAP_FRACTION * Runtime.getRuntime().maxMemory()) {
+            logger.info("The instance is too big for a distance matrix: distances will be calculated on demand.");
+            return null;
+        }
+
+        final double[][] problemGraph = getProblemGraph();
+        final int[] distances = new int[numberOfCities * numberOfCities];
+
+        IntStream rows = IntStream.range(0, numberOfCities);
+        if (numberOfCities >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+
+        rows.forEach(row -> {
+            int rowOffset = row * numberOfCities;
+            for (int column = 0; column < numberOfCities; column++) {
+                distances[rowOffset + column] = (int) AntForTsp.getDistance(row, column, problemGraph);
+            }
+        });
+
+        return distances;
+    }
+
+    /**
+     * Finds the nearest cities of every city, sorted by increasing distance.
+     *
+     * @return Row-major candidate lists, or null if candidate lists are disabled.
+     */
+    private int[] createCandidateLists() {
+        if (candidateListSize == 0) {
+            return null;
+        }
+
+        final int[] candidates = new int[numberOfCities * candidateListSize];
+
+        IntStream cities = IntStream.range(0, numberOfCities);
+        if (numberOfCities >= PARALLEL_THRESHOLD) {
+            cities = cities.parallel();
+        }
+
+        cities.forEach(city -> {
+            int offset = city * candidateListSize;
+            int[] nearestDistances = new int[candidateListSize];
+            int found = 0;
+
+            for (int other = 0; other < numberOfCities; other++) {
+                if (other == city) {
+                    continue;
+                }
+
+                int distance = getDistance(city, other);
+                if (found == candidateListSize && distance >= nearestDistances[found - 1]) {
+                    continue;
+                }
+
+                // Insertion on the sorted list, dropping the farthest candidate when it is full.
+                int position = found < candidateListSize ? found++ : found - 1;
+                while (position > 0 && nearestDistances[position - 1] > distance) {
+                    nearestDistances[position] = nearestDistances[position - 1];
+                    candidates[offset + position] = candidates[offset + position - 1];
+                    position--;
+                }
+                nearestDistances[position] = distance;
+                candidates[offset + position] = other;
+            }
+        });
+
+        return candidates;
+    }
+
+    /**
+     * Indicates if this Environment keeps nearest-neighbour candidate lists.
+     *
+     * @return True if candidate lists are enabled.
+     */
+    public boolean hasCandidateLists() {
+        return candidateLists != null;
+    }
+
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Returns a candidate of a city.
+     *
+     * @param city     City index.
+     * @param position Position on the candidate list, lower than getCandidateListSize().
+     * @return The city at that position, being 0 the nearest one.
+     */
+    public int getCandidate(int city, int position) {
+        return candidateLists[city * candidateListSize + position];
+    }
+
+    /**
+     * Returns the choice-info value of the edge between a city and one of its candidates, with a single read: the
+     * candidate pheromone store keeps that edge on cell city * getCandidateListSize() + position.
+     *
+     * @param city     City index.
+     * @param position Position on the candidate list of the city.
+     * @return Choice-info value.
+     */
+    public double getCandidateChoiceInfo(int city, int position) {
+        return getChoiceInfoCell((long) city * candidateListSize + position);
+    }
+
+    /**
+     * Indicates if distances are read from a distance matrix, or calculated from the coordinates.
+     *
+     * @return True if this Environment keeps a distance matrix.
+     */
+    public boolean hasDistanceMatrix() {
+        return distanceMatrix != null;
+    }
+
+    /**
+     * Returns the distance between two cities.
+     *
+     * @param anIndex      Index of a city.
+     * @param anotherIndex Index of another city.
+     * @return Distance between these cities.
+     */
+    public int getDistance(int anIndex, int anotherIndex) {
+        if (distanceMatrix == null) {
+            return (int) AntForTsp.getDistance(anIndex, anotherIndex, getProblemGraph());
+        }
+        return distanceMatrix[anIndex * numberOfCities + anotherIndex];
+    }
+
+    /**
+     * Calculates the total distance of a route for the salesman.
+     *
+     * @param route       Route to evaluate.
+     * @param routeLength Number of cities in the route.
+     * @return Total distance.
+     */
+    public double getTotalDistance(int[] route, int routeLength) {
+        long totalDistance = 0;
+
+        for (int solutionIndex = 1; solutionIndex < routeLength; solutionIndex += 1) {
+            totalDistance += getDistance(route[solutionIndex - 1], route[solutionIndex]);
+        }
+
+        totalDistance += getDistance(route[routeLength - 1], route[0]);
+        return totalDistance;
+    }
+
     public int getNumberOfCities() {
         return getProblemGraph().length;
     }
 
 
     /**
-     * The pheromone matrix in the TSP problem stores a pheromone value per city and per position of this city on
-     * the route. That explains the dimensions selected for the pheromone matrix.
+     * On TSP, heuristic information only depends on the pair of cities, so a choice-info matrix can be kept.
+     *
+     * @return True.
+     */
+    @Override
+    protected boolean isChoiceInfoSupported() {
+        return true;
+    }
+
+    /**
+     * On TSP, heuristic information is the inverse of the distance between two cities.
+     *
+     * @param row    A city.
+     * @param column Another city.
+     * @return Heuristic information.
+     */
+    @Override
+    public double getHeuristicInformation(int row, int column) {
+        double distance = getDistance(row, column) + DELTA;
+        return 1 / distance;
+    }
+
+    /**
+     * The pheromone matrix in the TSP problem stores a pheromone value per edge between cities. Since distances
+     * are symmetric, only the upper triangle of the matrix is stored. It is stored off-heap if requested, if it
+     * doesn't fit on a single array, or if it would take -with the choice-info matrix- more than half of the
+     * maximum heap size.
+     * <p>
+     * <p>
+     * With candidate lists, ants only move along candidate edges, so only those are stored.
      *
-     * @return Pheromone matrix instance.
+     * @return Pheromone store instance.
      */
     @Override
-    protected double[][] createPheromoneMatrix() {
+    protected PheromoneStore createPheromoneStore() {
+        if (hasCandidateLists()) {
+            return new CandidatePheromoneStore(numberOfCities, candidateListSize, candidateLists, true);
+        }
+
         int numberOfCities = getNumberOfCities();
-        return new double[numberOfCities][numberOfCities];
+        long cellCount = (long) numberOfCities * (numberOfCities + 1) / 2;
+        long bytesPerCell = isSinglePrecisionStorage() ? Float.BYTES : Double.BYTES;
+        // The choice-info matrix has the same size as the pheromone matrix.
+        double heapBytes = 2.0 * cellCount * bytesPerCell;
+
+        if (isOffHeapStorage() || cellCount > MAXIMUM_MATRIX_CELLS
+                || heapBytes > MAXIMUM_HEAP_FRACTION * Runtime.getRuntime().maxMemory()) {
+            logger.info("Storing the pheromone matrix off-heap");
+            // At the requested precision, so Environment doesn't need to copy it.
+            return new OffHeapPheromoneStore(numberOfCities, numberOfCities, true, isSinglePrecisionStorage());
+        }
+
+        return new SymmetricPheromoneStore(numberOfCities);
     }
 }
@@ -66,10 +66,20 @@ public class AcoAcsTspWithIsula {
                                                   Integer positionInSolution,
                                                   TspEnvironment environment,
                                                   ConfigurationProvider configurationProvider) {
+                return getNewPheromoneValue(solutionComponent, positionInSolution,
+                        getAnt().getPheromoneTrailValue(solutionComponent, positionInSolution, environment),
+                        environment, configurationProvider);
+            }
+
+            @Override
+            protected double getNewPheromoneValue(Integer solutionComponent,
+                                                  Integer positionInSolution,
+                                                  double currentValue,
+                                                  TspEnvironment environment,
+                                                  ConfigurationProvider configurationProvider) {
 
                 AcsTspProblemConfiguration configuration = (AcsTspProblemConfiguration) configurationProvider;
-                Double afterEvaporation = (1 - configuration.getLocalPheromoneCoefficient()) * getAnt().getPheromoneTrailValue(
-                        solutionComponent, positionInSolution, environment);
+                Double afterEvaporation = (1 - configuration.getLocalPheromoneCoefficient()) * currentValue;
                 Double contribution = configuration.getLocalPheromoneCoefficient() * configurationProvider.getInitialPheromoneValue();
 
                 return afterEvaporation + contribution;
@@ -6,6 +6,7 @@ import isula.tsp.AntForTsp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by kevinhung on 2017/4/10.
@@ -17,6 +18,7 @@ import java.util.List;
  */
 public class AcsTspProblemConfiguration implements AcsConfigurationProvider {
     private double initialPheromoneValue;
+    private final Long randomSeed;
 
 
     /**
@@ -26,6 +28,21 @@ public class AcsTspProblemConfiguration implements AcsConfigurationProvider {
      * @param problemRepresentation TSP coordinate information.
      */
     public AcsTspProblemConfiguration(double[][] problemRepresentation) {
+        this(problemRepresentation, null);
+    }
+
+    /**
+     * Creates a configuration for reproducible runs: both the random solution and the ants are seeded.
+     *
+     * @param problemRepresentation TSP coordinate information.
+     * @param randomSeed            Master seed.
+     */
+    public AcsTspProblemConfiguration(double[][] problemRepresentation, long randomSeed) {
+        this(problemRepresentation, Long.valueOf(randomSeed));
+    }
+
+    private AcsTspProblemConfiguration(double[][] problemRepresentation, Long randomSeed) {
+        this.randomSeed = randomSeed;
         List<Integer> randomSolution = new ArrayList<>();
         int numberOfCities = problemRepresentation.length;
 
@@ -33,7 +50,7 @@ public class AcsTspProblemConfiguration implements AcsConfigurationProvider {
             randomSolution.add(cityIndex);
         }
 
-        Collections.shuffle(randomSolution);
+        Collections.shuffle(randomSolution, randomSeed == null ? new Random() : new Random(randomSeed));
 
         double randomQuality = AntForTsp.getTotalDistance(
                 randomSolution.toArray(new Integer[randomSolution.size()]),
@@ -85,4 +102,9 @@ public class AcsTspProblemConfiguration implements AcsConfigurationProvider {
     public double getBestChoiceProbability() {
         return 0.9;
     }
+
+    @Override
+    public Long getRandomSeed() {
+        return randomSeed;
+    }
 }
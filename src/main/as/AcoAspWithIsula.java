@@ -2,6 +2,7 @@ package main.as;
 
 import isula.aco.*;
 import isula.aco.algorithms.antsystem.*;
+import isula.aco.algorithms.stagnation.StagnationControl;
 import isula.aco.exception.InvalidInputException;
 import isula.asp.AntForAsp;
 import isula.asp.AspEnvironment;
@@ -11,7 +12,6 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -20,7 +20,7 @@ import java.util.logging.Logger;
  * Created by kevinhung on 2017/4/18.
  *
  *
- * buildSolutions has been override for antColony
+ * buildSolution has been override for antColony
  *
  */
 public class AcoAspWithIsula {
@@ -57,7 +57,8 @@ public class AcoAspWithIsula {
         AcoProblemSolver<Integer, AspEnvironment> solver = new AcoProblemSolver<>();
         solver.initialize(environment, colony, configurationProvider);
 
-        solver.addDaemonActions(new StartPheromoneMatrix<>(), new PerformEvaporation<>(), getPheromoneUpdatePolicy());
+        solver.addDaemonActions(new StartPheromoneMatrix<>(), new PerformEvaporation<>(), getPheromoneUpdatePolicy(),
+                new StagnationControl<>());
         solver.getAntColony().addAntPolicies(new RandomNodeSelection<>(), new NodeMergingSelection<>());
 
         solver.solveProblem();
@@ -78,46 +79,35 @@ public class AcoAspWithIsula {
         return new AntColony<Integer, AspEnvironment>(configurationProvider.getNumberOfAnts()) {
             @Override
             protected Ant<Integer, AspEnvironment> createAnt(AspEnvironment environment) {
-                int initialReference = new Random().nextInt(environment.getNumberOfCities());
                 return new AntForAsp(environment.getNumberOfCities(), environment.getProblemGraph());
             }
 
             @Override
-            public void buildSolutions(AspEnvironment environment, ConfigurationProvider configurationProvider) {
-                logger.log(Level.FINE, "BUILDING ANT SOLUTIONS");
-                int antCounter = 0;
-
-                if (getHive().size() == 0) {
-                    throw new isula.aco.exception.ConfigurationException(
-                            "Your colony is empty: You have no ants to solve the problem. "
-                                    + "Have you called the buildColony() method?");
-                }
-
-                for (Ant<Integer, AspEnvironment> ant : getHive()) {
-                    logger.fine("Current ant: " + antCounter);
-
-                    // TODO ant.isSolutionReady
-                    while (!ant.isSolutionReady(environment)) {
-                        ant.selectNextNode(environment, configurationProvider);
-                        ant.selectMergingNode(environment, configurationProvider);
+            protected void buildSolution(Ant<Integer, AspEnvironment> ant, AspEnvironment environment,
+                                         ConfigurationProvider configurationProvider) {
+                // TODO ant.isSolutionReady
+                while (!ant.isSolutionReady(environment)) {
+                    if (isConstructionCancelled()) {
+                        return;
+                    }
+                    ant.selectNextNode(environment, configurationProvider);
+                    ant.selectMergingNode(environment, configurationProvider);
 
 //                        if (ant.getVisited().size() != environment.getNumberOfCities()) {
 //                            ant.selectNextNode(environment, configurationProvider);
 //                            ant.selectMergingNode(environment, configurationProvider);
 //                        }
 
-                    }
+                }
 
 //                    ant.doAfterSolutionIsReady(environment, configurationProvider);
 
 //                    System.out.println(ant.getSolutionAsString());
 //                    System.out.println(ant.getSolutionCost(environment));
 //                    System.out.println(ant.getVisited().size());
-                    logger.log(Level.FINE,
-                            "Solution is ready > Cost: " + ant.getSolutionCost(environment)
-                                    + ", Solution: " + ant.getSolutionAsString());
-
-                    antCounter++;
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Solution is ready > Cost: " + ant.getSolutionCost(environment)
+                            + ", Solution: " + ant.getSolutionAsString());
                 }
             }
         };
@@ -129,15 +119,14 @@ public class AcoAspWithIsula {
      * @return A daemon action that implements this procedure.
      */
     private static DaemonAction<Integer, AspEnvironment> getPheromoneUpdatePolicy() {
-        return new OfflinePheromoneUpdate<Integer, AspEnvironment>() {
+        return new ParallelPheromoneDeposit<Integer, AspEnvironment>() {
             @Override
-            protected double getNewPheromoneValue(Ant<Integer, AspEnvironment> ant,
-                                                  Integer positionInSolution,
-                                                  Integer solutionComponent,
-                                                  AspEnvironment environment,
-                                                  ConfigurationProvider configurationProvider) {
-                Double contribution = 1 / (1 - ant.getTotalVisualQuality());
-                return ant.getPheromoneTrailValue(solutionComponent, positionInSolution, environment) + contribution;
+            protected double getPheromoneDeposit(Ant<Integer, AspEnvironment> ant,
+                                                 Integer positionInSolution,
+                                                 Integer solutionComponent,
+                                                 AspEnvironment environment,
+                                                 ConfigurationProvider configurationProvider) {
+                return 1 / (1 - ant.getTotalVisualQuality());
             }
         };
     }
@@ -0,0 +1,49 @@
+package main.as;
+
+import isula.aco.SolverResult;
+import isula.aco.algorithms.island.IslandCoordinator;
+import isula.aco.algorithms.island.RemoteIsland;
+import isula.tsp.TspEnvironment;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * Solves a TSP instance with the Ant System algorithm on several islands, each one on its own process. Without
+ * arguments -or with just the instance file- this process is the coordinator, and it launches the islands.
+ * Islands run this same class, with the coordinator port and their index as first arguments.
+ */
+public class AcoTspWithIslandProcesses {
+
+    private static Logger logger = Logger.getLogger(AcoTspWithIslandProcesses.class.getName());
+
+    private static final String DEFAULT_FILE_NAME = "/Users/kevinhung/IdeaProjects/isula/resources/berlin52.tsp";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2) {
+            String fileName = args.length > 2 ? args[2] : DEFAULT_FILE_NAME;
+            solveIsland(Integer.parseInt(args[0]), Integer.parseInt(args[1]), fileName);
+            return;
+        }
+
+        String fileName = args.length > 0 ? args[0] : DEFAULT_FILE_NAME;
+        logger.info("fileName : " + fileName);
+
+        double[][] problemRepresentation = AcoTspWithIsula.getRepresentationFromFile(fileName);
+        IslandCoordinator<Integer> coordinator = new IslandCoordinator<>(
+                new TspProblemConfiguration(problemRepresentation));
+        SolverResult<Integer> result = coordinator.solveProblem(AcoTspWithIslandProcesses.class, fileName);
+
+        logger.info("Best solution cost: " + result.getCost());
+    }
+
+    private static void solveIsland(int coordinatorPort, int islandIndex, String fileName) throws IOException {
+        double[][] problemRepresentation = AcoTspWithIsula.getRepresentationFromFile(fileName);
+        TspProblemConfiguration configurationProvider = new TspProblemConfiguration(problemRepresentation);
+
+        RemoteIsland<Integer, TspEnvironment> island = new RemoteIsland<>(
+                AcoTspWithIslands.createIslandSolver(problemRepresentation, configurationProvider),
+                configurationProvider, coordinatorPort, islandIndex);
+        island.solveProblem();
+    }
+}
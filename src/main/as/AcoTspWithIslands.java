@@ -0,0 +1,66 @@
+package main.as;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.algorithms.antsystem.PerformEvaporation;
+import isula.aco.algorithms.antsystem.RandomNodeSelection;
+import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
+import isula.aco.algorithms.island.IslandFactory;
+import isula.aco.algorithms.island.IslandSolver;
+import isula.aco.exception.ConfigurationException;
+import isula.aco.exception.InvalidInputException;
+import isula.tsp.TspEnvironment;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+/**
+ * Solves the berlin52 instance with the Ant System algorithm on several islands, one per thread, that migrate
+ * their best solutions and pheromone every few iterations.
+ */
+public class AcoTspWithIslands {
+
+    private static Logger logger = Logger.getLogger(AcoTspWithIslands.class.getName());
+
+    public static void main(String[] args) throws IOException {
+        String fileName = "/Users/kevinhung/IdeaProjects/isula/resources/berlin52.tsp";
+        logger.info("fileName : " + fileName);
+
+        final double[][] problemRepresentation = AcoTspWithIsula.getRepresentationFromFile(fileName);
+        TspProblemConfiguration configurationProvider = new TspProblemConfiguration(problemRepresentation);
+
+        IslandSolver<Integer, TspEnvironment> solver = new IslandSolver<>(configurationProvider,
+                new IslandFactory<Integer, TspEnvironment>() {
+                    @Override
+                    public AcoProblemSolver<Integer, TspEnvironment> createIsland(int islandIndex) {
+                        return createIslandSolver(problemRepresentation, new TspProblemConfiguration(problemRepresentation));
+                    }
+                });
+        solver.solveProblem();
+
+        logger.info("Best solution cost: " + solver.getBestSolutionCost());
+    }
+
+    /**
+     * Produces the Ant System solver of a single island.
+     *
+     * @param problemRepresentation TSP coordinate information.
+     * @param configurationProvider Algorithm configuration of the island.
+     * @return Initialized solver.
+     */
+    public static AcoProblemSolver<Integer, TspEnvironment> createIslandSolver(double[][] problemRepresentation,
+                                                                              TspProblemConfiguration configurationProvider) {
+        TspEnvironment environment;
+        try {
+            environment = new TspEnvironment(problemRepresentation);
+        } catch (InvalidInputException e) {
+            throw new ConfigurationException("Invalid TSP instance: " + e.getMessage());
+        }
+
+        AcoProblemSolver<Integer, TspEnvironment> solver = new AcoProblemSolver<>();
+        solver.initialize(environment, AcoTspWithIsula.getAntColony(configurationProvider), configurationProvider);
+        solver.addDaemonActions(new StartPheromoneMatrix<>(), new PerformEvaporation<>(),
+                AcoTspWithIsula.getPheromoneUpdatePolicy());
+        solver.getAntColony().addAntPolicies(new RandomNodeSelection<>());
+        return solver;
+    }
+}
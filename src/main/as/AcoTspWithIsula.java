@@ -1,7 +1,7 @@
 package main.as;
 
 import isula.aco.*;
-import isula.aco.algorithms.antsystem.OfflinePheromoneUpdate;
+import isula.aco.algorithms.antsystem.ParallelPheromoneDeposit;
 import isula.aco.algorithms.antsystem.PerformEvaporation;
 import isula.aco.algorithms.antsystem.RandomNodeSelection;
 import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
@@ -14,7 +14,6 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -82,7 +81,6 @@ public class AcoTspWithIsula {
         return new AntColony<Integer, TspEnvironment>(configurationProvider.getNumberOfAnts()) {
             @Override
             protected Ant<Integer, TspEnvironment> createAnt(TspEnvironment environment) {
-                int initialReference = new Random().nextInt(environment.getNumberOfCities());
                 return new AntForTsp(environment.getNumberOfCities());
             }
         };
@@ -93,16 +91,15 @@ public class AcoTspWithIsula {
      *
      * @return A daemon action that implements this procedure.
      */
-    private static DaemonAction<Integer, TspEnvironment> getPheromoneUpdatePolicy() {
-        return new OfflinePheromoneUpdate<Integer, TspEnvironment>() {
+    public static DaemonAction<Integer, TspEnvironment> getPheromoneUpdatePolicy() {
+        return new ParallelPheromoneDeposit<Integer, TspEnvironment>() {
             @Override
-            protected double getNewPheromoneValue(Ant<Integer, TspEnvironment> ant,
-                                                  Integer positionInSolution,
-                                                  Integer solutionComponent,
-                                                  TspEnvironment environment,
-                                                  ConfigurationProvider configurationProvider) {
-                Double contribution = 1 / ant.getSolutionCost(environment);
-                return ant.getPheromoneTrailValue(solutionComponent, positionInSolution, environment) + contribution;
+            protected double getPheromoneDeposit(Ant<Integer, TspEnvironment> ant,
+                                                 Integer positionInSolution,
+                                                 Integer solutionComponent,
+                                                 TspEnvironment environment,
+                                                 ConfigurationProvider configurationProvider) {
+                return 1 / ant.getSolutionCost(environment);
             }
         };
     }
@@ -1,11 +1,11 @@
 package main.as;
 
-import isula.aco.ConfigurationProvider;
+import isula.aco.algorithms.stagnation.StagnationConfigurationProvider;
 
 /**
  * Created by kevinhung on 2017/4/18.
  */
-public class AspProblemConfiguration implements ConfigurationProvider {
+public class AspProblemConfiguration implements StagnationConfigurationProvider {
 
     private double initialPheromoneValue;
     private double initialVisualQuality;
@@ -65,6 +65,21 @@ public class AspProblemConfiguration implements ConfigurationProvider {
         return 10;
     } //1
 
+    @Override
+    public int getMaximumIterationsWithoutImprovement() {
+        return 50;
+    }
+
+    @Override
+    public double getMinimumBranchingFactor() {
+        return 0;
+    }
+
+    @Override
+    public double getMinimumPheromoneEntropy() {
+        return 0;
+    }
+
     /**
      * Maximum thickness for each layer
      */
@@ -1,11 +1,12 @@
 package main.as;
 
-import isula.aco.ConfigurationProvider;
+import isula.aco.algorithms.island.IslandConfigurationProvider;
 import isula.tsp.AntForTsp;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by kevinhung on 2017/4/10.
@@ -16,9 +17,10 @@ import java.util.List;
  * This class contains the algorithm configuration of the Ant System algorithm described in
  * Section 6.3 of the Clever Algorithms book by Jason Brownlee.
  */
-public class TspProblemConfiguration implements ConfigurationProvider {
+public class TspProblemConfiguration implements IslandConfigurationProvider {
 
     private double initialPheromoneValue;
+    private final Long randomSeed;
 
 
     /**
@@ -28,6 +30,21 @@ public class TspProblemConfiguration implements ConfigurationProvider {
      * @param problemRepresentation TSP coordinate information.
      */
     public TspProblemConfiguration(double[][] problemRepresentation) {
+        this(problemRepresentation, null);
+    }
+
+    /**
+     * Creates a configuration for reproducible runs: both the random solution and the ants are seeded.
+     *
+     * @param problemRepresentation TSP coordinate information.
+     * @param randomSeed            Master seed.
+     */
+    public TspProblemConfiguration(double[][] problemRepresentation, long randomSeed) {
+        this(problemRepresentation, Long.valueOf(randomSeed));
+    }
+
+    private TspProblemConfiguration(double[][] problemRepresentation, Long randomSeed) {
+        this.randomSeed = randomSeed;
         List<Integer> randomSolution = new ArrayList<>();
         int numberOfCities = problemRepresentation.length;
 
@@ -35,7 +52,7 @@ public class TspProblemConfiguration implements ConfigurationProvider {
             randomSolution.add(cityIndex);
         }
 
-        Collections.shuffle(randomSolution);
+        Collections.shuffle(randomSolution, randomSeed == null ? new Random() : new Random(randomSeed));
 
         double randomQuality = AntForTsp.getTotalDistance(
                 randomSolution.toArray(new Integer[randomSolution.size()]),
@@ -72,4 +89,19 @@ public class TspProblemConfiguration implements ConfigurationProvider {
     public double getPheromoneImportance() {
         return 1.0;
     }
+
+    @Override
+    public Long getRandomSeed() {
+        return randomSeed;
+    }
+
+    @Override
+    public int getNumberOfIslands() {
+        return 4;
+    }
+
+    @Override
+    public int getMigrationInterval() {
+        return 10;
+    }
 }
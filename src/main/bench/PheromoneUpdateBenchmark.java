@@ -0,0 +1,93 @@
+package main.bench;
+
+import isula.aco.pheromone.AtomicPheromoneStore;
+import isula.aco.pheromone.PheromoneStore;
+import isula.aco.pheromone.StripedLockPheromoneStore;
+import isula.aco.pheromone.SymmetricPheromoneStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Compares concurrent pheromone updates on a plain store -the relaxed, racy mode-, on an AtomicPheromoneStore and
+ * on a StripedLockPheromoneStore.
+ * Every thread performs the Ant Colony System local update on random edges, and then adds a unit of pheromone to
+ * count how many updates were lost. The number of threads can be passed as the first argument: by default, one
+ * per available processor.
+ */
+public class PheromoneUpdateBenchmark {
+
+    private static Logger logger = Logger.getLogger(PheromoneUpdateBenchmark.class.getName());
+
+    private static final int NUMBER_OF_CITIES = 1000;
+    private static final int UPDATES_PER_THREAD = 2000000;
+    private static final int HOT_CITIES = 50;
+    private static final double LOCAL_PHEROMONE_COEFFICIENT = 0.1;
+    private static final double INITIAL_PHEROMONE_VALUE = 0.001;
+
+    public static void main(String[] args) throws Exception {
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            numberOfThreads = Integer.parseInt(args[0]);
+        }
+        logger.info("Threads: " + numberOfThreads + " Updates per thread: " + UPDATES_PER_THREAD);
+
+        for (int round = 0; round < 3; round++) {
+            runBenchmark("Racy", new SymmetricPheromoneStore(NUMBER_OF_CITIES), numberOfThreads);
+            runBenchmark("Atomic", new AtomicPheromoneStore(NUMBER_OF_CITIES, NUMBER_OF_CITIES, true),
+                    numberOfThreads);
+            runBenchmark("Striped lock", new StripedLockPheromoneStore(new SymmetricPheromoneStore(NUMBER_OF_CITIES)),
+                    numberOfThreads);
+        }
+    }
+
+    private static void runBenchmark(String mode, PheromoneStore pheromoneStore, int numberOfThreads)
+            throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        pheromoneStore.fill(INITIAL_PHEROMONE_VALUE);
+        long startTime = System.nanoTime();
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+            long seed = thread;
+            tasks.add(executorService.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    int row = random.nextInt(HOT_CITIES);
+                    int column = random.nextInt(HOT_CITIES);
+                    pheromoneStore.update(row, column, value -> (1 - LOCAL_PHEROMONE_COEFFICIENT) * value
+                            + LOCAL_PHEROMONE_COEFFICIENT * INITIAL_PHEROMONE_VALUE);
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        long updateTime = System.nanoTime() - startTime;
+
+        // Counting pass: every update adds 1 to the same cell.
+        pheromoneStore.set(0, 1, 0);
+        tasks.clear();
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+            tasks.add(executorService.submit(() -> {
+                for (int i = 0; i < UPDATES_PER_THREAD / 10; i++) {
+                    pheromoneStore.update(0, 1, value -> value + 1);
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executorService.shutdown();
+
+        long expectedUpdates = (long) numberOfThreads * (UPDATES_PER_THREAD / 10);
+        long lostUpdates = expectedUpdates - (long) pheromoneStore.get(0, 1);
+        logger.info(mode + " mode: " + (updateTime / 1000000) + " ms for local updates. Lost updates: "
+                + lostUpdates + " of " + expectedUpdates);
+    }
+}
@@ -0,0 +1,184 @@
+package isula.aco;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.test.DummyFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class AcoProblemSolverTest {
+
+    private static final int SOLUTION_LENGTH = 3;
+    private static final double DELTA = 0.001;
+    private static final int NUMBER_OF_ITERATIONS = 5;
+
+    private AcoProblemSolver<Integer, Environment> problemSolver;
+    private Environment environment;
+
+    /**
+     * Prepares a solver without configuration, to feed it ants directly.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.problemSolver = new AcoProblemSolver<>();
+        this.environment = DummyFactory.createDummyEnvironment(new double[3][4], 3, 4);
+    }
+
+    @Test
+    public void testImprovementListeners() {
+        final List<SolverResult<Integer>> improvements = new ArrayList<>();
+        this.problemSolver.addImprovementListener(new Consumer<SolverResult<Integer>>() {
+            @Override
+            public void accept(SolverResult<Integer> solverResult) {
+                throw new IllegalStateException("Listener failures don't stop the solver");
+            }
+        });
+        this.problemSolver.addImprovementListener(new Consumer<SolverResult<Integer>>() {
+            @Override
+            public void accept(SolverResult<Integer> solverResult) {
+                improvements.add(solverResult);
+            }
+        });
+        assertFalse(this.problemSolver.getResult().hasSolution());
+
+        this.problemSolver.updateBestSolution(environment, Arrays.asList(
+                DummyFactory.createDummyAnt(2, SOLUTION_LENGTH),
+                DummyFactory.createDummyAnt(1, SOLUTION_LENGTH)));
+        this.problemSolver.updateBestSolution(environment, Arrays.asList(
+                DummyFactory.createDummyAnt(3, SOLUTION_LENGTH)));
+
+        assertEquals(1, improvements.size());
+        SolverResult<Integer> result = this.problemSolver.getResult();
+        assertTrue(result == improvements.get(0));
+        assertEquals(1.0, result.getCost(), DELTA);
+        assertEquals(SOLUTION_LENGTH, result.getSolution().length);
+
+        result.getSolution()[0] = 10;
+        assertEquals(null, result.getSolution()[0]);
+    }
+
+    @Test
+    public void testOfferSolution() {
+        Integer[] solution = new Integer[]{2, 0, 1};
+        assertTrue(this.problemSolver.offerSolution(new SolverResult<>(solution, 5.0, "2 0 1", null, 0)));
+        assertFalse(this.problemSolver.offerSolution(new SolverResult<>(solution, 6.0, "2 0 1", null, 0)));
+        assertFalse(this.problemSolver.offerSolution(new SolverResult<Integer>(null, 1.0, "", null, 0)));
+
+        assertEquals(5.0, this.problemSolver.getBestSolutionCost(), DELTA);
+        assertEquals(Integer.valueOf(2), this.problemSolver.getBestSolution()[0]);
+    }
+
+    @Test
+    public void testSolveAsyncCancelled() {
+        final List<Runnable> pendingTasks = new ArrayList<>();
+        this.problemSolver.setAntColony(new AntColony<Integer, Environment>(1) {
+
+            @Override
+            protected Ant<Integer, Environment> createAnt(Environment environment) {
+                return DummyFactory.createDummyAnt(1, SOLUTION_LENGTH);
+            }
+        });
+
+        CompletableFuture<SolverResult<Integer>> future = this.problemSolver.solveAsync(pendingTasks::add);
+        assertTrue(future.cancel(true));
+        assertTrue(this.problemSolver.isStopRequested());
+        assertTrue(this.problemSolver.getAntColony().isConstructionCancelled());
+
+        pendingTasks.get(0).run();
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testSolveAsyncCancelledWhileBuilding() throws Exception {
+        final CountDownLatch antsBuilding = new CountDownLatch(1);
+        final AtomicBoolean blockAnts = new AtomicBoolean(true);
+        ExecutorService antExecutor = Executors.newFixedThreadPool(2);
+        AntColony<Integer, Environment> antColony = new AntColony<Integer, Environment>(2) {
+
+            @Override
+            protected Ant<Integer, Environment> createAnt(Environment environment) {
+                return DummyFactory.createDummyAnt(1, SOLUTION_LENGTH);
+            }
+        };
+        antColony.setExecutorService(antExecutor);
+
+        this.problemSolver.initialize(environment, antColony, new ConfigurationProvider() {
+
+            public int getNumberOfAnts() {
+                return 2;
+            }
+
+            public double getEvaporationRatio() {
+                return 0;
+            }
+
+            public int getNumberOfIterations() {
+                return NUMBER_OF_ITERATIONS;
+            }
+
+            public double getInitialPheromoneValue() {
+                return 0;
+            }
+
+            public double getHeuristicImportance() {
+                return 1;
+            }
+
+            public double getPheromoneImportance() {
+                return 1;
+            }
+        });
+        antColony.addAntPolicies(new AntPolicy<Integer, Environment>(AntPolicyType.NODE_SELECTION) {
+
+            @Override
+            public boolean applyPolicy(Environment environment, ConfigurationProvider configurationProvider) {
+                // On the first run, ants only move after the future is cancelled.
+                if (blockAnts.get()) {
+                    antsBuilding.countDown();
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (!problemSolver.getAntColony().isConstructionCancelled()
+                            && System.nanoTime() < deadline) {
+                        Thread.yield();
+                    }
+                }
+                getAnt().visitNode(getAnt().getCurrentIndex());
+                return true;
+            }
+        });
+
+        ExecutorService solverExecutor = Executors.newSingleThreadExecutor();
+        CompletableFuture<SolverResult<Integer>> future = this.problemSolver.solveAsync(solverExecutor);
+        assertTrue(antsBuilding.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+
+        solverExecutor.shutdown();
+        assertTrue(solverExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, this.problemSolver.getCurrentIteration());
+        assertTrue(future.isCancelled());
+
+        // A cancelled run doesn't affect the next one.
+        blockAnts.set(false);
+        this.problemSolver.solveProblem();
+        assertEquals(NUMBER_OF_ITERATIONS, this.problemSolver.getCurrentIteration());
+        assertFalse(this.problemSolver.getAntColony().isConstructionCancelled());
+        assertEquals(1.0, this.problemSolver.getBestSolutionCost(), DELTA);
+
+        antExecutor.shutdown();
+    }
+}
@@ -1,6 +1,8 @@
 package isula.aco;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import isula.aco.test.DummyFactory;
 
@@ -8,6 +10,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class AntColonyTest {
@@ -54,6 +60,20 @@ public class AntColonyTest {
         assertEquals(NUMBER_OF_ANTS, this.dummyColony.getHive().size());
     }
 
+    @Test
+    public void testSeedAnts() {
+        this.dummyColony.buildColony(environment);
+        this.dummyColony.seedAnts(42L);
+        List<Ant<Integer, Environment>> hive = this.dummyColony.getHive();
+        long firstAntValue = hive.get(0).getRandom().nextLong();
+        long secondAntValue = hive.get(1).getRandom().nextLong();
+
+        this.dummyColony.seedAnts(42L);
+        assertEquals(secondAntValue, hive.get(1).getRandom().nextLong());
+        assertEquals(firstAntValue, hive.get(0).getRandom().nextLong());
+        assertTrue(firstAntValue != secondAntValue);
+    }
+
     @Test
     public void testGetBestPerformingAnt() {
         Ant<Integer, Environment> theBestAnt = DummyFactory.createDummyAnt(
@@ -67,6 +87,27 @@ public class AntColonyTest {
                         .getSolutionCost(this.environment), 0.001);
     }
 
+    @Test
+    public void testGetBestPerformingAntInParallel() {
+        Ant<Integer, Environment> theBestAnt = DummyFactory.createDummyAnt(
+                BEST_COST, SOLUTION_LENGTH);
+        Ant<Integer, Environment> anotherBestAnt = DummyFactory.createDummyAnt(
+                BEST_COST, SOLUTION_LENGTH);
+
+        this.dummyColony.buildColony(environment);
+        this.dummyColony.getHive().add(1, theBestAnt);
+        this.dummyColony.getHive().add(anotherBestAnt);
+        this.dummyColony.setExecutorService(Executors.newSingleThreadExecutor());
+
+        double[] solutionCosts = this.dummyColony.getSolutionCosts(this.environment);
+        assertEquals(NUMBER_OF_ANTS + 2, solutionCosts.length);
+        assertEquals(BEST_COST, solutionCosts[1], 0.001);
+        assertEquals(COMMON_COST, solutionCosts[2], 0.001);
+        assertEquals(theBestAnt, this.dummyColony.getBestPerformingAnt(this.environment));
+
+        this.dummyColony.getExecutorService().shutdown();
+    }
+
     @Test
     public void testClearAntSolutions() {
         List<Ant<Integer, Environment>> hive = this.dummyColony.getHive();
@@ -110,4 +151,216 @@ public class AntColonyTest {
             }
         }
     }
+
+    @Test
+    public void testBuildSolutionsInParallel() {
+
+        AntPolicy<Integer, Environment> nodeSelectionPolicy = new AntPolicy<Integer, Environment>(
+                AntPolicyType.NODE_SELECTION) {
+
+            @Override
+            public boolean applyPolicy(Environment environment,
+                                       ConfigurationProvider configurationProvider) {
+                this.getAnt().visitNode(SAMPLE_NODE);
+                return true;
+            }
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_ANTS);
+        this.dummyColony.buildColony(this.environment);
+        this.dummyColony.addAntPolicies(nodeSelectionPolicy);
+        this.dummyColony.setExecutorService(executorService);
+
+        this.dummyColony.buildSolutions(this.environment,
+                DummyFactory.createDummyConfigurationProvider());
+        executorService.shutdown();
+
+        for (Ant<Integer, Environment> ant : this.dummyColony.getHive()) {
+            assertEquals(SOLUTION_LENGTH, ant.getCurrentIndex());
+            assertEquals(ant, ant.getAntPolicy(AntPolicyType.NODE_SELECTION, 1).getAnt());
+        }
+    }
+
+    @Test
+    public void testConstructionDeadline() {
+        this.dummyColony.buildColony(this.environment);
+        this.dummyColony.setConstructionDeadline(System.nanoTime());
+
+        assertTrue(this.dummyColony.isDeadlineReached());
+        this.dummyColony.buildSolutions(this.environment,
+                DummyFactory.createDummyConfigurationProvider());
+
+        for (Ant<Integer, Environment> ant : this.dummyColony.getHive()) {
+            assertEquals(0, ant.getCurrentIndex());
+        }
+        assertTrue(this.dummyColony.getFinishedAnts(this.environment).isEmpty());
+
+        this.dummyColony.clearConstructionDeadline();
+        assertTrue(!this.dummyColony.isConstructionCancelled());
+    }
+
+    @Test
+    public void testCancelConstruction() {
+        this.dummyColony.buildColony(this.environment);
+        this.dummyColony.setExecutorService(AntColony.newThreadPerAntExecutor());
+        this.dummyColony.cancelConstruction();
+
+        this.dummyColony.buildSolutions(this.environment,
+                DummyFactory.createDummyConfigurationProvider());
+
+        for (Ant<Integer, Environment> ant : this.dummyColony.getHive()) {
+            assertEquals(0, ant.getCurrentIndex());
+        }
+
+        this.dummyColony.getExecutorService().shutdown();
+    }
+
+    @Test
+    public void testFinishedAntsAfterCancellation() throws Exception {
+        this.dummyColony.buildColony(this.environment);
+        final Ant<Integer, Environment> slowAnt = this.dummyColony.getHive().get(0);
+        final CountDownLatch otherAntsFinished = new CountDownLatch(NUMBER_OF_ANTS - 1);
+        final CountDownLatch slowAntStepStarted = new CountDownLatch(1);
+        final CountDownLatch cancellationDone = new CountDownLatch(1);
+        final AtomicBoolean slowAntStepEnded = new AtomicBoolean(false);
+
+        AntPolicy<Integer, Environment> nodeSelectionPolicy = new AntPolicy<Integer, Environment>(
+                AntPolicyType.NODE_SELECTION) {
+
+            @Override
+            public boolean applyPolicy(Environment environment,
+                                       ConfigurationProvider configurationProvider) {
+                if (getAnt() != slowAnt) {
+                    getAnt().visitNode(SAMPLE_NODE);
+                    if (getAnt().getCurrentIndex() == SOLUTION_LENGTH) {
+                        otherAntsFinished.countDown();
+                    }
+                    return true;
+                }
+
+                // The slow ant is still on its step when construction is cancelled.
+                try {
+                    otherAntsFinished.await();
+                    slowAntStepStarted.countDown();
+                    cancellationDone.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                getAnt().visitNode(SAMPLE_NODE);
+                slowAntStepEnded.set(true);
+                return true;
+            }
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_ANTS);
+        this.dummyColony.addAntPolicies(nodeSelectionPolicy);
+        this.dummyColony.setExecutorService(executorService);
+
+        Thread constructionThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dummyColony.buildSolutions(environment, DummyFactory.createDummyConfigurationProvider());
+            }
+        });
+        constructionThread.start();
+
+        slowAntStepStarted.await();
+        this.dummyColony.cancelConstruction();
+        // buildSolutions() can't return before the step of the slow ant ends.
+        assertTrue(constructionThread.isAlive());
+        cancellationDone.countDown();
+        constructionThread.join();
+        executorService.shutdown();
+
+        assertTrue(this.dummyColony.isConstructionCancelled());
+        assertTrue(slowAntStepEnded.get());
+        assertEquals(1, slowAnt.getCurrentIndex());
+
+        List<Ant<Integer, Environment>> finishedAnts = this.dummyColony.getFinishedAnts(this.environment);
+        assertEquals(NUMBER_OF_ANTS - 1, finishedAnts.size());
+        assertTrue(!finishedAnts.contains(slowAnt));
+    }
+
+    @Test
+    public void testConstructionScopeFailure() throws Exception {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicBoolean slowTaskStarted = new AtomicBoolean(false);
+        final AtomicBoolean slowTaskEnded = new AtomicBoolean(false);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        ConstructionScope scope = new ConstructionScope(executorService, new Runnable() {
+            @Override
+            public void run() {
+                cancelled.countDown();
+            }
+        });
+
+        scope.fork(new Runnable() {
+            @Override
+            public void run() {
+                slowTaskStarted.set(true);
+                try {
+                    // Like an ant, it stops on cancellation and not before.
+                    cancelled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                slowTaskEnded.set(true);
+            }
+        });
+        scope.fork(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("Construction failure");
+            }
+        });
+
+        try {
+            scope.join();
+            fail("The failure should be propagated");
+        } catch (IllegalStateException e) {
+            assertTrue(scope.isCancelled());
+            // A task not started before the failure is skipped. Once started, join() waits for it.
+            assertTrue(!slowTaskStarted.get() || slowTaskEnded.get());
+        }
+
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testConstructionFailureIsNotSticky() {
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        AntPolicy<Integer, Environment> nodeSelectionPolicy = new AntPolicy<Integer, Environment>(
+                AntPolicyType.NODE_SELECTION) {
+
+            @Override
+            public boolean applyPolicy(Environment environment,
+                                       ConfigurationProvider configurationProvider) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("Construction failure");
+                }
+                this.getAnt().visitNode(SAMPLE_NODE);
+                return true;
+            }
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_ANTS);
+        this.dummyColony.buildColony(this.environment);
+        this.dummyColony.addAntPolicies(nodeSelectionPolicy);
+        this.dummyColony.setExecutorService(executorService);
+
+        try {
+            this.dummyColony.buildSolutions(this.environment, DummyFactory.createDummyConfigurationProvider());
+            fail("The failure should be propagated");
+        } catch (IllegalStateException e) {
+            assertEquals("Construction failure", e.getMessage());
+        }
+
+        // The failed construction doesn't cancel the next one.
+        assertTrue(!this.dummyColony.isConstructionCancelled());
+        this.dummyColony.clearAntSolutions();
+        this.dummyColony.buildSolutions(this.environment, DummyFactory.createDummyConfigurationProvider());
+        executorService.shutdown();
+
+        assertEquals(NUMBER_OF_ANTS, this.dummyColony.getFinishedAnts(this.environment).size());
+    }
 }
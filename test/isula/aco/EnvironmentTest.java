@@ -1,9 +1,13 @@
 package isula.aco;
 
+import isula.aco.pheromone.OffHeapPheromoneStore;
 import isula.aco.test.DummyFactory;
+import isula.tsp.TspEnvironment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.*;
 
 public class EnvironmentTest {
@@ -96,4 +100,90 @@ public class EnvironmentTest {
       }
     }
   }
+
+  @Test
+  public void testUpdateChoiceInfo() throws Exception {
+    ConfigurationProvider configurationProvider = DummyFactory.createDummyConfigurationProvider();
+    this.dummyEnvironment.updateChoiceInfo(configurationProvider);
+    assertFalse(this.dummyEnvironment.hasChoiceInfo());
+
+    Environment choiceInfoEnvironment = DummyFactory.createChoiceInfoEnvironment(MATRIX_ROWS, MATRIX_COLUMNS,
+        new AtomicInteger());
+
+    choiceInfoEnvironment.populatePheromoneMatrix(SAMPLE_PHEROMONE);
+    choiceInfoEnvironment.updateChoiceInfo(configurationProvider);
+    assertTrue(choiceInfoEnvironment.hasChoiceInfo());
+    assertEquals(1.0, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+
+    ConfigurationProvider linearConfigurationProvider = DummyFactory.createDummyConfigurationProvider(1, 1);
+    choiceInfoEnvironment.updateChoiceInfo(linearConfigurationProvider);
+    assertEquals(3 * SAMPLE_PHEROMONE, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+
+    choiceInfoEnvironment.getPheromoneStore().set(1, 2, 2 * SAMPLE_PHEROMONE);
+    choiceInfoEnvironment.updateChoiceInfo(1, 2);
+    assertEquals(6 * SAMPLE_PHEROMONE, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+  }
+
+  @Test
+  public void testChoiceInfoWithLazyEvaporation() throws Exception {
+    final AtomicInteger heuristicCalls = new AtomicInteger();
+    Environment choiceInfoEnvironment = DummyFactory.createChoiceInfoEnvironment(MATRIX_ROWS, MATRIX_COLUMNS,
+        heuristicCalls);
+    ConfigurationProvider configurationProvider = DummyFactory.createDummyConfigurationProvider(1, 2);
+
+    choiceInfoEnvironment.useLazyEvaporation();
+    choiceInfoEnvironment.populatePheromoneMatrix(SAMPLE_PHEROMONE);
+    choiceInfoEnvironment.updateChoiceInfo(configurationProvider);
+    assertEquals(3 * SAMPLE_PHEROMONE * SAMPLE_PHEROMONE, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+
+    // Evaporation only changes the decay factor: cells are not recalculated.
+    int callsAfterRebuild = heuristicCalls.get();
+    choiceInfoEnvironment.applyFactorToPheromoneMatrix(0.5);
+    choiceInfoEnvironment.updateChoiceInfo(configurationProvider);
+    assertEquals(callsAfterRebuild, heuristicCalls.get());
+    assertEquals(3 * 0.25 * 0.25, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+
+    choiceInfoEnvironment.getPheromoneStore().set(1, 2, 1.0);
+    choiceInfoEnvironment.updateChoiceInfo(1, 2);
+    assertEquals(3.0, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+    assertEquals(3 * 0.25 * 0.25, choiceInfoEnvironment.getChoiceInfo(0, 3), DELTA);
+
+    // Deposits change stored values, so the next update rebuilds every cell.
+    choiceInfoEnvironment.applyFactorToPheromoneMatrix(0.5);
+    choiceInfoEnvironment.updateChoiceInfo(configurationProvider);
+    assertTrue(heuristicCalls.get() > callsAfterRebuild + 1);
+    assertEquals(3 * 0.5 * 0.5, choiceInfoEnvironment.getChoiceInfo(1, 2), DELTA);
+    assertEquals(3 * 0.125 * 0.125, choiceInfoEnvironment.getChoiceInfo(0, 3), DELTA);
+  }
+
+  @Test
+  public void testOffHeapStorage() throws Exception {
+    double[][] cities = {{0, 0}, {0, 3}, {4, 0}, {4, 3}};
+    TspEnvironment heapEnvironment = new TspEnvironment(cities);
+    assertFalse(heapEnvironment.getPheromoneStore() instanceof OffHeapPheromoneStore);
+
+    TspEnvironment offHeapEnvironment = new TspEnvironment(cities);
+    offHeapEnvironment.useOffHeapStorage();
+    offHeapEnvironment.populatePheromoneMatrix(SAMPLE_PHEROMONE);
+    assertTrue(offHeapEnvironment.getPheromoneStore() instanceof OffHeapPheromoneStore);
+    assertEquals(SAMPLE_PHEROMONE, offHeapEnvironment.getPheromoneStore().get(3, 1), DELTA);
+  }
+
+  @Test
+  public void testOffHeapSinglePrecisionStorage() throws Exception {
+    double[][] cities = {{0, 0}, {0, 3}, {4, 0}, {4, 3}};
+    TspEnvironment environment = new TspEnvironment(cities);
+    environment.useOffHeapStorage();
+    environment.useSinglePrecisionStorage();
+    environment.populatePheromoneMatrix(SAMPLE_PHEROMONE);
+
+    OffHeapPheromoneStore pheromoneStore = (OffHeapPheromoneStore) environment.getPheromoneStore();
+    assertTrue(pheromoneStore.isSinglePrecision());
+    assertEquals(SAMPLE_PHEROMONE, pheromoneStore.get(3, 1), DELTA);
+
+
+    // The choice-info matrix follows the precision of the pheromone store.
+    OffHeapPheromoneStore choiceInfoStore = (OffHeapPheromoneStore) pheromoneStore.createEmptyStore();
+    assertTrue(choiceInfoStore.isSinglePrecision());
+  }
 }
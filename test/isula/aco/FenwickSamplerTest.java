@@ -0,0 +1,97 @@
+package isula.aco;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FenwickSamplerTest {
+
+    private static final double DELTA = 0.001;
+
+    private FenwickSampler fenwickSampler;
+
+    /**
+     * Prepares a sampler with five nodes. The second one has no weight.
+     */
+    @Before
+    public void setUp() {
+        this.fenwickSampler = new FenwickSampler(5);
+        this.fenwickSampler.setInitialWeight(0, 1.0);
+        this.fenwickSampler.setInitialWeight(1, 0.0);
+        this.fenwickSampler.setInitialWeight(2, 3.0);
+        this.fenwickSampler.setInitialWeight(3, 2.0);
+        this.fenwickSampler.setInitialWeight(4, 2.0);
+        this.fenwickSampler.build();
+    }
+
+    @Test
+    public void testBuild() {
+        assertTrue(this.fenwickSampler.isBuilt());
+        assertEquals(4, this.fenwickSampler.getWeightedNodes());
+        assertEquals(8.0, this.fenwickSampler.getTotal(), DELTA);
+    }
+
+    @Test
+    public void testSample() {
+        assertEquals(0, this.fenwickSampler.sample(0.0));
+        assertEquals(0, this.fenwickSampler.sample(0.12));
+        assertEquals(2, this.fenwickSampler.sample(0.125));
+        assertEquals(2, this.fenwickSampler.sample(0.49));
+        assertEquals(3, this.fenwickSampler.sample(0.5));
+        assertEquals(4, this.fenwickSampler.sample(0.99));
+    }
+
+    @Test
+    public void testRemoveAndUpdate() {
+        this.fenwickSampler.remove(2);
+        assertEquals(3, this.fenwickSampler.getWeightedNodes());
+        assertEquals(5.0, this.fenwickSampler.getTotal(), DELTA);
+        assertEquals(3, this.fenwickSampler.sample(0.2));
+
+        this.fenwickSampler.update(1, 5.0);
+        assertEquals(10.0, this.fenwickSampler.getTotal(), DELTA);
+        assertEquals(1, this.fenwickSampler.sample(0.5));
+
+        this.fenwickSampler.remove(0);
+        this.fenwickSampler.remove(1);
+        this.fenwickSampler.remove(3);
+        this.fenwickSampler.remove(4);
+        assertEquals(-1, this.fenwickSampler.sample(0.5));
+    }
+
+    @Test
+    public void testRoundingDrift() {
+        FenwickSampler sampler = new FenwickSampler(2);
+        sampler.setInitialWeight(0, 1e20);
+        sampler.setInitialWeight(1, 1e-30);
+        sampler.build();
+
+        // 1e20 + 1e-30 - 1e20 is zero on the partial sums.
+        sampler.remove(0);
+        assertEquals(1, sampler.getWeightedNodes());
+        assertEquals(1e-30, sampler.getTotal(), 0.0);
+        assertEquals(1, sampler.sample(0.5));
+    }
+
+    @Test
+    public void testStaleNodes() {
+        this.fenwickSampler.invalidate(3);
+        this.fenwickSampler.invalidate(3);
+
+        assertEquals(3, this.fenwickSampler.pollStaleNode());
+        assertEquals(-1, this.fenwickSampler.pollStaleNode());
+    }
+
+    @Test
+    public void testReset() {
+        this.fenwickSampler.invalidate(1);
+        this.fenwickSampler.reset();
+
+        assertFalse(this.fenwickSampler.isBuilt());
+        assertEquals(-1, this.fenwickSampler.pollStaleNode());
+        assertEquals(0.0, this.fenwickSampler.getWeight(2), DELTA);
+    }
+}
@@ -0,0 +1,95 @@
+package isula.aco;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntAntTest {
+
+    private static final int NUMBER_OF_NODES = 130;
+
+    private IntAnt<Environment> dummyAnt;
+
+    /**
+     * Configures an Int Ant that has visited three nodes, one of them beyond the
+     * first word of the visited bitset.
+     */
+    @Before
+    public void setUp() {
+        this.dummyAnt = new IntAnt<Environment>(NUMBER_OF_NODES) {
+
+            @Override
+            public int getNeighbourhood(Environment environment, int[] neighbourhood) {
+                return 0;
+            }
+
+            @Override
+            public boolean isSolutionReady(Environment environment) {
+                return getCurrentIndex() == NUMBER_OF_NODES;
+            }
+
+            @Override
+            public double getSolutionCost(Environment environment) {
+                return 0;
+            }
+
+            @Override
+            public double getHeuristicValue(int solutionComponent, int positionInSolution,
+                                            Environment environment) {
+                return 0;
+            }
+
+            @Override
+            public double getPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                                 Environment environment) {
+                return 0;
+            }
+
+            @Override
+            public void setPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                               Environment environment, double value) {
+            }
+        };
+
+        this.dummyAnt.visitNode(0);
+        this.dummyAnt.visitNode(129);
+        this.dummyAnt.visitNode(64);
+    }
+
+    @Test
+    public void testVisitNode() {
+        assertEquals(3, this.dummyAnt.getCurrentIndex());
+        assertTrue(this.dummyAnt.isNodeVisited(0));
+        assertTrue(this.dummyAnt.isNodeVisited(129));
+        assertTrue(this.dummyAnt.isNodeVisited(Integer.valueOf(64)));
+        assertFalse(this.dummyAnt.isNodeVisited(1));
+        assertFalse(this.dummyAnt.isNodeVisited(65));
+        assertEquals(129, this.dummyAnt.getComponent(1));
+    }
+
+    @Test
+    public void testClear() {
+        this.dummyAnt.clear();
+
+        assertEquals(0, this.dummyAnt.getCurrentIndex());
+        assertFalse(this.dummyAnt.isNodeVisited(0));
+        assertFalse(this.dummyAnt.isNodeVisited(129));
+        assertTrue(this.dummyAnt.getVisited().isEmpty());
+        assertNull(this.dummyAnt.getSolution()[0]);
+    }
+
+    @Test
+    public void testGetSolution() {
+        Integer[] solution = this.dummyAnt.getSolution();
+
+        assertEquals(NUMBER_OF_NODES, solution.length);
+        assertArrayEquals(new Integer[]{0, 129, 64}, new Integer[]{solution[0], solution[1], solution[2]});
+        assertNull(solution[3]);
+        assertEquals(" 0 129 64", this.dummyAnt.getSolutionAsString());
+    }
+}
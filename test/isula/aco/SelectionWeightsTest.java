@@ -0,0 +1,53 @@
+package isula.aco;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SelectionWeightsTest {
+
+    private static final double DELTA = 0.001;
+
+    private SelectionWeights selectionWeights;
+
+    /**
+     * Prepares a buffer with three candidates. The second one has no weight.
+     */
+    @Before
+    public void setUp() {
+        this.selectionWeights = new SelectionWeights(4);
+        this.selectionWeights.add(7, 1.0);
+        this.selectionWeights.add(8, 0.0);
+        this.selectionWeights.add(9, 3.0);
+    }
+
+    @Test
+    public void testAdd() {
+        assertEquals(3, this.selectionWeights.getSize());
+        assertEquals(4.0, this.selectionWeights.getTotal(), DELTA);
+        assertEquals(9, this.selectionWeights.getNode(2));
+    }
+
+    @Test
+    public void testSample() {
+        assertEquals(0, this.selectionWeights.sample(0.0));
+        assertEquals(0, this.selectionWeights.sample(0.24));
+        assertEquals(2, this.selectionWeights.sample(0.25));
+        assertEquals(2, this.selectionWeights.sample(0.99));
+    }
+
+    @Test
+    public void testArgMax() {
+        assertEquals(2, this.selectionWeights.argMax());
+    }
+
+    @Test
+    public void testClear() {
+        this.selectionWeights.clear();
+
+        assertEquals(0, this.selectionWeights.getSize());
+        assertEquals(-1, this.selectionWeights.sample(0.5));
+        assertEquals(-1, this.selectionWeights.argMax());
+    }
+}
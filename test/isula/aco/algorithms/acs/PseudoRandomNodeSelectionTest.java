@@ -0,0 +1,89 @@
+package isula.aco.algorithms.acs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.Environment;
+import isula.aco.IntAnt;
+import isula.aco.algorithms.antsystem.RandomNodeSelectionTest;
+import isula.aco.test.DummyFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class PseudoRandomNodeSelectionTest {
+
+    private Environment environment;
+    private IntAnt<Environment> ant;
+
+    @Before
+    public void setUp() throws Exception {
+        this.environment = DummyFactory.createDummyEnvironment(new double[4][4], 4, 4);
+        this.ant = DummyFactory.createDummyIntAnt(RandomNodeSelectionTest.HEURISTIC_VALUES,
+                RandomNodeSelectionTest.PHEROMONE_VALUES, false);
+    }
+
+    /**
+     * Creates a configuration with a pheromone importance of 1 and a heuristic importance of 2.
+     */
+    private static AcsConfigurationProvider createConfigurationProvider(final double bestChoiceProbability) {
+        return new AcsConfigurationProvider() {
+
+            public double getBestChoiceProbability() {
+                return bestChoiceProbability;
+            }
+
+            public int getNumberOfAnts() {
+                return 0;
+            }
+
+            public double getEvaporationRatio() {
+                return 0;
+            }
+
+            public int getNumberOfIterations() {
+                return 0;
+            }
+
+            public double getInitialPheromoneValue() {
+                return 0;
+            }
+
+            public double getHeuristicImportance() {
+                return 2;
+            }
+
+            public double getPheromoneImportance() {
+                return 1;
+            }
+        };
+    }
+
+    @Test
+    public void testExploitation() {
+        AcsConfigurationProvider configurationProvider = createConfigurationProvider(1.0);
+        PseudoRandomNodeSelection<Integer, Environment> policy = new PseudoRandomNodeSelection<>();
+        ant.setRandom(new SplittableRandom(17L));
+        ant.addPolicy(policy);
+
+        // The greedy choice is always the node with the highest weight among the non-visited ones.
+        int[] expectedNodes = {3, 1, 2, 0};
+        for (int expectedNode : expectedNodes) {
+            assertTrue(policy.applyPolicy(environment, configurationProvider));
+            assertEquals(expectedNode, ant.getComponent(ant.getCurrentIndex() - 1));
+        }
+    }
+
+    @Test
+    public void testExploration() {
+        double[] frequencies = RandomNodeSelectionTest.getSelectionFrequencies(ant,
+                new PseudoRandomNodeSelection<Integer, Environment>(), environment, createConfigurationProvider(0.0));
+
+        for (int node = 0; node < frequencies.length; node++) {
+            assertEquals(RandomNodeSelectionTest.EXPECTED_PROBABILITIES[node], frequencies[node],
+                    RandomNodeSelectionTest.TOLERANCE);
+        }
+    }
+}
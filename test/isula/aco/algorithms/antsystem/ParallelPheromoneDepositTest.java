@@ -0,0 +1,115 @@
+package isula.aco.algorithms.antsystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.Ant;
+import isula.aco.AntColony;
+import isula.aco.DaemonAction;
+import isula.aco.pheromone.PheromoneStore;
+import isula.tsp.TspEnvironment;
+
+import main.as.AcoTspWithIsula;
+import main.as.TspProblemConfiguration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelPheromoneDepositTest {
+
+    private static final int NUMBER_OF_CITIES = 30;
+    private static final long SEED = 11L;
+
+    private double[][] coordinates;
+    private TspProblemConfiguration configurationProvider;
+    private AntColony<Integer, TspEnvironment> antColony;
+
+    private final AtomicInteger executedTasks = new AtomicInteger();
+    private ThreadPoolExecutor executorService;
+
+    /**
+     * Builds the solutions of a seeded colony, that every test deposits on fresh environments.
+     */
+    @Before
+    public void setUp() throws Exception {
+        Random random = new Random(SEED);
+        this.coordinates = new double[NUMBER_OF_CITIES][2];
+        for (int city = 0; city < NUMBER_OF_CITIES; city++) {
+            coordinates[city][0] = random.nextInt(1000);
+            coordinates[city][1] = random.nextInt(1000);
+        }
+
+        this.configurationProvider = new TspProblemConfiguration(coordinates, SEED);
+        TspEnvironment environment = createEnvironment();
+        this.antColony = AcoTspWithIsula.getAntColony(configurationProvider);
+        antColony.buildColony(environment);
+        antColony.seedAnts(SEED);
+        antColony.addAntPolicies(new RandomNodeSelection<Integer, TspEnvironment>());
+        antColony.clearAntSolutions();
+        antColony.buildSolutions(environment, configurationProvider);
+
+        this.executorService = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+
+            @Override
+            protected void beforeExecute(Thread thread, Runnable runnable) {
+                executedTasks.incrementAndGet();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private TspEnvironment createEnvironment() throws Exception {
+        TspEnvironment environment = new TspEnvironment(coordinates);
+        environment.populatePheromoneMatrix(configurationProvider.getInitialPheromoneValue());
+        return environment;
+    }
+
+    private PheromoneStore deposit(TspEnvironment environment) {
+        DaemonAction<Integer, TspEnvironment> pheromoneDeposit = AcoTspWithIsula.getPheromoneUpdatePolicy();
+        pheromoneDeposit.setAntColony(antColony);
+        pheromoneDeposit.setEnvironment(environment);
+        pheromoneDeposit.applyDaemonAction(configurationProvider);
+        return environment.getPheromoneStore();
+    }
+
+    @Test
+    public void testParallelDeposit() throws Exception {
+        PheromoneStore sequentialStore = deposit(createEnvironment());
+        assertEquals(0, executedTasks.get());
+
+        antColony.setExecutorService(executorService);
+        PheromoneStore parallelStore = deposit(createEnvironment());
+        assertTrue("The deposit runs on the executor service of the colony", executedTasks.get() > 0);
+
+        // Every ant adds 1 / cost on each component of its solution, one after the other.
+        TspEnvironment expectedEnvironment = createEnvironment();
+        PheromoneStore expectedStore = expectedEnvironment.getPheromoneStore();
+        for (Ant<Integer, TspEnvironment> ant : antColony.getHive()) {
+            Integer[] route = ant.getSolution();
+            final double deposit = 1 / ant.getSolutionCost(expectedEnvironment);
+            for (int position = 0; position < route.length; position++) {
+                ant.updatePheromoneTrailValue(route[position], position, expectedEnvironment,
+                        currentValue -> currentValue + deposit);
+            }
+        }
+
+        for (int row = 0; row < NUMBER_OF_CITIES; row++) {
+            for (int column = 0; column < NUMBER_OF_CITIES; column++) {
+                assertEquals(sequentialStore.get(row, column), parallelStore.get(row, column), 0.0);
+                assertEquals(expectedStore.get(row, column), parallelStore.get(row, column), 1e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package isula.aco.algorithms.antsystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.AntPolicy;
+import isula.aco.ConfigurationProvider;
+import isula.aco.Environment;
+import isula.aco.IntAnt;
+import isula.aco.test.DummyFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class RandomNodeSelectionTest {
+
+    // With a pheromone importance of 1 and a heuristic importance of 2, the weights are 1, 4, 3 and 8.
+    public static final double[] HEURISTIC_VALUES = {1, 2, 1, 4};
+    public static final double[] PHEROMONE_VALUES = {1, 1, 3, 0.5};
+    public static final double[] EXPECTED_PROBABILITIES = {1 / 16.0, 4 / 16.0, 3 / 16.0, 8 / 16.0};
+
+    public static final int TRIALS = 20000;
+    public static final double TOLERANCE = 0.015;
+
+    private static final long SEED = 17L;
+
+    private Environment environment;
+    private ConfigurationProvider configurationProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        this.environment = DummyFactory.createDummyEnvironment(new double[4][4], 4, 4);
+        this.configurationProvider = DummyFactory.createDummyConfigurationProvider(2, 1);
+    }
+
+    /**
+     * Selects the first node of a solution many times, with a seeded ant, and returns how often each node
+     * was picked.
+     */
+    public static double[] getSelectionFrequencies(IntAnt<Environment> ant, AntPolicy<Integer, Environment> policy,
+                                                   Environment environment,
+                                                   ConfigurationProvider configurationProvider) {
+        ant.setRandom(new SplittableRandom(SEED));
+        ant.addPolicy(policy);
+
+        double[] frequencies = new double[ant.getNumberOfNodes()];
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ant.clear();
+            assertTrue(policy.applyPolicy(environment, configurationProvider));
+            frequencies[ant.getComponent(0)] += 1.0 / TRIALS;
+        }
+        return frequencies;
+    }
+
+    private void assertRandomProportionalRule(double[] frequencies) {
+        for (int node = 0; node < EXPECTED_PROBABILITIES.length; node++) {
+            assertEquals("Frequency of node " + node, EXPECTED_PROBABILITIES[node], frequencies[node], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testRandomProportionalRule() {
+        IntAnt<Environment> ant = DummyFactory.createDummyIntAnt(HEURISTIC_VALUES, PHEROMONE_VALUES, false);
+        assertRandomProportionalRule(getSelectionFrequencies(ant, new RandomNodeSelection<Integer, Environment>(),
+                environment, configurationProvider));
+    }
+
+    @Test
+    public void testRandomProportionalRuleWithStationaryWeights() {
+        IntAnt<Environment> ant = DummyFactory.createDummyIntAnt(HEURISTIC_VALUES, PHEROMONE_VALUES, true);
+        assertRandomProportionalRule(getSelectionFrequencies(ant, new RandomNodeSelection<Integer, Environment>(),
+                environment, configurationProvider));
+    }
+
+    @Test
+    public void testNodeMergingSelection() {
+        IntAnt<Environment> ant = DummyFactory.createDummyIntAnt(HEURISTIC_VALUES, PHEROMONE_VALUES, false);
+        assertRandomProportionalRule(getSelectionFrequencies(ant, new NodeMergingSelection<Integer, Environment>(),
+                environment, configurationProvider));
+    }
+
+    @Test
+    public void testVisitedNodes() {
+        for (boolean stationaryWeights : new boolean[]{false, true}) {
+            IntAnt<Environment> ant = DummyFactory.createDummyIntAnt(HEURISTIC_VALUES, PHEROMONE_VALUES,
+                    stationaryWeights);
+            ant.setRandom(new SplittableRandom(SEED));
+            ant.addPolicy(new RandomNodeSelection<Integer, Environment>());
+
+            // A complete solution visits every node once.
+            while (!ant.isSolutionReady(environment)) {
+                ant.selectNextNode(environment, configurationProvider);
+            }
+
+            boolean[] visited = new boolean[HEURISTIC_VALUES.length];
+            for (int position = 0; position < HEURISTIC_VALUES.length; position++) {
+                assertFalse(visited[ant.getComponent(position)]);
+                visited[ant.getComponent(position)] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package isula.aco.algorithms.island;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Environment;
+import isula.aco.SolverResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IslandCoordinatorTest {
+
+    private static final double DELTA = 0.0001;
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private IslandConfigurationProvider configurationProvider;
+    private IslandCoordinator<Integer> coordinator;
+    private int port;
+
+    private final List<Thread> islandThreads = new ArrayList<>();
+    private final List<Throwable> islandFailures = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        this.configurationProvider = IslandSolverTest.createConfigurationProvider();
+        this.coordinator = new IslandCoordinator<>(configurationProvider);
+        this.port = coordinator.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        coordinator.close();
+    }
+
+    /**
+     * Runs a RemoteIsland on its own thread, like an island process would.
+     */
+    private RemoteIsland<Integer, Environment> startIsland(int islandIndex) {
+        AcoProblemSolver<Integer, Environment> island = IslandSolverTest.createIsland(islandIndex,
+                configurationProvider);
+        final RemoteIsland<Integer, Environment> remoteIsland = new RemoteIsland<>(island, configurationProvider,
+                port, islandIndex);
+
+        Thread islandThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    remoteIsland.solveProblem();
+                } catch (IOException | RuntimeException e) {
+                    synchronized (islandFailures) {
+                        islandFailures.add(e);
+                    }
+                }
+            }
+        }, "island-" + islandIndex);
+        islandThread.start();
+        islandThreads.add(islandThread);
+        return remoteIsland;
+    }
+
+    private void joinIslands() throws InterruptedException {
+        for (Thread islandThread : islandThreads) {
+            islandThread.join(TIMEOUT_MILLIS);
+        }
+        assertTrue("Islands failed: " + islandFailures, islandFailures.isEmpty());
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testMigrations() throws Exception {
+        startIsland(0);
+        RemoteIsland<Integer, Environment> worstIsland = startIsland(1);
+
+        SolverResult<Integer> result = coordinator.coordinate();
+        joinIslands();
+
+        // No migration on the last iteration.
+        int expectedMigrations = (configurationProvider.getNumberOfIterations() - 1)
+                / configurationProvider.getMigrationInterval();
+        assertEquals(expectedMigrations, coordinator.getMigrations());
+        assertEquals(1, result.getCost(), DELTA);
+
+        // The solution of island 0 travelled to island 1, and the pheromone was blended on both.
+        AcoProblemSolver<Integer, Environment> island = worstIsland.getIsland();
+        assertEquals(1, island.getBestSolutionCost(), DELTA);
+        assertEquals(IslandSolverTest.getBlendedPheromone(expectedMigrations,
+                configurationProvider.getPheromoneBlendingWeight()),
+                island.getEnvironment().getPheromoneStore().get(1, 2), DELTA);
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testInvalidIsland() throws Exception {
+        // A connection that is not an island is rejected.
+        Socket strayConnection = new Socket(InetAddress.getLoopbackAddress(), port);
+        DataOutputStream strayStream = new DataOutputStream(strayConnection.getOutputStream());
+        strayStream.writeByte(MigrationMessage.MIGRANTS);
+        strayStream.writeInt(0);
+        strayStream.flush();
+
+        // An island that sends a solution longer than any allowed. Its socket stays open: only the check of the
+        // length reports it as disconnected.
+        RemoteIsland<Integer, Environment> remoteIsland = startIsland(0);
+        Socket invalidIsland = new Socket(InetAddress.getLoopbackAddress(), port);
+        try {
+            DataOutputStream outputStream = new DataOutputStream(invalidIsland.getOutputStream());
+            MigrationMessage.writeHello(outputStream, 1, (int) remoteIsland.getIsland().getEnvironment()
+                    .getPheromoneStore().getCellCount());
+            outputStream.writeByte(MigrationMessage.MIGRANT);
+            outputStream.writeInt(1);
+            outputStream.writeInt(Integer.MAX_VALUE);
+            outputStream.flush();
+
+            SolverResult<Integer> result = coordinator.coordinate();
+            joinIslands();
+
+            assertEquals(1, result.getCost(), DELTA);
+            assertTrue(coordinator.getMigrations() > 0);
+        } finally {
+            invalidIsland.close();
+            strayConnection.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package isula.aco.algorithms.island;
+
+import static org.junit.Assert.assertEquals;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Environment;
+import isula.aco.exception.InvalidInputException;
+import isula.aco.test.DummyFactory;
+
+import org.junit.Test;
+
+public class IslandSolverTest {
+
+    private static final double DELTA = 0.0001;
+    private static final int NUMBER_OF_ITERATIONS = 10;
+    private static final int MIGRATION_INTERVAL = 2;
+    private static final int BEST_COST = 1;
+    private static final int WORST_COST = 5;
+
+    /**
+     * Two islands, migrating every two iterations on a ring.
+     *
+     * @return Island model configuration.
+     */
+    static IslandConfigurationProvider createConfigurationProvider() {
+        return new IslandConfigurationProvider() {
+
+            public int getNumberOfIslands() {
+                return 2;
+            }
+
+            public int getMigrationInterval() {
+                return MIGRATION_INTERVAL;
+            }
+
+            public int getNumberOfAnts() {
+                return 2;
+            }
+
+            public double getEvaporationRatio() {
+                return 0;
+            }
+
+            public int getNumberOfIterations() {
+                return NUMBER_OF_ITERATIONS;
+            }
+
+            public double getInitialPheromoneValue() {
+                return 0;
+            }
+
+            public double getHeuristicImportance() {
+                return 1;
+            }
+
+            public double getPheromoneImportance() {
+                return 1;
+            }
+        };
+    }
+
+    /**
+     * Creates an island whose ants always build solutions of the same cost: the best ones on island 0. Pheromone
+     * starts at 1 on island 0, and at 0 on the others.
+     *
+     * @param islandIndex           Island index.
+     * @param configurationProvider Island model configuration.
+     * @return Island solver.
+     */
+    static AcoProblemSolver<Integer, Environment> createIsland(int islandIndex,
+                                                               IslandConfigurationProvider configurationProvider) {
+        try {
+            AcoProblemSolver<Integer, Environment> island = DummyFactory.createDummySolver(
+                    islandIndex == 0 ? BEST_COST : WORST_COST, configurationProvider);
+            island.getEnvironment().populatePheromoneMatrix(islandIndex == 0 ? 1.0 : 0.0);
+            return island;
+        } catch (InvalidInputException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Expected pheromone value of island 1 after a number of migrations: on a ring of two islands, each one blends
+     * the pheromone of the other.
+     *
+     * @param migrations Number of migrations.
+     * @param weight     Blending weight.
+     * @return Pheromone value.
+     */
+    static double getBlendedPheromone(int migrations, double weight) {
+        double ownValue = 0.0;
+        double otherValue = 1.0;
+        for (int migration = 0; migration < migrations; migration++) {
+            double newOwnValue = (1 - weight) * ownValue + weight * otherValue;
+            otherValue = (1 - weight) * otherValue + weight * ownValue;
+            ownValue = newOwnValue;
+        }
+        return ownValue;
+    }
+
+    @Test
+    public void testMigrations() {
+        final IslandConfigurationProvider configurationProvider = createConfigurationProvider();
+        IslandSolver<Integer, Environment> islandSolver = new IslandSolver<>(configurationProvider,
+                new IslandFactory<Integer, Environment>() {
+                    @Override
+                    public AcoProblemSolver<Integer, Environment> createIsland(int islandIndex) {
+                        return IslandSolverTest.createIsland(islandIndex, configurationProvider);
+                    }
+                });
+
+        islandSolver.solveProblem();
+
+        // No migration on the last iteration.
+        int expectedMigrations = (NUMBER_OF_ITERATIONS - 1) / MIGRATION_INTERVAL;
+        assertEquals(expectedMigrations, islandSolver.getMigrations());
+
+        // The ants of island 1 never build a solution this good: it was adopted from island 0.
+        AcoProblemSolver<Integer, Environment> worstIsland = islandSolver.getIslands().get(1);
+        assertEquals(BEST_COST, worstIsland.getBestSolutionCost(), DELTA);
+        assertEquals(BEST_COST, islandSolver.getBestSolutionCost(), DELTA);
+
+        assertEquals(getBlendedPheromone(expectedMigrations, configurationProvider.getPheromoneBlendingWeight()),
+                worstIsland.getEnvironment().getPheromoneStore().get(1, 2), DELTA);
+        assertEquals(1.0 - getBlendedPheromone(expectedMigrations, configurationProvider.getPheromoneBlendingWeight()),
+                islandSolver.getIslands().get(0).getEnvironment().getPheromoneStore().get(2, 3), DELTA);
+    }
+}
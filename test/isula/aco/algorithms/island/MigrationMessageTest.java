@@ -0,0 +1,170 @@
+package isula.aco.algorithms.island;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import isula.aco.SolverResult;
+import isula.aco.exception.ConfigurationException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MigrationMessageTest {
+
+    private static final double DELTA = 0.0;
+
+    @Test
+    public void testCompression() throws Exception {
+        double[] cells = new double[1000];
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            cells[cellIndex] = 0.01 + (cellIndex % 7) * 0.1;
+        }
+
+        byte[] compressedCells = MigrationMessage.compress(cells);
+        assertTrue(compressedCells.length < cells.length * Double.BYTES / 4);
+
+        double[] decompressedCells = MigrationMessage.decompress(compressedCells, cells.length);
+        assertEquals(cells.length, decompressedCells.length);
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            assertEquals(cells[cellIndex], decompressedCells[cellIndex], DELTA);
+        }
+    }
+
+    @Test
+    public void testMigrants() throws Exception {
+        Map<Integer, Integer> layerThicknessMap = new HashMap<>();
+        layerThicknessMap.put(2, 40);
+        SolverResult<Integer> result = new SolverResult<>(new Integer[]{1, null, 2}, 12.5, "1 - 2",
+                layerThicknessMap, 7);
+        MigrationMessage migrant = MigrationMessage.createMigrant(3, result, new double[]{0.5, 1.5});
+        MigrationMessage otherMigrant = MigrationMessage.createMigrant(1, result, new double[]{2.5, 3.5});
+
+        List<MigrationMessage> migrants = MigrationMessage.readMigrants(
+                toInputStream(getMigrantBytes(migrant, otherMigrant)), 4, 2);
+
+        assertEquals(2, migrants.size());
+        assertEquals(3, migrants.get(0).getIslandIndex());
+        SolverResult<Integer> receivedResult = migrants.get(0).getResult();
+        assertEquals(12.5, receivedResult.getCost(), DELTA);
+        assertEquals(7, receivedResult.getIteration());
+        assertEquals("1 - 2", receivedResult.getSolutionAsString());
+        assertEquals(layerThicknessMap, receivedResult.getLayerThicknessMap());
+        assertEquals(Arrays.asList(1, null, 2), Arrays.asList(receivedResult.getSolution()));
+        assertEquals(Integer.class, receivedResult.getSolution().getClass().getComponentType());
+        assertEquals(1.5, migrants.get(0).getPheromoneCells()[1], DELTA);
+
+        assertEquals(1, migrants.get(1).getIslandIndex());
+        assertEquals(2.5, migrants.get(1).getPheromoneCells()[0], DELTA);
+    }
+
+    @Test
+    public void testMigrantsWithoutPheromone() throws Exception {
+        SolverResult<String> result = new SolverResult<>(new String[]{"a", "b"}, 3.0, null, null, 1);
+        MigrationMessage migrant = MigrationMessage.createMigrant(0, result, null);
+
+        List<MigrationMessage> migrants = MigrationMessage.readMigrants(toInputStream(getMigrantBytes(migrant)), 1,
+                MigrationMessage.NO_PHEROMONE);
+
+        assertNull(migrants.get(0).getPheromoneCells());
+        SolverResult<String> receivedResult = migrants.get(0).getResult();
+        assertEquals("b", receivedResult.getSolution()[1]);
+        assertNull(receivedResult.getSolutionAsString());
+        assertNull(receivedResult.getLayerThicknessMap());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testUnsupportedComponents() throws Exception {
+        MigrationMessage.createFinished(0, new SolverResult<>(new Object[]{new Object()}, 1.0, "", null, 0));
+    }
+
+    @Test
+    public void testInvalidMigrants() throws Exception {
+        SolverResult<Integer> result = new SolverResult<>(new Integer[]{1, 0, 2}, 12.5, "1 0 2", null, 7);
+        byte[] migrantBytes = getMigrantBytes(MigrationMessage.createMigrant(3, result, new double[]{0.5, 1.5}));
+
+        // Other number of cells, or more migrants than expected.
+        assertInvalidMigrants(migrantBytes, 4, 3);
+        assertInvalidMigrants(migrantBytes, 4, MigrationMessage.NO_PHEROMONE);
+        assertInvalidMigrants(migrantBytes, 0, 2);
+
+        // Solution length larger than the message: type, number of migrants and island index come before it.
+        int solutionLengthOffset = 1 + 2 * Integer.BYTES;
+        assertInvalidMigrants(withInt(migrantBytes, solutionLengthOffset, Integer.MAX_VALUE), 4, 2);
+        assertInvalidMigrants(withInt(migrantBytes, solutionLengthOffset, -5), 4, 2);
+        assertInvalidMigrants(Arrays.copyOf(migrantBytes, migrantBytes.length - 1), 4, 2);
+
+        // Number of solution components larger than the solution: after cost, iteration and the string.
+        int componentsOffset = solutionLengthOffset + Integer.BYTES + Double.BYTES + 2 * Integer.BYTES + 5
+                + Integer.BYTES;
+        assertInvalidMigrants(withInt(migrantBytes, componentsOffset, 1 << 30), 4, 2);
+    }
+
+    @Test
+    public void testInvalidMessagesFromIsland() throws Exception {
+        SolverResult<Integer> result = new SolverResult<>(new Integer[]{1, 0, 2}, 12.5, "1 0 2", null, 7);
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        MigrationMessage.createFinished(3, result).write(new DataOutputStream(byteStream));
+        byte[] finishedBytes = byteStream.toByteArray();
+
+        assertEquals(MigrationMessage.FINISHED,
+                MigrationMessage.readFromIsland(toInputStream(finishedBytes), 3, 2).getType());
+
+        // Sent as another island.
+        try {
+            MigrationMessage.readFromIsland(toInputStream(finishedBytes), 2, 2);
+            fail("A message from another island was accepted");
+        } catch (IOException e) {
+            // Expected.
+        }
+
+        // Unknown message type.
+        byte[] invalidBytes = Arrays.copyOf(finishedBytes, finishedBytes.length);
+        invalidBytes[0] = MigrationMessage.MIGRANTS;
+        try {
+            MigrationMessage.readFromIsland(toInputStream(invalidBytes), 3, 2);
+            fail("A message of an invalid type was accepted");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    private static void assertInvalidMigrants(byte[] migrantBytes, int maximumMigrants, int numberOfCells) {
+        try {
+            for (MigrationMessage migrant : MigrationMessage.readMigrants(toInputStream(migrantBytes),
+                    maximumMigrants, numberOfCells)) {
+                migrant.getResult();
+            }
+            fail("Invalid migrants were accepted");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    private static byte[] getMigrantBytes(MigrationMessage... migrants) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        MigrationMessage.writeMigrants(new DataOutputStream(byteStream), Arrays.asList(migrants));
+        return byteStream.toByteArray();
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] modifiedBytes = Arrays.copyOf(bytes, bytes.length);
+        ByteBuffer.wrap(modifiedBytes).putInt(offset, value);
+        return modifiedBytes;
+    }
+
+    private static DataInputStream toInputStream(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,28 @@
+package isula.aco.algorithms.island;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MigrationTopologyTest {
+
+    @Test
+    public void testRing() {
+        int[] sources = MigrationTopology.RING.getSources(0, 4);
+        assertEquals(1, sources.length);
+        assertEquals(3, sources[0]);
+
+        assertEquals(1, MigrationTopology.RING.getSources(2, 4)[0]);
+        assertEquals(0, MigrationTopology.RING.getSources(0, 1).length);
+    }
+
+    @Test
+    public void testFullyConnected() {
+        int[] sources = MigrationTopology.FULLY_CONNECTED.getSources(1, 3);
+        assertEquals(2, sources.length);
+        assertEquals(0, sources[0]);
+        assertEquals(2, sources[1]);
+
+        assertEquals(0, MigrationTopology.FULLY_CONNECTED.getSources(0, 1).length);
+    }
+}
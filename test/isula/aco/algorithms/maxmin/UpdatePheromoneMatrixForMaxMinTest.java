@@ -0,0 +1,173 @@
+package isula.aco.algorithms.maxmin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import isula.aco.Ant;
+import isula.aco.AntColony;
+import isula.aco.Environment;
+import isula.aco.exception.ConfigurationException;
+import isula.aco.pheromone.PheromoneStore;
+import isula.aco.test.DummyFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class UpdatePheromoneMatrixForMaxMinTest {
+
+    private static final double DELTA = 1e-12;
+
+    private static final double EVAPORATION_RATIO = 0.5;
+    private static final double MINIMUM_PHEROMONE = 0.1;
+    private static final double MAXIMUM_PHEROMONE = 2.0;
+
+    private Environment environment;
+    private UpdatePheromoneMatrixForMaxMin<Integer, Environment> pheromoneUpdate;
+
+    /**
+     * Prepares a 3x4 pheromone matrix and a colony of two ants. The best one, with a cost of 2, visits
+     * components 1, 2 and 3: on position i, its component c is cell (i, c) of the matrix.
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.environment = DummyFactory.createDummyEnvironment(new double[3][4], 3, 4);
+        environment.populatePheromoneMatrix(1.0);
+
+        AntColony<Integer, Environment> antColony = new AntColony<Integer, Environment>(0) {
+
+            @Override
+            protected Ant<Integer, Environment> createAnt(Environment environment) {
+                return null;
+            }
+        };
+        List<Ant<Integer, Environment>> hive = antColony.getHive();
+        hive.add(createAnt(4, new Integer[]{0, 0, 0}));
+        hive.add(createAnt(2, new Integer[]{1, 2, 3}));
+
+        this.pheromoneUpdate = new UpdatePheromoneMatrixForMaxMin<Integer, Environment>() {
+
+            @Override
+            protected double getNewPheromoneValue(Ant<Integer, Environment> ant, int positionInSolution,
+                                                  Integer solutionComponent,
+                                                  MaxMinConfigurationProvider configurationProvider) {
+                return ant.getPheromoneTrailValue(solutionComponent, positionInSolution, getEnvironment())
+                        + 1 / ant.getSolutionCost(getEnvironment());
+            }
+        };
+        pheromoneUpdate.setEnvironment(environment);
+        pheromoneUpdate.setAntColony(antColony);
+    }
+
+    private static Ant<Integer, Environment> createAnt(final double cost, Integer[] solution) {
+        Ant<Integer, Environment> ant = new Ant<Integer, Environment>() {
+
+            @Override
+            public List<Integer> getNeighbourhood(Environment environment) {
+                return null;
+            }
+
+            @Override
+            public Double getPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
+                                                 Environment environment) {
+                return environment.getPheromoneStore().get(positionInSolution, solutionComponent);
+            }
+
+            @Override
+            public Double getHeuristicValue(Integer solutionComponent, Integer positionInSolution,
+                                            Environment environment) {
+                return null;
+            }
+
+            @Override
+            public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
+                                               Environment environment, Double value) {
+                environment.getPheromoneStore().set(positionInSolution, solutionComponent, value);
+            }
+
+            @Override
+            public double getSolutionCost(Environment environment) {
+                return cost;
+            }
+
+            @Override
+            public boolean isSolutionReady(Environment environment) {
+                return true;
+            }
+        };
+
+        ant.setSolution(solution);
+        return ant;
+    }
+
+    private static MaxMinConfigurationProvider createConfigurationProvider() {
+        return new MaxMinConfigurationProvider() {
+
+            public double getMaximumPheromoneValue() {
+                return MAXIMUM_PHEROMONE;
+            }
+
+            public double getMinimumPheromoneValue() {
+                return MINIMUM_PHEROMONE;
+            }
+
+            public int getNumberOfAnts() {
+                return 2;
+            }
+
+            public double getEvaporationRatio() {
+                return EVAPORATION_RATIO;
+            }
+
+            public int getNumberOfIterations() {
+                return 1;
+            }
+
+            public double getInitialPheromoneValue() {
+                return 1.0;
+            }
+
+            public double getHeuristicImportance() {
+                return 1;
+            }
+
+            public double getPheromoneImportance() {
+                return 1;
+            }
+        };
+    }
+
+    @Test
+    public void testEvaporationAndDeposit() {
+        PheromoneStore pheromoneStore = environment.getPheromoneStore();
+        pheromoneStore.set(0, 0, 10.0);
+        pheromoneStore.set(1, 2, 3.6);
+        pheromoneStore.set(2, 3, 0.001);
+
+        pheromoneUpdate.applyDaemonAction(createConfigurationProvider());
+
+        // Evaporated cells, clamped to the maximum and the minimum before the deposit.
+        assertEquals(MAXIMUM_PHEROMONE, pheromoneStore.get(0, 0), DELTA);
+        assertEquals(0.5, pheromoneStore.get(1, 0), DELTA);
+        assertEquals(0.5, pheromoneStore.get(2, 1), DELTA);
+
+        // Only the best ant deposits 1 / 2 on its components, and the maximum still applies after the deposit.
+        assertEquals(0.5 + 0.5, pheromoneStore.get(0, 1), DELTA);
+        assertEquals(MAXIMUM_PHEROMONE, pheromoneStore.get(1, 2), DELTA);
+        assertEquals(MINIMUM_PHEROMONE + 0.5, pheromoneStore.get(2, 3), DELTA);
+        assertEquals(0.5, pheromoneStore.get(2, 0), DELTA);
+    }
+
+    @Test
+    public void testInvalidPheromone() {
+        environment.getPheromoneStore().set(1, 1, Double.NaN);
+
+        try {
+            pheromoneUpdate.applyDaemonAction(createConfigurationProvider());
+            fail("A NaN pheromone value should be reported");
+        } catch (ConfigurationException e) {
+            assertEquals("Some pheromone values calculated on evaporation are not valid numbers.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package isula.aco.algorithms.stagnation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Environment;
+import isula.aco.test.DummyFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StagnationControlTest {
+
+    private static final int NUMBER_OF_ITERATIONS = 20;
+    private static final int MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT = 3;
+
+    private Environment environment;
+    private StagnationConfigurationProvider configurationProvider;
+
+    // Iteration counters of the fake solver.
+    private int currentIteration;
+    private int lastImprovementIteration;
+
+    /**
+     * Prepares a configuration with a single restart, that only checks iterations without improvement.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        this.environment = DummyFactory.createDummyEnvironment(new double[3][4], 3, 4);
+        this.configurationProvider = new StagnationConfigurationProvider() {
+
+            public int getMaximumIterationsWithoutImprovement() {
+                return MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT;
+            }
+
+            public double getMinimumBranchingFactor() {
+                return 0;
+            }
+
+            public double getMinimumPheromoneEntropy() {
+                return 0;
+            }
+
+            @Override
+            public int getMaximumRestarts() {
+                return 1;
+            }
+
+            public int getNumberOfAnts() {
+                return 2;
+            }
+
+            public double getEvaporationRatio() {
+                return 0;
+            }
+
+            public int getNumberOfIterations() {
+                return NUMBER_OF_ITERATIONS;
+            }
+
+            public double getInitialPheromoneValue() {
+                return 1;
+            }
+
+            public double getHeuristicImportance() {
+                return 1;
+            }
+
+            public double getPheromoneImportance() {
+                return 1;
+            }
+        };
+    }
+
+    private StagnationControl<Integer, Environment> createStagnationControl() {
+        AcoProblemSolver<Integer, Environment> problemSolver = new AcoProblemSolver<Integer, Environment>() {
+
+            @Override
+            public int getCurrentIteration() {
+                return currentIteration;
+            }
+
+            @Override
+            public int getIterationsWithoutImprovement() {
+                return currentIteration - lastImprovementIteration;
+            }
+        };
+
+        StagnationControl<Integer, Environment> stagnationControl = new StagnationControl<>();
+        stagnationControl.setProblemSolver(problemSolver);
+        stagnationControl.setEnvironment(environment);
+        return stagnationControl;
+    }
+
+    private void applyUntil(StagnationControl<Integer, Environment> stagnationControl, int lastIteration) {
+        while (currentIteration <= lastIteration) {
+            stagnationControl.applyDaemonAction(configurationProvider);
+            currentIteration++;
+        }
+    }
+
+    @Test
+    public void testRestartThenStop() {
+        StagnationControl<Integer, Environment> stagnationControl = createStagnationControl();
+        AcoProblemSolver<Integer, Environment> problemSolver = stagnationControl.getProblemSolver();
+
+        applyUntil(stagnationControl, MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT - 1);
+        assertEquals(0, stagnationControl.getRestarts());
+
+        // First stagnation: pheromone is restarted, and the search goes on.
+        environment.getPheromoneStore().set(1, 2, 5.0);
+        applyUntil(stagnationControl, MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT);
+        assertEquals(1, stagnationControl.getRestarts());
+        assertEquals(1.0, environment.getPheromoneStore().get(1, 2), 0.001);
+        assertFalse(problemSolver.isStopRequested());
+
+        // With no restarts left, the next stagnation stops the solver.
+        applyUntil(stagnationControl, 2 * MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT - 1);
+        assertFalse(problemSolver.isStopRequested());
+        applyUntil(stagnationControl, 2 * MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT);
+        assertEquals(1, stagnationControl.getRestarts());
+        assertTrue(problemSolver.isStopRequested());
+    }
+
+    @Test
+    public void testIterationsSinceLastRestart() {
+        StagnationControl<Integer, Environment> stagnationControl = createStagnationControl();
+        AcoProblemSolver<Integer, Environment> problemSolver = stagnationControl.getProblemSolver();
+
+        applyUntil(stagnationControl, MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT);
+        assertEquals(1, stagnationControl.getRestarts());
+
+        // An improvement after the restart: iterations are counted from it, not from the restart.
+        lastImprovementIteration = MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT + 2;
+        applyUntil(stagnationControl, lastImprovementIteration + MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT - 1);
+        assertFalse(problemSolver.isStopRequested());
+        applyUntil(stagnationControl, lastImprovementIteration + MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT);
+        assertTrue(problemSolver.isStopRequested());
+
+        // A new run starts with all its restarts.
+        currentIteration = 0;
+        lastImprovementIteration = 0;
+        stagnationControl.applyDaemonAction(configurationProvider);
+        assertEquals(0, stagnationControl.getRestarts());
+    }
+
+    @Test
+    public void testStopClearedOnNextRun() throws Exception {
+        AcoProblemSolver<Integer, Environment> problemSolver = DummyFactory.createDummySolver(1,
+                configurationProvider);
+        StagnationControl<Integer, Environment> stagnationControl = new StagnationControl<>();
+        problemSolver.addDaemonActions(stagnationControl);
+
+        // The only improvement is on iteration 0. Restart on iteration 3 and stop on iteration 6.
+        int stopIteration = 2 * MAXIMUM_ITERATIONS_WITHOUT_IMPROVEMENT + 1;
+        problemSolver.solveProblem();
+        assertEquals(stopIteration, problemSolver.getCurrentIteration());
+        assertEquals(1, stagnationControl.getRestarts());
+        assertTrue(problemSolver.isStopRequested());
+
+        problemSolver.solveProblem();
+        assertEquals(stopIteration, problemSolver.getCurrentIteration());
+        assertEquals(1, stagnationControl.getRestarts());
+    }
+}
@@ -0,0 +1,289 @@
+package isula.aco.pheromone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class PheromoneStoreTest {
+
+    private static final double DELTA = 0.001;
+
+    @Test
+    public void testDensePheromoneStore() {
+        DensePheromoneStore pheromoneStore = new DensePheromoneStore(new double[][]{{1, 2, 3}, {4, 5, 6}});
+
+        assertEquals(2, pheromoneStore.getRows());
+        assertEquals(3, pheromoneStore.getColumns());
+        assertEquals(6, pheromoneStore.getCellCount());
+        assertEquals(5, pheromoneStore.getIndex(1, 2));
+        assertEquals(6.0, pheromoneStore.get(1, 2), DELTA);
+
+        pheromoneStore.multiply(0.5);
+        pheromoneStore.add(0, 1, 1.0);
+        double[][] pheromoneMatrix = pheromoneStore.toArray();
+        assertEquals(0.5, pheromoneMatrix[0][0], DELTA);
+        assertEquals(2.0, pheromoneMatrix[0][1], DELTA);
+        assertEquals(3.0, pheromoneMatrix[1][2], DELTA);
+
+        pheromoneStore.fill(0.1);
+        assertEquals(0.1, pheromoneStore.getCell(3), DELTA);
+    }
+
+    @Test
+    public void testSymmetricPheromoneStore() {
+        SymmetricPheromoneStore pheromoneStore = new SymmetricPheromoneStore(4);
+
+        assertEquals(10, pheromoneStore.getCellCount());
+        assertEquals(pheromoneStore.getIndex(1, 3), pheromoneStore.getIndex(3, 1));
+        assertEquals(9, pheromoneStore.getIndex(3, 3));
+
+        pheromoneStore.fill(1.0);
+        pheromoneStore.set(2, 0, 4.0);
+        pheromoneStore.multiply(0.5);
+
+        assertEquals(2.0, pheromoneStore.get(0, 2), DELTA);
+        assertEquals(0.5, pheromoneStore.get(1, 1), DELTA);
+        assertTrue(pheromoneStore.isSymmetric());
+        assertTrue(pheromoneStore.createEmptyStore() instanceof SymmetricPheromoneStore);
+    }
+
+    @Test
+    public void testFloatPheromoneStore() {
+        PheromoneStore pheromoneStore = new SymmetricPheromoneStore(3);
+        pheromoneStore.set(0, 2, 0.25);
+
+        PheromoneStore singlePrecisionStore = pheromoneStore.toSinglePrecision();
+        assertTrue(singlePrecisionStore instanceof FloatPheromoneStore);
+        assertTrue(singlePrecisionStore.isSymmetric());
+        assertEquals(6, singlePrecisionStore.getCellCount());
+        assertEquals(0.25, singlePrecisionStore.get(2, 0), DELTA);
+
+        singlePrecisionStore.multiply(2);
+        assertEquals(0.5, singlePrecisionStore.get(0, 2), DELTA);
+        assertTrue(singlePrecisionStore.toSinglePrecision() == singlePrecisionStore);
+
+        FloatPheromoneStore denseStore = new FloatPheromoneStore(2, 3);
+        denseStore.set(1, 0, 1.5);
+        assertEquals(3, denseStore.getIndex(1, 0));
+        assertEquals(1.5, denseStore.getCell(3), DELTA);
+    }
+
+    @Test
+    public void testOffHeapPheromoneStore() throws IOException {
+        // Buffers of 4 cells, so values are spread over several of them.
+        OffHeapPheromoneStore pheromoneStore = new OffHeapPheromoneStore(4, 4, true, false, 2);
+        assertEquals(10, pheromoneStore.getCellCount());
+        assertEquals(9, pheromoneStore.getIndex(3, 3));
+
+        pheromoneStore.fill(1.0);
+        pheromoneStore.set(3, 2, 4.0);
+        pheromoneStore.multiply(0.5);
+        assertEquals(2.0, pheromoneStore.get(2, 3), DELTA);
+        assertEquals(0.5, pheromoneStore.getCell(9), DELTA);
+
+        PheromoneStore singlePrecisionStore = pheromoneStore.toSinglePrecision();
+        assertTrue(singlePrecisionStore instanceof OffHeapPheromoneStore);
+        assertTrue(singlePrecisionStore.toSinglePrecision() == singlePrecisionStore);
+        assertEquals(2.0, singlePrecisionStore.get(3, 2), DELTA);
+
+        OffHeapPheromoneStore floatStore = new OffHeapPheromoneStore(4, 4, true, true, 2);
+        floatStore.fill(1.0);
+        floatStore.set(1, 3, 1e300);
+        assertEquals(Float.MAX_VALUE, floatStore.get(3, 1), 1e30);
+        assertTrue(floatStore.multiplyAndClamp(0.5, 0.6, 10.0));
+        assertEquals(0.6, floatStore.get(0, 0), DELTA);
+        assertEquals(10.0, floatStore.get(1, 3), DELTA);
+
+        File file = File.createTempFile("pheromone", ".bin");
+        file.deleteOnExit();
+
+        try (OffHeapPheromoneStore mappedStore = OffHeapPheromoneStore.mapToFile(file.toPath(), 2, 3, false)) {
+            mappedStore.set(1, 2, 0.75);
+            assertEquals(0.75, mappedStore.getCell(5), DELTA);
+        }
+
+        try (OffHeapPheromoneStore mappedStore = OffHeapPheromoneStore.mapToFile(file.toPath(), 2, 3, false)) {
+            assertEquals(0.75, mappedStore.get(1, 2), DELTA);
+        }
+    }
+
+    @Test
+    public void testCandidatePheromoneStore() {
+        int[] candidates = {1, 2, 0, 2, 1, 3, 2, 1};
+        CandidatePheromoneStore pheromoneStore = new CandidatePheromoneStore(4, 2, candidates, true);
+
+        assertEquals(9, pheromoneStore.getCellCount());
+        assertEquals(-1, pheromoneStore.getCellIndex(0, 3));
+        assertEquals(1, pheromoneStore.getCellIndex(2, 0));
+
+        pheromoneStore.fill(1.0);
+        pheromoneStore.set(1, 2, 4.0);
+        pheromoneStore.set(0, 3, 8.0);
+        pheromoneStore.multiply(0.5);
+
+        assertEquals(2.0, pheromoneStore.getCell(3), DELTA);
+        assertEquals(2.0, pheromoneStore.getCell(4), DELTA);
+        assertEquals(0.5, pheromoneStore.get(0, 3), DELTA);
+        assertEquals(0.5, pheromoneStore.getDefaultValue(), DELTA);
+
+        PheromoneStore singlePrecisionStore = pheromoneStore.toSinglePrecision();
+        assertEquals(9, singlePrecisionStore.getCellCount());
+        assertEquals(2.0, singlePrecisionStore.get(2, 1), DELTA);
+        assertEquals(0.5, singlePrecisionStore.get(0, 3), DELTA);
+
+        singlePrecisionStore.set(0, 1, 1e300);
+        singlePrecisionStore.multiply(0.5);
+        assertEquals(Float.MAX_VALUE * 0.5, singlePrecisionStore.get(1, 0), 1e30);
+        assertEquals(0.25, singlePrecisionStore.get(0, 3), DELTA);
+        assertEquals(2.0, pheromoneStore.get(2, 1), DELTA);
+        assertTrue(singlePrecisionStore.createEmptyStore().toSinglePrecision() instanceof CandidatePheromoneStore);
+    }
+
+    @Test
+    public void testLazyEvaporationPheromoneStore() {
+        DensePheromoneStore denseStore = new DensePheromoneStore(2, 2);
+        LazyEvaporationPheromoneStore pheromoneStore = new LazyEvaporationPheromoneStore(denseStore);
+
+        pheromoneStore.fill(1.0);
+        pheromoneStore.multiply(0.5);
+        assertEquals(1.0, denseStore.get(0, 1), DELTA);
+        assertEquals(0.5, pheromoneStore.get(0, 1), DELTA);
+
+        pheromoneStore.add(0, 1, 0.25);
+        pheromoneStore.multiply(0.5);
+        assertEquals(0.375, pheromoneStore.get(0, 1), DELTA);
+        assertEquals(0.25, pheromoneStore.getCell(0), DELTA);
+
+        for (int i = 0; i < 100; i++) {
+            pheromoneStore.multiply(0.5);
+        }
+        assertTrue(pheromoneStore.getDecayFactor() >= 1e-30);
+        assertEquals(0.375 * Math.pow(0.5, 100), pheromoneStore.get(0, 1), 1e-40);
+    }
+
+    @Test
+    public void testMultiplyAndClamp() {
+        PheromoneStore[] pheromoneStores = {new DensePheromoneStore(300, 300), new FloatPheromoneStore(300, 300),
+                new LazyEvaporationPheromoneStore(new SymmetricPheromoneStore(300))};
+
+        for (PheromoneStore pheromoneStore : pheromoneStores) {
+            pheromoneStore.fill(1.0);
+            pheromoneStore.set(0, 1, 0.1);
+            pheromoneStore.set(2, 1, 8.0);
+
+            assertTrue(pheromoneStore.multiplyAndClamp(0.5, 0.25, 2.0));
+            assertEquals(0.25, pheromoneStore.get(0, 1), DELTA);
+            assertEquals(2.0, pheromoneStore.get(2, 1), DELTA);
+            assertEquals(0.5, pheromoneStore.get(299, 299), DELTA);
+
+            pheromoneStore.set(3, 3, Double.NaN);
+            assertFalse(pheromoneStore.multiplyAndClamp(0.5, 0.25, 2.0));
+        }
+    }
+
+    @Test
+    public void testConcurrentPheromoneStores() throws InterruptedException {
+        PheromoneStore atomicStore = new SymmetricPheromoneStore(3).toConcurrent();
+        assertTrue(atomicStore instanceof AtomicPheromoneStore);
+        assertTrue(atomicStore.isSymmetric());
+        assertConcurrentUpdates(atomicStore);
+
+        PheromoneStore stripedLockStore = new FloatPheromoneStore(3, 3, true).toConcurrent();
+        assertTrue(stripedLockStore instanceof StripedLockPheromoneStore);
+        assertConcurrentUpdates(stripedLockStore);
+    }
+
+    @Test
+    public void testPheromoneStatistics() {
+        PheromoneStore pheromoneStore = new DensePheromoneStore(2, 4);
+        pheromoneStore.fill(1.0);
+        assertEquals(4.0, PheromoneStatistics.getBranchingFactor(pheromoneStore, 0.05), DELTA);
+        assertEquals(1.0, PheromoneStatistics.getEntropy(pheromoneStore), DELTA);
+
+        pheromoneStore.set(0, 1, 101.0);
+        pheromoneStore.set(1, 0, 0.0);
+        pheromoneStore.set(1, 1, 0.0);
+        assertEquals(1.5, PheromoneStatistics.getBranchingFactor(pheromoneStore, 0.05), DELTA);
+
+        // Row 0 has a probability of 101/104 on one cell, and row 1 is uniform over two cells.
+        double firstRowEntropy = -(101 / 104.0 * Math.log(101 / 104.0) + 3 / 104.0 * Math.log(1 / 104.0));
+        double expectedEntropy = (firstRowEntropy / Math.log(4) + Math.log(2) / Math.log(4)) / 2;
+        assertEquals(expectedEntropy, PheromoneStatistics.getEntropy(pheromoneStore), DELTA);
+    }
+
+    @Test
+    public void testSparsePheromoneStatistics() {
+        // Symmetric stores count each cell on its two rows.
+        PheromoneStore symmetricStore = new SymmetricPheromoneStore(3);
+        symmetricStore.fill(1.0);
+        symmetricStore.set(2, 0, 101.0);
+        PheromoneStore denseStore = new DensePheromoneStore(symmetricStore.toArray());
+        assertEquals(PheromoneStatistics.getBranchingFactor(denseStore, 0.05),
+                PheromoneStatistics.getBranchingFactor(symmetricStore, 0.05), DELTA);
+        assertEquals(PheromoneStatistics.getEntropy(denseStore), PheromoneStatistics.getEntropy(symmetricStore),
+                DELTA);
+
+        // Candidate stores only count candidate edges, not the default value.
+        int[] candidates = {1, 2, 0, 2, 1, 3, 2, 1};
+        CandidatePheromoneStore candidateStore = new CandidatePheromoneStore(4, 2, candidates, false);
+        candidateStore.fill(1.0);
+        assertEquals(2.0, PheromoneStatistics.getBranchingFactor(candidateStore, 0.05), DELTA);
+        assertEquals(1.0, PheromoneStatistics.getEntropy(candidateStore), DELTA);
+
+        candidateStore.set(0, 1, 101.0);
+        candidateStore.set(1, 0, 0.0);
+        assertEquals(1.5, PheromoneStatistics.getBranchingFactor(candidateStore, 0.05), DELTA);
+        double firstRowEntropy = -(101 / 102.0 * Math.log(101 / 102.0) + 1 / 102.0 * Math.log(1 / 102.0));
+        // Row 0 is concentrated on one candidate, row 1 has pheromone on a single candidate and rows 2 and 3 are
+        // uniform.
+        assertEquals((firstRowEntropy / Math.log(2) + 2) / 4, PheromoneStatistics.getEntropy(candidateStore), DELTA);
+    }
+
+    @Test
+    public void testDepositBuffer() {
+        DepositBuffer firstBuffer = new DepositBuffer(3, true);
+        DepositBuffer secondBuffer = new DepositBuffer(3, true);
+        for (int i = 0; i < 100; i++) {
+            firstBuffer.add(i % 10, 10 + i % 7, 1.0);
+        }
+        secondBuffer.add(12, 2, 0.5);
+        assertEquals(70, firstBuffer.getSize());
+
+        PheromoneStore pheromoneStore = new SymmetricPheromoneStore(20);
+        for (int partition = 0; partition < 3; partition++) {
+            firstBuffer.apply(partition, pheromoneStore);
+            secondBuffer.apply(partition, pheromoneStore);
+        }
+
+        assertEquals(2.0, pheromoneStore.get(0, 10), DELTA);
+        assertEquals(1.0, pheromoneStore.get(9, 16), DELTA);
+        assertEquals(2.5, pheromoneStore.get(2, 12), DELTA);
+        assertEquals(0.0, pheromoneStore.get(10, 11), DELTA);
+
+        firstBuffer.clear();
+        assertEquals(0, firstBuffer.getSize());
+    }
+
+    private static void assertConcurrentUpdates(PheromoneStore pheromoneStore) throws InterruptedException {
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    pheromoneStore.update(2, 1, value -> value + 1);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40000, pheromoneStore.get(1, 2), DELTA);
+    }
+}
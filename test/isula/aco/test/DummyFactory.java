@@ -1,11 +1,18 @@
 package isula.aco.test;
 
+import isula.aco.AcoProblemSolver;
 import isula.aco.Ant;
+import isula.aco.AntColony;
+import isula.aco.AntPolicy;
+import isula.aco.AntPolicyType;
 import isula.aco.ConfigurationProvider;
 import isula.aco.Environment;
+import isula.aco.IntAnt;
 import isula.aco.exception.InvalidInputException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DummyFactory {
 
@@ -36,12 +43,58 @@ public class DummyFactory {
         };
     }
 
+    /**
+     * Creates a dummy Environment that keeps a choice-info matrix. The heuristic
+     * information of a cell is the sum of its row and column.
+     *
+     * @param pheromoneRows    Rows of the pheromone matrix.
+     * @param pheromoneColumns Columns of the pheromone matrix.
+     * @param heuristicCalls   Counter of calls to getHeuristicInformation().
+     * @return Environment instance.
+     * @throws InvalidInputException
+     */
+    public static Environment createChoiceInfoEnvironment(final int pheromoneRows, final int pheromoneColumns,
+                                                          final AtomicInteger heuristicCalls)
+            throws InvalidInputException {
+        return new Environment(new double[pheromoneRows][pheromoneColumns]) {
+
+            @Override
+            protected double[][] createPheromoneMatrix() {
+                return new double[pheromoneRows][pheromoneColumns];
+            }
+
+            @Override
+            protected boolean isChoiceInfoSupported() {
+                return true;
+            }
+
+            @Override
+            public double getHeuristicInformation(int row, int column) {
+                heuristicCalls.incrementAndGet();
+                return row + column;
+            }
+        };
+    }
+
     /**
      * Creates a configuration provider for testing purposes.
      *
      * @return
      */
     public static ConfigurationProvider createDummyConfigurationProvider() {
+        return createDummyConfigurationProvider(0, 0);
+    }
+
+    /**
+     * Creates a configuration provider for testing purposes, with the given
+     * importance of heuristic and pheromone values.
+     *
+     * @param heuristicImportance Heuristic importance.
+     * @param pheromoneImportance Pheromone importance.
+     * @return
+     */
+    public static ConfigurationProvider createDummyConfigurationProvider(final double heuristicImportance,
+                                                                         final double pheromoneImportance) {
         return new ConfigurationProvider() {
 
             public int getNumberOfIterations() {
@@ -58,12 +111,12 @@ public class DummyFactory {
 
             @Override
             public double getHeuristicImportance() {
-                return 0;
+                return heuristicImportance;
             }
 
             @Override
             public double getPheromoneImportance() {
-                return 0;
+                return pheromoneImportance;
             }
 
             public double getEvaporationRatio() {
@@ -119,4 +172,118 @@ public class DummyFactory {
         return ant;
     }
 
+    /**
+     * Configures an Int Ant whose components have fixed heuristic and pheromone
+     * values. Every non-visited node is part of its neighbourhood, and merging a
+     * layer just visits that node.
+     *
+     * @param heuristicValues   Heuristic value of each node.
+     * @param pheromoneValues   Pheromone value of each node.
+     * @param stationaryWeights If true, selection weights are kept on a FenwickSampler.
+     * @return Int Ant instance.
+     */
+    public static IntAnt<Environment> createDummyIntAnt(final double[] heuristicValues,
+                                                        final double[] pheromoneValues,
+                                                        final boolean stationaryWeights) {
+        return new IntAnt<Environment>(heuristicValues.length) {
+
+            @Override
+            public int getNeighbourhood(Environment environment, int[] neighbourhood) {
+                int neighbourhoodSize = 0;
+                for (int node = 0; node < heuristicValues.length; node++) {
+                    if (!isNodeVisited(node)) {
+                        neighbourhood[neighbourhoodSize++] = node;
+                    }
+                }
+                return neighbourhoodSize;
+            }
+
+            @Override
+            public List<Integer> getMergingNeighbourhood(Environment environment) {
+                List<Integer> mergingNeighbourhood = new ArrayList<>();
+                for (int node = 0; node < heuristicValues.length; node++) {
+                    if (!isNodeVisited(node)) {
+                        mergingNeighbourhood.add(node);
+                    }
+                }
+                return mergingNeighbourhood;
+            }
+
+            @Override
+            public void mergeLayer(Integer mergingNode) {
+                visitNode(mergingNode.intValue());
+            }
+
+            @Override
+            public boolean hasStationarySelectionWeights() {
+                return stationaryWeights;
+            }
+
+            @Override
+            public boolean isSolutionReady(Environment environment) {
+                return getCurrentIndex() == heuristicValues.length;
+            }
+
+            @Override
+            public double getSolutionCost(Environment environment) {
+                return 0;
+            }
+
+            @Override
+            public double getHeuristicValue(int solutionComponent, int positionInSolution,
+                                            Environment environment) {
+                return heuristicValues[solutionComponent];
+            }
+
+            @Override
+            public double getPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                                 Environment environment) {
+                return pheromoneValues[solutionComponent];
+            }
+
+            @Override
+            public void setPheromoneTrailValue(int solutionComponent, int positionInSolution,
+                                               Environment environment, double value) {
+                pheromoneValues[solutionComponent] = value;
+            }
+        };
+    }
+
+    /**
+     * Configures a solver whose ants always build solutions of the same cost, on
+     * a dummy Environment with a 3x4 pheromone matrix.
+     *
+     * @param expectedCost          Cost of every ant solution.
+     * @param configurationProvider Algorithm configuration.
+     * @return Initialized solver.
+     * @throws InvalidInputException
+     */
+    public static AcoProblemSolver<Integer, Environment> createDummySolver(
+            final int expectedCost, ConfigurationProvider configurationProvider)
+            throws InvalidInputException {
+        AntColony<Integer, Environment> antColony = new AntColony<Integer, Environment>(
+                configurationProvider.getNumberOfAnts()) {
+
+            @Override
+            protected Ant<Integer, Environment> createAnt(Environment environment) {
+                return createDummyAnt(expectedCost, 3);
+            }
+        };
+
+        AcoProblemSolver<Integer, Environment> solver = new AcoProblemSolver<>();
+        solver.initialize(createDummyEnvironment(new double[3][4], 3, 4), antColony,
+                configurationProvider);
+        solver.getAntColony().addAntPolicies(new AntPolicy<Integer, Environment>(
+                AntPolicyType.NODE_SELECTION) {
+
+            @Override
+            public boolean applyPolicy(Environment environment,
+                                       ConfigurationProvider configurationProvider) {
+                getAnt().visitNode(getAnt().getCurrentIndex());
+                return true;
+            }
+        });
+        return solver;
+    }
+
 }
@@ -0,0 +1,120 @@
+package isula.tsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.AcoProblemSolver;
+import isula.aco.Ant;
+import isula.aco.algorithms.antsystem.PerformEvaporation;
+import isula.aco.algorithms.antsystem.RandomNodeSelection;
+import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
+
+import main.as.AcoTspWithIsula;
+import main.as.TspProblemConfiguration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class AntForTspTest {
+
+    private static final int NUMBER_OF_CITIES = 20;
+    private static final long SEED = 7L;
+
+    private double[][] coordinates;
+
+    /**
+     * Places the cities at random on a 100 x 100 square.
+     */
+    @Before
+    public void setUp() {
+        Random random = new Random(SEED);
+        this.coordinates = new double[NUMBER_OF_CITIES][2];
+        for (int city = 0; city < NUMBER_OF_CITIES; city++) {
+            coordinates[city][0] = random.nextInt(100);
+            coordinates[city][1] = random.nextInt(100);
+        }
+    }
+
+    private AcoProblemSolver<Integer, TspEnvironment> solve(TspEnvironment environment) throws Exception {
+        TspProblemConfiguration configurationProvider = new TspProblemConfiguration(coordinates, SEED);
+        AcoProblemSolver<Integer, TspEnvironment> solver = new AcoProblemSolver<>();
+        solver.initialize(environment, AcoTspWithIsula.getAntColony(configurationProvider), configurationProvider);
+        solver.addDaemonActions(new StartPheromoneMatrix<Integer, TspEnvironment>(),
+                new PerformEvaporation<Integer, TspEnvironment>(), AcoTspWithIsula.getPheromoneUpdatePolicy());
+        solver.getAntColony().addAntPolicies(new RandomNodeSelection<Integer, TspEnvironment>());
+        solver.solveProblem();
+        return solver;
+    }
+
+    /**
+     * Checks every ant of the colony built a tour that visits each city once, and that its cost is the length of
+     * the closed tour.
+     */
+    private void assertValidTours(AcoProblemSolver<Integer, TspEnvironment> solver) {
+        TspEnvironment environment = solver.getEnvironment();
+
+        for (Ant<Integer, TspEnvironment> ant : solver.getAntColony().getHive()) {
+            Integer[] route = ant.getSolution();
+            assertEquals(NUMBER_OF_CITIES, route.length);
+
+            boolean[] visited = new boolean[NUMBER_OF_CITIES];
+            for (Integer city : route) {
+                assertFalse("City " + city + " was visited twice", visited[city]);
+                visited[city] = true;
+            }
+
+            assertEquals(AntForTsp.getTotalDistance(route, coordinates), ant.getSolutionCost(environment), 0.0);
+        }
+
+        assertTrue(solver.getBestSolutionCost() <= AntForTsp.getTotalDistance(
+                solver.getAntColony().getHive().get(0).getSolution(), coordinates));
+    }
+
+    @Test
+    public void testBestRemainingCity() throws Exception {
+        // Cities on a line, with growing gaps between them: 0, 1, 3, 6, 10 and 15.
+        double[][] line = {{0, 0}, {1, 0}, {3, 0}, {6, 0}, {10, 0}, {15, 0}};
+        TspEnvironment environment = new TspEnvironment(line, 2);
+        assertEquals(1, environment.getCandidate(0, 0));
+        assertEquals(2, environment.getCandidate(0, 1));
+
+        AntForTsp ant = new AntForTsp(line.length);
+        int[] neighbourhood = new int[line.length];
+
+        ant.visitNode(5);
+        ant.visitNode(0);
+        assertEquals(2, ant.getNeighbourhood(environment, neighbourhood));
+        assertEquals(1, neighbourhood[0]);
+        assertEquals(2, neighbourhood[1]);
+
+        // Once the candidates of the current city were visited, the nearest remaining city is the only option.
+        ant.clear();
+        ant.visitNode(1);
+        ant.visitNode(2);
+        ant.visitNode(0);
+        assertEquals(1, ant.getNeighbourhood(environment, neighbourhood));
+        assertEquals(3, neighbourhood[0]);
+
+        // The candidates of the city at 6 are the cities at 3 and 10. Both were visited, and 15 is the only one left.
+        ant.visitNode(4);
+        ant.visitNode(3);
+        assertEquals(1, ant.getNeighbourhood(environment, neighbourhood));
+        assertEquals(5, neighbourhood[0]);
+
+        ant.visitNode(5);
+        assertEquals(0, ant.getNeighbourhood(environment, neighbourhood));
+    }
+
+    @Test
+    public void testTours() throws Exception {
+        assertValidTours(solve(new TspEnvironment(coordinates)));
+    }
+
+    @Test
+    public void testToursWithCandidateLists() throws Exception {
+        assertValidTours(solve(new TspEnvironment(coordinates, 5)));
+    }
+}
@@ -0,0 +1,97 @@
+package isula.tsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import isula.aco.exception.InvalidInputException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TspEnvironmentTest {
+
+    private static final double[][] COORDINATES = {{0, 0}, {3, 4}, {1, 1}, {10, 0}, {0.6, 0.6}, {7.5, 2.2}};
+
+    private TspEnvironment environment;
+
+    @Before
+    public void setUp() throws InvalidInputException {
+        this.environment = new TspEnvironment(COORDINATES);
+    }
+
+    @Test
+    public void testDistances() {
+        assertTrue(environment.hasDistanceMatrix());
+
+        for (int city = 0; city < COORDINATES.length; city++) {
+            assertEquals(0, environment.getDistance(city, city));
+
+            for (int other = 0; other < COORDINATES.length; other++) {
+                assertEquals(environment.getDistance(city, other), environment.getDistance(other, city));
+
+                double xDistance = COORDINATES[city][0] - COORDINATES[other][0];
+                double yDistance = COORDINATES[city][1] - COORDINATES[other][1];
+                assertEquals(Math.round(Math.hypot(xDistance, yDistance)), environment.getDistance(city, other));
+            }
+        }
+
+        // Distances are rounded to the nearest integer: sqrt(2), sqrt(0.72) and sqrt(0.32) are all 1.
+        assertEquals(5, environment.getDistance(0, 1));
+        assertEquals(1, environment.getDistance(0, 2));
+        assertEquals(1, environment.getDistance(0, 4));
+        assertEquals(1, environment.getDistance(2, 4));
+    }
+
+    @Test
+    public void testCandidateLists() throws InvalidInputException {
+        int candidateListSize = 3;
+        TspEnvironment candidateEnvironment = new TspEnvironment(COORDINATES, candidateListSize);
+        assertTrue(candidateEnvironment.hasCandidateLists());
+        assertFalse(environment.hasCandidateLists());
+
+        for (int city = 0; city < COORDINATES.length; city++) {
+            boolean[] isCandidate = new boolean[COORDINATES.length];
+            int previousDistance = 0;
+
+            for (int position = 0; position < candidateListSize; position++) {
+                int candidate = candidateEnvironment.getCandidate(city, position);
+                assertTrue("A city is not its own candidate", candidate != city);
+                assertFalse("Candidate " + candidate + " is repeated", isCandidate[candidate]);
+                isCandidate[candidate] = true;
+
+                int distance = candidateEnvironment.getDistance(city, candidate);
+                assertTrue("Candidates are sorted by distance", distance >= previousDistance);
+                previousDistance = distance;
+            }
+
+            // The cities left out are never nearer than the farthest candidate.
+            for (int other = 0; other < COORDINATES.length; other++) {
+                if (other != city && !isCandidate[other]) {
+                    assertTrue(candidateEnvironment.getDistance(city, other) >= previousDistance);
+                }
+            }
+        }
+
+        // From {1, 1}: {0.6, 0.6} at 1, {0, 0} at 1 and {3, 4} at 4.
+        assertEquals(1, candidateEnvironment.getDistance(2, candidateEnvironment.getCandidate(2, 1)));
+        assertEquals(1, candidateEnvironment.getCandidate(2, 2));
+    }
+
+    @Test
+    public void testCandidateListSize() throws InvalidInputException {
+        // The list can't be longer than the number of other cities.
+        assertEquals(COORDINATES.length - 1, new TspEnvironment(COORDINATES, 50).getCandidateListSize());
+        assertEquals(0, new TspEnvironment(COORDINATES, 0).getCandidateListSize());
+    }
+
+    @Test
+    public void testTotalDistance() {
+        int[] route = {0, 1, 3, 5, 2, 4};
+
+        // 5 + 8 + 3 + 7 + 1 + 1, closing the tour back to the first city.
+        assertEquals(25.0, environment.getTotalDistance(route, route.length), 0.0);
+        assertEquals(AntForTsp.getTotalDistance(new Integer[]{0, 1, 3, 5, 2, 4}, COORDINATES),
+                environment.getTotalDistance(route, route.length), 0.0);
+    }
+}